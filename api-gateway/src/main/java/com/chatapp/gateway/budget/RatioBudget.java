@@ -0,0 +1,47 @@
+package com.chatapp.gateway.budget;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps extra requests, such as hedges or retries, at a fraction of all requests.
+ * Every request deposits {@code ratio} of a token and every extra request spends a whole one; the
+ * balance is capped so that a quiet period cannot save up an unbounded burst.
+ */
+public class RatioBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public RatioBudget(double ratio, int maxBurst) {
+        this.deposit = Math.round(ratio * SCALE);
+        this.maxBalance = maxBurst * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /**
+     * Record a request, earning budget for future extra requests.
+     */
+    public void onRequest() {
+        balance.getAndUpdate(current -> Math.min(maxBalance, current + deposit));
+    }
+
+    /**
+     * Spend budget for one extra request if enough is left.
+     *
+     * @return true if the extra request may be sent
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+}
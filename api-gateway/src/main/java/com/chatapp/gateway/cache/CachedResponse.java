@@ -0,0 +1,23 @@
+package com.chatapp.gateway.cache;
+
+import lombok.Value;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A successful GET response held by the {@link ResponseCache}.
+ */
+@Value
+public class CachedResponse {
+    HttpHeaders headers;
+    byte[] body;
+    String etag;
+
+    /**
+     * Users whose changes make this response stale: the requesting principal and every user
+     * ID that appears in the request path.
+     */
+    Set<UUID> userIds;
+}
@@ -0,0 +1,112 @@
+package com.chatapp.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gateway-side cache of GET responses, bounded by total body size.
+ * Entries are indexed by the users they depend on, so that a change to a user drops every
+ * cached response about that user, whoever requested it. The TTL bounds staleness for
+ * dependencies that are not visible in the request, e.g. contacts shown in a contact list.
+ */
+@Slf4j
+@Component
+public class ResponseCache {
+
+    private final Cache<String, CachedResponse> responses;
+    private final Map<UUID, Set<String>> keysByUser = new ConcurrentHashMap<>();
+    private final Cache<UUID, Long> recentInvalidations;
+    private final long maxEntrySize;
+
+    public ResponseCache(@Value("${response-cache.max-size:64MB}") DataSize maxSize,
+                         @Value("${response-cache.max-entry-size:256KB}") DataSize maxEntrySize,
+                         @Value("${response-cache.ttl:60s}") Duration ttl) {
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.getBody().length)
+                .expireAfterWrite(ttl)
+                .removalListener(this::unindex)
+                .build();
+        this.recentInvalidations = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Get a cached response.
+     *
+     * @param key the cache key
+     * @return the response, or null on a miss
+     */
+    public CachedResponse get(String key) {
+        return responses.getIfPresent(key);
+    }
+
+    /**
+     * Check whether a body is small enough to be cached.
+     *
+     * @param bodySize the body size in bytes
+     * @return true if the body may be cached
+     */
+    public boolean accepts(int bodySize) {
+        return bodySize <= maxEntrySize;
+    }
+
+    /**
+     * Cache a response, unless one of its users changed after the backend was asked for it.
+     *
+     * @param key the cache key
+     * @param response the response
+     * @param requestedAtNanos the {@link System#nanoTime()} at which the request was sent
+     */
+    public void put(String key, CachedResponse response, long requestedAtNanos) {
+        for (UUID userId : response.getUserIds()) {
+            Long invalidatedAt = recentInvalidations.getIfPresent(userId);
+            if (invalidatedAt != null && invalidatedAt - requestedAtNanos >= 0) {
+                return;
+            }
+        }
+        for (UUID userId : response.getUserIds()) {
+            keysByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        responses.put(key, response);
+    }
+
+    /**
+     * Drop every cached response that depends on a user.
+     *
+     * @param userId the changed user
+     */
+    public void invalidateUser(UUID userId) {
+        recentInvalidations.put(userId, System.nanoTime());
+        Set<String> keys = keysByUser.remove(userId);
+        if (keys != null) {
+            responses.invalidateAll(keys);
+            log.debug("Invalidated {} cached responses for user: {}", keys.size(), userId);
+        }
+    }
+
+    private void unindex(String key, CachedResponse response, RemovalCause cause) {
+        if (key == null || response == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        for (UUID userId : response.getUserIds()) {
+            keysByUser.computeIfPresent(userId, (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.chatapp.gateway.cache;
+
+import com.chatapp.common.event.UserEventCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener that drops cached gateway responses when a user changes.
+ * Every gateway instance consumes with its own group ID so that each one sees every event.
+ */
+@Slf4j
+@Component
+public class ResponseCacheInvalidationListener {
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheInvalidationListener(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Handle a user event or user status event.
+     *
+     * @param message the encoded event
+     */
+    @KafkaListener(
+            topics = {"user-events", "user-status"},
+            groupId = "gateway-response-cache-#{T(java.util.UUID).randomUUID()}",
+            properties = "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer")
+    public void onUserEvent(byte[] message) {
+        try {
+            responseCache.invalidateUser(UserEventCodec.readUserId(message));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring unreadable user event for response cache invalidation", e);
+        }
+    }
+}
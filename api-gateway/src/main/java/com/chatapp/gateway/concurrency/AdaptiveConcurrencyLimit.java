@@ -0,0 +1,118 @@
+package com.chatapp.gateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit for one route that adapts to the latency the backend is observed to have.
+ *
+ * <p>Uses a gradient algorithm: a fast-moving average of response times is compared with a
+ * slow-moving one. While they agree the limit grows by about its square root per sample; once
+ * recent responses get slower than the long-term baseline allows (beyond {@code tolerance}) the
+ * limit shrinks in proportion, so queueing in the backend is cut off before it turns into tail
+ * latency. Dropped requests (errors and timeouts) shrink the limit multiplicatively. Samples taken
+ * while less than half of the limit was in use carry no information about the limit and are
+ * ignored for adjustments.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SHORT_WINDOW_ALPHA = 2.0 / (10 + 1);
+    private static final double LONG_WINDOW_ALPHA = 2.0 / (600 + 1);
+    private static final double SMOOTHING = 0.2;
+    private static final double TOLERANCE = 1.5;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Reserve a slot for a request if the route is below its limit.
+     *
+     * @return the number of requests in flight including this one, or -1 if the limit is reached
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Release a slot and adjust the limit from the request's outcome.
+     *
+     * @param rttNanos the response time
+     * @param inFlightAtStart the value returned by {@link #tryAcquire()}
+     * @param dropped true if the request failed or timed out
+     */
+    public void release(long rttNanos, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        update(rttNanos, inFlightAtStart, dropped);
+    }
+
+    /**
+     * Release a slot without adjusting the limit, e.g. for a cancelled request.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Get the current limit.
+     *
+     * @return the limit
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Get the number of requests in flight.
+     *
+     * @return the in-flight count
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(minLimit, limit * DROP_BACKOFF);
+            return;
+        }
+
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+        } else {
+            shortRttNanos += SHORT_WINDOW_ALPHA * (rttNanos - shortRttNanos);
+            longRttNanos += LONG_WINDOW_ALPHA * (rttNanos - longRttNanos);
+            // After a sustained slowdown, let the baseline converge instead of pinning the limit low
+            if (longRttNanos / shortRttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+        }
+
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, (1 - SMOOTHING) * limit + SMOOTHING * newLimit));
+    }
+}
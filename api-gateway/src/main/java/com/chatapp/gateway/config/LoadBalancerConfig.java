@@ -0,0 +1,15 @@
+package com.chatapp.gateway.config;
+
+import com.chatapp.gateway.loadbalancer.ConsistentHashLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for service load balancing.
+ * The chat service holds users' WebSocket connections, so it is balanced by consistent hashing on
+ * the user ID; all other services use the default round robin.
+ */
+@Configuration
+@LoadBalancerClient(name = "chat-service", configuration = ConsistentHashLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -1,14 +1,19 @@
 package com.chatapp.gateway.config;
 
+import com.chatapp.gateway.ratelimit.HybridRateLimiter;
+import com.chatapp.gateway.ratelimit.RateLimitReconciler;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
-import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import reactor.core.publisher.Mono;
 
 /**
  * Configuration for rate limiting in the API Gateway.
  * This class defines the rate limiting configuration to prevent abuse of the API.
+ * Limits are enforced by {@link HybridRateLimiter}s, which check local buckets and reconcile
+ * them with Redis in the background instead of calling Redis on every request.
  */
 @Configuration
 public class RateLimiterConfig {
@@ -43,11 +48,12 @@ public class RateLimiterConfig {
 
     /**
      * Define a key resolver for rate limiting based on the client IP address.
-     * This will limit requests based on the client IP address.
+     * This will limit requests based on the client IP address. It is the default key resolver.
      *
      * @return the key resolver
      */
     @Bean
+    @Primary
     public KeyResolver ipKeyResolver() {
         return exchange -> {
             String ip = exchange.getRequest().getRemoteAddress().getAddress().getHostAddress();
@@ -56,35 +62,45 @@ public class RateLimiterConfig {
     }
 
     /**
-     * Define a Redis rate limiter for general API endpoints.
-     * This will limit requests to 10 per second with a burst capacity of 20.
+     * Define a rate limiter for general API endpoints.
+     * This will limit requests to 10 per second with a burst capacity of 20. It is the default rate limiter.
      *
-     * @return the Redis rate limiter
+     * @param reconciler the Redis reconciler shared by all limiters
+     * @param configurationService the gateway configuration service
+     * @return the rate limiter
      */
     @Bean
-    public RedisRateLimiter generalApiRateLimiter() {
-        return new RedisRateLimiter(10, 20);
+    @Primary
+    public HybridRateLimiter generalApiRateLimiter(RateLimitReconciler reconciler,
+                                                   ConfigurationService configurationService) {
+        return new HybridRateLimiter(reconciler, configurationService, 10, 20);
     }
 
     /**
-     * Define a Redis rate limiter for authentication endpoints.
+     * Define a rate limiter for authentication endpoints.
      * This will limit requests to 3 per second with a burst capacity of 5.
      *
-     * @return the Redis rate limiter
+     * @param reconciler the Redis reconciler shared by all limiters
+     * @param configurationService the gateway configuration service
+     * @return the rate limiter
      */
     @Bean
-    public RedisRateLimiter authRateLimiter() {
-        return new RedisRateLimiter(3, 5);
+    public HybridRateLimiter authRateLimiter(RateLimitReconciler reconciler,
+                                             ConfigurationService configurationService) {
+        return new HybridRateLimiter(reconciler, configurationService, 3, 5);
     }
 
     /**
-     * Define a Redis rate limiter for media upload endpoints.
+     * Define a rate limiter for media upload endpoints.
      * This will limit requests to 2 per second with a burst capacity of 5.
      *
-     * @return the Redis rate limiter
+     * @param reconciler the Redis reconciler shared by all limiters
+     * @param configurationService the gateway configuration service
+     * @return the rate limiter
      */
     @Bean
-    public RedisRateLimiter mediaUploadRateLimiter() {
-        return new RedisRateLimiter(2, 5);
+    public HybridRateLimiter mediaUploadRateLimiter(RateLimitReconciler reconciler,
+                                                    ConfigurationService configurationService) {
+        return new HybridRateLimiter(reconciler, configurationService, 2, 5);
     }
 }
\ No newline at end of file
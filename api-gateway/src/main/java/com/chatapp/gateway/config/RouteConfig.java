@@ -1,75 +1,143 @@
 package com.chatapp.gateway.config;
 
+import com.chatapp.gateway.filter.AdaptiveConcurrencyGatewayFilterFactory;
+import com.chatapp.gateway.filter.CoalescingGatewayFilterFactory;
+import com.chatapp.gateway.filter.HedgingGatewayFilterFactory;
+import com.chatapp.gateway.filter.ResponseCacheGatewayFilterFactory;
+import com.chatapp.gateway.filter.RetryBudgetGatewayFilterFactory;
+import com.chatapp.gateway.filter.UserRpcGatewayFilterFactory;
+import com.chatapp.gateway.metrics.GatewayLatencyMetrics;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 /**
  * Configuration for API Gateway routes.
  * This class defines the routes for the API Gateway to route requests to the appropriate microservices.
+ * Each service route is guarded by an adaptive concurrency limit in front of its circuit breaker.
+ * User service reads are served from the gateway response cache where possible, and concurrent
+ * identical reads are coalesced into one backend call: per caller in general, and across callers for
+ * public profiles, which do not depend on the caller. Reads on the user and presence routes are
+ * hedged against slow instances, and single-user lookups can be served over the binary user RPC
+ * instead of HTTP/JSON. Failed idempotent requests on every service route are retried within a
+ * per-route {@link RetryBudgetGatewayFilterFactory retry budget}, inside the circuit breaker so that
+ * it sees only the final outcome; default filters do not apply to these routes, so the
+ * {@code default-filters} entry in application.yml covers only the discovery locator routes.
+ * WebSocket connections are pinned to chat service instances by user ID (see
+ * {@link LoadBalancerConfig}). Every route filter is timed by {@link GatewayLatencyMetrics}.
  */
 @Configuration
 public class RouteConfig {
 
+    private static final String PUBLIC_PROFILE_PATH = "/api/users/*/profile";
+
     /**
      * Configure routes for the API Gateway.
      *
      * @param builder the route locator builder
+     * @param adaptiveConcurrency the adaptive concurrency filter factory
+     * @param responseCache the response cache filter factory
+     * @param coalescing the request coalescing filter factory
+     * @param hedging the request hedging filter factory
+     * @param userRpc the user RPC filter factory
+     * @param retryBudget the retry budget filter factory
+     * @param latencyMetrics the gateway latency metrics
      * @return the route locator
      */
     @Bean
-    public RouteLocator customRouteLocator(RouteLocatorBuilder builder) {
-        return builder.routes()
+    public RouteLocator customRouteLocator(RouteLocatorBuilder builder,
+                                           AdaptiveConcurrencyGatewayFilterFactory adaptiveConcurrency,
+                                           ResponseCacheGatewayFilterFactory responseCache,
+                                           CoalescingGatewayFilterFactory coalescing,
+                                           HedgingGatewayFilterFactory hedging,
+                                           UserRpcGatewayFilterFactory userRpc,
+                                           RetryBudgetGatewayFilterFactory retryBudget,
+                                           GatewayLatencyMetrics latencyMetrics) {
+        // Budgets are kept per route ID, so the routes can share one filter
+        GatewayFilter retry = retryBudget.apply(config -> { });
+        return latencyMetrics.instrument(builder.routes()
                 // User Service Routes
                 .route("user-service", r -> r.path("/api/users/**")
                         .filters(f -> f
+                                .filter(responseCache.apply(config -> { }))
+                                .filter(coalescing.apply(config -> config.setSharedPaths(List.of(PUBLIC_PROFILE_PATH))))
+                                .filter(concurrencyLimit(adaptiveConcurrency, "user-service"))
+                                .filter(hedging.apply(config -> { }))
                                 .rewritePath("/api/users/(?<segment>.*)", "/api/v1/users/${segment}")
                                 .circuitBreaker(config -> config
                                         .setName("userServiceCircuitBreaker")
-                                        .setFallbackUri("forward:/fallback/user-service")))
+                                        .setFallbackUri("forward:/fallback/user-service"))
+                                .filter(retry)
+                                .filter(userRpc.apply(config -> { })))
                         .uri("lb://user-service"))
                 
                 // Chat Service Routes
                 .route("chat-service", r -> r.path("/api/chats/**")
                         .filters(f -> f
+                                .filter(concurrencyLimit(adaptiveConcurrency, "chat-service"))
                                 .rewritePath("/api/chats/(?<segment>.*)", "/api/v1/chats/${segment}")
                                 .circuitBreaker(config -> config
                                         .setName("chatServiceCircuitBreaker")
-                                        .setFallbackUri("forward:/fallback/chat-service")))
+                                        .setFallbackUri("forward:/fallback/chat-service"))
+                                .filter(retry))
                         .uri("lb://chat-service"))
                 
                 // Presence Service Routes
                 .route("presence-service", r -> r.path("/api/presence/**")
                         .filters(f -> f
+                                .filter(concurrencyLimit(adaptiveConcurrency, "presence-service"))
+                                .filter(hedging.apply(config -> { }))
                                 .rewritePath("/api/presence/(?<segment>.*)", "/api/v1/presence/${segment}")
                                 .circuitBreaker(config -> config
                                         .setName("presenceServiceCircuitBreaker")
-                                        .setFallbackUri("forward:/fallback/presence-service")))
+                                        .setFallbackUri("forward:/fallback/presence-service"))
+                                .filter(retry))
                         .uri("lb://presence-service"))
                 
                 // Notification Service Routes
                 .route("notification-service", r -> r.path("/api/notifications/**")
                         .filters(f -> f
+                                .filter(concurrencyLimit(adaptiveConcurrency, "notification-service"))
                                 .rewritePath("/api/notifications/(?<segment>.*)", "/api/v1/notifications/${segment}")
                                 .circuitBreaker(config -> config
                                         .setName("notificationServiceCircuitBreaker")
-                                        .setFallbackUri("forward:/fallback/notification-service")))
+                                        .setFallbackUri("forward:/fallback/notification-service"))
+                                .filter(retry))
                         .uri("lb://notification-service"))
                 
                 // Media Service Routes
                 .route("media-service", r -> r.path("/api/media/**")
                         .filters(f -> f
+                                .filter(concurrencyLimit(adaptiveConcurrency, "media-service"))
                                 .rewritePath("/api/media/(?<segment>.*)", "/api/v1/media/${segment}")
                                 .circuitBreaker(config -> config
                                         .setName("mediaServiceCircuitBreaker")
-                                        .setFallbackUri("forward:/fallback/media-service")))
+                                        .setFallbackUri("forward:/fallback/media-service"))
+                                .filter(retry))
                         .uri("lb://media-service"))
                 
                 // WebSocket Routes
                 .route("websocket-route", r -> r.path("/ws/**")
                         .uri("lb://chat-service"))
                 
-                .build();
+                .build());
+    }
+
+    /**
+     * Create the adaptive concurrency filter for a service, rejecting to the service's fallback.
+     *
+     * @param adaptiveConcurrency the adaptive concurrency filter factory
+     * @param service the service name
+     * @return the gateway filter
+     */
+    private GatewayFilter concurrencyLimit(AdaptiveConcurrencyGatewayFilterFactory adaptiveConcurrency, String service) {
+        return adaptiveConcurrency.apply(config -> {
+            config.setName(service);
+            config.setFallbackUri("forward:/fallback/" + service);
+        });
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,8 @@
 package com.chatapp.gateway.config;
 
+import com.chatapp.common.security.JwtTokenProvider;
 import com.chatapp.gateway.filter.JwtAuthenticationFilter;
+import com.chatapp.gateway.metrics.GatewayLatencyMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
@@ -24,8 +26,8 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
-        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+    public SecurityConfig(JwtTokenProvider jwtTokenProvider, GatewayLatencyMetrics latencyMetrics) {
+        this.jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtTokenProvider, latencyMetrics);
     }
 
     /**
@@ -40,10 +42,11 @@ public class SecurityConfig {
                 .csrf().disable()
                 .cors().configurationSource(corsConfigurationSource()).and()
                 .authorizeExchange()
+                // Internal service endpoints, reachable through the discovery locator routes
+                .pathMatchers("/internal/**", "/*/internal/**").denyAll()
                 .pathMatchers("/api/auth/**").permitAll()
                 .pathMatchers("/actuator/**").permitAll()
                 .pathMatchers("/fallback/**").permitAll()
-                .pathMatchers("/ws/**").permitAll() // WebSocket endpoints
                 .anyExchange().authenticated()
                 .and()
                 .addFilterAt(jwtAuthenticationFilter, SecurityWebFiltersOrder.AUTHENTICATION)
@@ -3,13 +3,13 @@ package com.chatapp.gateway.controller;
 import com.chatapp.common.dto.ApiResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
  * Fallback controller for circuit breaker fallbacks.
  * This controller provides fallback responses when a service is unavailable.
+ * The endpoints accept any method, since requests are forwarded here with their original method.
  */
 @RestController
 @RequestMapping("/fallback")
@@ -20,7 +20,7 @@ public class FallbackController {
      *
      * @return a fallback response
      */
-    @GetMapping("/user-service")
+    @RequestMapping("/user-service")
     public ResponseEntity<ApiResponse<Void>> userServiceFallback() {
         ApiResponse<Void> response = ApiResponse.error(
                 "User service is currently unavailable. Please try again later.",
@@ -34,7 +34,7 @@ public class FallbackController {
      *
      * @return a fallback response
      */
-    @GetMapping("/chat-service")
+    @RequestMapping("/chat-service")
     public ResponseEntity<ApiResponse<Void>> chatServiceFallback() {
         ApiResponse<Void> response = ApiResponse.error(
                 "Chat service is currently unavailable. Please try again later.",
@@ -48,7 +48,7 @@ public class FallbackController {
      *
      * @return a fallback response
      */
-    @GetMapping("/presence-service")
+    @RequestMapping("/presence-service")
     public ResponseEntity<ApiResponse<Void>> presenceServiceFallback() {
         ApiResponse<Void> response = ApiResponse.error(
                 "Presence service is currently unavailable. Please try again later.",
@@ -62,7 +62,7 @@ public class FallbackController {
      *
      * @return a fallback response
      */
-    @GetMapping("/notification-service")
+    @RequestMapping("/notification-service")
     public ResponseEntity<ApiResponse<Void>> notificationServiceFallback() {
         ApiResponse<Void> response = ApiResponse.error(
                 "Notification service is currently unavailable. Please try again later.",
@@ -76,7 +76,7 @@ public class FallbackController {
      *
      * @return a fallback response
      */
-    @GetMapping("/media-service")
+    @RequestMapping("/media-service")
     public ResponseEntity<ApiResponse<Void>> mediaServiceFallback() {
         ApiResponse<Void> response = ApiResponse.error(
                 "Media service is currently unavailable. Please try again later.",
@@ -0,0 +1,129 @@
+package com.chatapp.gateway.filter;
+
+import com.chatapp.gateway.concurrency.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.DispatcherHandler;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gateway filter that caps the number of concurrent requests to a route with an
+ * {@link AdaptiveConcurrencyLimit}. Requests over the limit are rejected immediately by
+ * forwarding them to the route's fallback endpoint, instead of queueing in front of a slow backend.
+ * Limits are shared by name, so all routes to one service share one limit.
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+    private final ObjectProvider<DispatcherHandler> dispatcherHandler;
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final Map<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyGatewayFilterFactory(ObjectProvider<DispatcherHandler> dispatcherHandler,
+                                                   MeterRegistry meterRegistry,
+                                                   @Value("${adaptive-concurrency.initial-limit:20}") int initialLimit,
+                                                   @Value("${adaptive-concurrency.min-limit:5}") int minLimit,
+                                                   @Value("${adaptive-concurrency.max-limit:1000}") int maxLimit) {
+        super(Config.class);
+        this.dispatcherHandler = dispatcherHandler;
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        AdaptiveConcurrencyLimit limit = limits.computeIfAbsent(config.getName(), this::createLimit);
+        Counter rejected = Counter.builder("gateway.concurrency.rejected")
+                .tag("name", config.getName())
+                .register(meterRegistry);
+        URI fallbackUri = config.getFallbackUri() != null ? URI.create(config.getFallbackUri()) : null;
+
+        return (exchange, chain) -> {
+            int inFlight = limit.tryAcquire();
+            if (inFlight < 0) {
+                rejected.increment();
+                log.debug("Concurrency limit {} reached for {}", limit.getLimit(), config.getName());
+                return reject(exchange, fallbackUri);
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            limit.release();
+                            return;
+                        }
+                        HttpStatusCode status = exchange.getResponse().getStatusCode();
+                        boolean dropped = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                        limit.release(System.nanoTime() - start, inFlight, dropped);
+                    });
+        };
+    }
+
+    private AdaptiveConcurrencyLimit createLimit(String name) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit);
+        Gauge.builder("gateway.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in_flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .tag("name", name)
+                .register(meterRegistry);
+        return limit;
+    }
+
+    /**
+     * Answer a rejected request from the fallback endpoint, or with 503 if the route has none.
+     */
+    private Mono<Void> reject(ServerWebExchange exchange, URI fallbackUri) {
+        if (fallbackUri == null) {
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            return exchange.getResponse().setComplete();
+        }
+        ServerWebExchangeUtils.reset(exchange);
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .path(fallbackUri.getSchemeSpecificPart())
+                .build();
+        return dispatcherHandler.getObject().handle(exchange.mutate().request(request).build());
+    }
+
+    /**
+     * Configuration for the adaptive concurrency filter.
+     */
+    @Data
+    public static class Config {
+        /**
+         * Name of the limit; routes with the same name share it.
+         */
+        private String name;
+
+        /**
+         * Fallback for rejected requests, e.g. {@code forward:/fallback/user-service}.
+         */
+        private String fallbackUri;
+    }
+}
@@ -0,0 +1,51 @@
+package com.chatapp.gateway.filter;
+
+import com.chatapp.gateway.metrics.GatewayLatencyMetrics;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
+
+/**
+ * Global filter that times the backend call of every sampled request.
+ * Wraps the routing filter, which completes once the backend has returned its response headers,
+ * so the measured time excludes streaming the body back to the client.
+ */
+@Component
+public class BackendLatencyGlobalFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Runs right before the routing filter.
+     */
+    public static final int ORDER = NettyRoutingFilter.ORDER - 1;
+
+    private final GatewayLatencyMetrics metrics;
+
+    public BackendLatencyGlobalFilter(GatewayLatencyMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null || isAlreadyRouted(exchange) || RouteLatencyGlobalFilter.isWebSocket(exchange)
+                || !metrics.isSampled(exchange)) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> metrics.recordBackend(route.getId(), System.nanoTime() - start));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
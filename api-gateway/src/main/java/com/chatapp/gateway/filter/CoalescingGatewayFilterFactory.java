@@ -0,0 +1,218 @@
+package com.chatapp.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gateway filter that collapses concurrent identical GETs into one backend call.
+ * The first request for a key goes to the backend; requests with the same key that arrive while
+ * it is in flight wait for its response and receive a copy. If the first request fails, is
+ * cancelled or returns a response that cannot be shared, the waiting requests go to the backend
+ * themselves.
+ *
+ * <p>Requests share a key only within an authorization scope: by default the scope is the
+ * principal, and for the configured shared paths it is any authenticated caller. Shared paths must
+ * serve a public projection that does not depend on the caller, and only their 2xx responses are
+ * handed to other callers; waiters on any other status go to the backend themselves.
+ */
+@Component
+public class CoalescingGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<CoalescingGatewayFilterFactory.Config> {
+
+    /**
+     * Runs after the response cache, and wraps the response before the write filter subscribes to it.
+     */
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private static final String USER_ID_HEADER = "X-User-ID";
+    private static final String SHARED_SCOPE = "authenticated";
+    private static final Set<String> UNSHARED_HEADERS = Set.of(
+            "set-cookie", "transfer-encoding", "connection", "date");
+
+    private final Map<String, Sinks.One<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final long maxBodySize;
+    private final Counter misses;
+    private final Counter hits;
+    private final Counter fallbacks;
+
+    public CoalescingGatewayFilterFactory(MeterRegistry meterRegistry,
+                                          @Value("${request-coalescing.max-body-size:1MB}") DataSize maxBodySize) {
+        super(Config.class);
+        this.maxBodySize = maxBodySize.toBytes();
+        this.misses = coalescingCounter(meterRegistry, "miss");
+        this.hits = coalescingCounter(meterRegistry, "hit");
+        this.fallbacks = coalescingCounter(meterRegistry, "fallback");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> sharedPaths = new ArrayList<>();
+        for (String path : config.getSharedPaths()) {
+            sharedPaths.add(PathPatternParser.defaultInstance.parse(path));
+        }
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = key(request, sharedPaths);
+            Sinks.One<SharedResponse> flight = Sinks.one();
+            Sinks.One<SharedResponse> existing = inFlight.putIfAbsent(key, flight);
+            if (existing != null) {
+                hits.increment();
+                return existing.asMono()
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(shared -> {
+                            if (shared.isPresent()) {
+                                return write(exchange.getResponse(), shared.get());
+                            }
+                            fallbacks.increment();
+                            return chain.filter(exchange);
+                        });
+            }
+
+            misses.increment();
+            boolean sharedScope = key.startsWith(SHARED_SCOPE + " ");
+            ServerHttpResponse decorated = new SharingResponse(exchange.getResponse(), key, flight, sharedScope);
+            return chain.filter(exchange.mutate().response(decorated).build())
+                    .doFinally(signal -> {
+                        // Releases the waiters if no shareable response was written
+                        inFlight.remove(key, flight);
+                        flight.tryEmitEmpty();
+                    });
+        }, ORDER);
+    }
+
+    private static String key(ServerHttpRequest request, List<PathPattern> sharedPaths) {
+        String principal = request.getHeaders().getFirst(USER_ID_HEADER);
+        String scope;
+        if (principal == null) {
+            scope = "anonymous";
+        } else {
+            scope = principal;
+            for (PathPattern pattern : sharedPaths) {
+                if (pattern.matches(request.getPath().pathWithinApplication())) {
+                    scope = SHARED_SCOPE;
+                    break;
+                }
+            }
+        }
+        return scope + " " + request.getURI().getRawPath() + "?" + request.getURI().getRawQuery()
+                + " " + request.getHeaders().getFirst(HttpHeaders.ACCEPT);
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        response.getHeaders().addAll(shared.headers());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    private static Counter coalescingCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.coalescing.requests")
+                .description("GET requests by whether they joined an in-flight identical request")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Configuration for the coalescing filter.
+     */
+    @Data
+    public static class Config {
+        /**
+         * Path patterns whose responses are the same for every authenticated caller.
+         * Only list paths that serve a caller-independent public projection.
+         */
+        private List<String> sharedPaths = new ArrayList<>();
+    }
+
+    /**
+     * A response copied for the requests that waited on it.
+     */
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    /**
+     * Response decorator that hands the first response's status, headers and body to the waiters.
+     */
+    private final class SharingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final Sinks.One<SharedResponse> flight;
+        private final boolean sharedScope;
+
+        SharingResponse(ServerHttpResponse delegate, String key, Sinks.One<SharedResponse> flight,
+                        boolean sharedScope) {
+            super(delegate);
+            this.key = key;
+            this.flight = flight;
+            this.sharedScope = sharedScope;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            long contentLength = getHeaders().getContentLength();
+            if (status == null || status.value() == HttpStatus.NOT_MODIFIED.value() || contentLength > maxBodySize
+                    || (sharedScope && !status.is2xxSuccessful())) {
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                if (bytes.length <= maxBodySize) {
+                    inFlight.remove(key, flight);
+                    flight.tryEmitValue(new SharedResponse(status, sharedHeaders(), bytes));
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+
+        private HttpHeaders sharedHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                if (!UNSHARED_HEADERS.contains(name.toLowerCase())) {
+                    headers.addAll(name, values);
+                }
+            });
+            return HttpHeaders.readOnlyHttpHeaders(headers);
+        }
+    }
+}
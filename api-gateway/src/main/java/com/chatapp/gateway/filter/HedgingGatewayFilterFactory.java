@@ -0,0 +1,262 @@
+package com.chatapp.gateway.filter;
+
+import com.chatapp.gateway.budget.RatioBudget;
+import com.chatapp.gateway.hedging.LatencyTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.setAlreadyRouted;
+
+/**
+ * Gateway filter that hedges idempotent requests against slow backend instances.
+ * The request is sent to the instance chosen by the load balancer; if no response has arrived
+ * once the route's observed latency percentile has passed, the same request is sent to a
+ * different instance of the service and whichever response arrives first is used. The other call
+ * is cancelled and its connection released. Hedges are limited by a {@link RatioBudget} so that a
+ * slow service as a whole is not hit with extra load.
+ *
+ * <p>Runs right after load balancing and sends both calls itself, so the routing filter is skipped.
+ * The calls go through the routing filter's {@link HttpClient}, header filters and response timeout,
+ * and the winning response is handed over the same way the routing filter does it: its body is
+ * streamed to the client by {@link NettyWriteResponseFilter}, never buffered here.
+ * Only GET and HEAD requests are hedged.
+ */
+@Component
+public class HedgingGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgingGatewayFilterFactory.Config> {
+
+    /**
+     * Runs after the load balancer has picked the primary instance.
+     */
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD);
+
+    private final HttpClient httpClient;
+    private final NettyRoutingFilter routingFilter;
+    private final HttpClientProperties httpClientProperties;
+    private final ReactiveDiscoveryClient discoveryClient;
+    private final MeterRegistry meterRegistry;
+
+    public HedgingGatewayFilterFactory(HttpClient httpClient,
+                                       NettyRoutingFilter routingFilter,
+                                       HttpClientProperties httpClientProperties,
+                                       ReactiveDiscoveryClient discoveryClient,
+                                       MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.httpClient = httpClient;
+        this.routingFilter = routingFilter;
+        this.httpClientProperties = httpClientProperties;
+        this.discoveryClient = discoveryClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        LatencyTracker latency = new LatencyTracker(config.getPercentile(), 1000, 100, config.getInitialDelay());
+        RatioBudget budget = new RatioBudget(config.getBudgetRatio(), config.getBudgetBurst());
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            URI primaryUri = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            if (!IDEMPOTENT_METHODS.contains(exchange.getRequest().getMethod()) || primaryUri == null
+                    || route == null || isAlreadyRouted(exchange) || !primaryUri.getScheme().startsWith("http")) {
+                return chain.filter(exchange);
+            }
+            setAlreadyRouted(exchange);
+            budget.onRequest();
+
+            String serviceId = route.getUri().getHost();
+            Duration delay = latency.getPercentile().compareTo(config.getMinDelay()) > 0
+                    ? latency.getPercentile() : config.getMinDelay();
+            HttpHeaders requestHeaders = HttpHeadersFilter.filterRequest(routingFilter.getHeadersFilters(), exchange);
+            long start = System.nanoTime();
+
+            // The primary's latency is recorded whether it answers or is cancelled because the hedge
+            // won; a cancelled primary took at least that long, so the percentile is not skewed low
+            Mono<Upstream> primary = send(exchange, primaryUri, requestHeaders, false)
+                    .doOnNext(upstream -> latency.record(System.nanoTime() - start))
+                    .doOnCancel(() -> latency.record(System.nanoTime() - start));
+            Mono<Upstream> hedge = Mono.delay(delay)
+                    .filter(tick -> budget.tryAcquire())
+                    .flatMap(tick -> otherInstance(serviceId, primaryUri))
+                    .flatMap(hedgeUri -> {
+                        counter(route, "sent").increment();
+                        return send(exchange, hedgeUri, requestHeaders, true);
+                    });
+
+            Mono<Upstream> winner = Mono.firstWithValue(primary, hedge)
+                    // A response that arrives after the race was decided is closed unread
+                    .doOnDiscard(Upstream.class, upstream -> upstream.connection().dispose());
+            Duration responseTimeout = responseTimeout(route);
+            if (responseTimeout != null) {
+                winner = winner
+                        .timeout(responseTimeout, Mono.error(new TimeoutException(
+                                "Response took longer than timeout: " + responseTimeout)))
+                        .onErrorMap(TimeoutException.class,
+                                e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, e.getMessage(), e));
+            }
+            return winner
+                    .doOnNext(upstream -> {
+                        if (upstream.hedge()) {
+                            counter(route, "won").increment();
+                        }
+                        handOver(exchange, upstream);
+                    })
+                    .then(chain.filter(exchange));
+        }, ORDER);
+    }
+
+    private Mono<Upstream> send(ServerWebExchange exchange, URI uri, HttpHeaders requestHeaders, boolean hedge) {
+        boolean preserveHost = exchange.getAttributeOrDefault(PRESERVE_HOST_HEADER_ATTRIBUTE, false);
+        return httpClient
+                .headers(headers -> {
+                    requestHeaders.forEach(headers::set);
+                    headers.remove(HttpHeaders.HOST);
+                    if (preserveHost) {
+                        headers.add(HttpHeaders.HOST, exchange.getRequest().getHeaders().getFirst(HttpHeaders.HOST));
+                    }
+                })
+                .request(io.netty.handler.codec.http.HttpMethod.valueOf(exchange.getRequest().getMethod().name()))
+                .uri(uri.toASCIIString())
+                .responseConnection((response, connection) -> Mono.just(new Upstream(response, connection, hedge)))
+                .next();
+    }
+
+    /**
+     * Hand the winning response to the write filter, as the routing filter would.
+     */
+    private void handOver(ServerWebExchange exchange, Upstream upstream) {
+        exchange.getAttributes().put(CLIENT_RESPONSE_ATTR, upstream.response());
+        exchange.getAttributes().put(CLIENT_RESPONSE_CONN_ATTR, upstream.connection());
+
+        HttpHeaders headers = new HttpHeaders();
+        upstream.response().responseHeaders().forEach(entry -> headers.add(entry.getKey(), entry.getValue()));
+        String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        if (StringUtils.hasLength(contentType)) {
+            exchange.getAttributes().put(ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR, contentType);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setRawStatusCode(upstream.response().status().code());
+        HttpHeaders filtered = HttpHeadersFilter.filter(
+                routingFilter.getHeadersFilters(), headers, exchange, HttpHeadersFilter.Type.RESPONSE);
+        if (!filtered.containsKey(HttpHeaders.TRANSFER_ENCODING) && filtered.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+            response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        }
+        exchange.getAttributes().put(CLIENT_RESPONSE_HEADER_NAMES, filtered.keySet());
+        response.getHeaders().addAll(filtered);
+    }
+
+    private Duration responseTimeout(Route route) {
+        Object timeout = route.getMetadata().get(RESPONSE_TIMEOUT_ATTR);
+        if (timeout != null) {
+            long millis = timeout instanceof Number number ? number.longValue() : Long.parseLong(timeout.toString());
+            return millis < 0 ? null : Duration.ofMillis(millis);
+        }
+        return httpClientProperties.getResponseTimeout();
+    }
+
+    private Mono<URI> otherInstance(String serviceId, URI primaryUri) {
+        return discoveryClient.getInstances(serviceId)
+                .filter(instance -> !(instance.getHost().equals(primaryUri.getHost())
+                        && instance.getPort() == primaryUri.getPort()))
+                .collectList()
+                .flatMap(instances -> {
+                    if (instances.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    ServiceInstance instance = instances.get(ThreadLocalRandom.current().nextInt(instances.size()));
+                    return Mono.just(UriComponentsBuilder.fromUri(primaryUri)
+                            .scheme(instance.isSecure() ? "https" : "http")
+                            .host(instance.getHost())
+                            .port(instance.getPort())
+                            .build(true)
+                            .toUri());
+                });
+    }
+
+    private Counter counter(Route route, String result) {
+        return Counter.builder("gateway.hedging.requests")
+                .description("Hedged requests sent, and hedges that answered first")
+                .tag("route", route.getId())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Configuration for the hedging filter.
+     */
+    @Data
+    public static class Config {
+        /**
+         * Latency percentile after which a hedge is sent.
+         */
+        private double percentile = 0.95;
+
+        /**
+         * Hedge delay used until enough responses have been observed.
+         */
+        private Duration initialDelay = Duration.ofMillis(100);
+
+        /**
+         * Lower bound for the hedge delay.
+         */
+        private Duration minDelay = Duration.ofMillis(5);
+
+        /**
+         * Maximum fraction of requests that may be hedged.
+         */
+        private double budgetRatio = 0.1;
+
+        /**
+         * Hedges that may be sent back to back before the ratio applies.
+         */
+        private int budgetBurst = 10;
+    }
+
+    /**
+     * A backend response whose body has not been read yet.
+     */
+    private record Upstream(HttpClientResponse response, Connection connection, boolean hedge) {
+    }
+}
@@ -1,6 +1,8 @@
 package com.chatapp.gateway.filter;
 
 import com.chatapp.common.security.JwtTokenProvider;
+import com.chatapp.common.security.VerifiedToken;
+import com.chatapp.gateway.metrics.GatewayLatencyMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
@@ -8,41 +10,60 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
-import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * JWT authentication filter for the API Gateway.
  * This filter extracts the JWT token from the request header and validates it.
+ * The token is parsed and verified once per request; the resulting principal supplies both the user ID and roles.
+ * Any {@value #USER_ID_HEADER} header sent by the client is removed, and the header is only set from a
+ * verified token, so downstream services can trust it. Browsers cannot set headers on a WebSocket
+ * handshake, so for upgrade requests the token may instead be sent in the {@value #TOKEN_QUERY_PARAM}
+ * query parameter, which is removed before the request is forwarded.
+ * The filter is added to the security filter chain by {@code SecurityConfig} and is deliberately
+ * not a bean: a second pass would see the request without its token and drop the user ID header.
  */
 @Slf4j
-@Component
 public class JwtAuthenticationFilter implements WebFilter {
 
+    private static final String USER_ID_HEADER = "X-User-ID";
+    private static final String TOKEN_QUERY_PARAM = "access_token";
+
     private final JwtTokenProvider jwtTokenProvider;
+    private final GatewayLatencyMetrics latencyMetrics;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, GatewayLatencyMetrics latencyMetrics) {
         this.jwtTokenProvider = jwtTokenProvider;
+        this.latencyMetrics = latencyMetrics;
     }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-        String token = extractToken(exchange.getRequest());
+        ServerHttpRequest request = exchange.getRequest();
+        String token = extractToken(request);
+        VerifiedToken verifiedToken = token != null ? verify(exchange, token) : null;
+
+        ServerHttpRequest.Builder forwarded = request.mutate()
+                .headers(headers -> headers.remove(USER_ID_HEADER));
+        if (request.getQueryParams().containsKey(TOKEN_QUERY_PARAM)) {
+            forwarded.uri(UriComponentsBuilder.fromUri(request.getURI())
+                    .replaceQueryParam(TOKEN_QUERY_PARAM)
+                    .build(true)
+                    .toUri());
+        }
 
-        if (token != null && jwtTokenProvider.validateToken(token)) {
-            UUID userId = jwtTokenProvider.getUserIdFromToken(token);
-            String[] roles = jwtTokenProvider.getAllClaimsFromToken(token)
-                    .get("roles", String[].class);
+        if (verifiedToken != null) {
+            UUID userId = verifiedToken.getUserId();
 
-            List<SimpleGrantedAuthority> authorities = Stream.of(roles)
+            List<SimpleGrantedAuthority> authorities = verifiedToken.getRoles().stream()
                     .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
                     .collect(Collectors.toList());
 
@@ -50,23 +71,34 @@ public class JwtAuthenticationFilter implements WebFilter {
                     userId.toString(), null, authorities);
 
             // Add user ID to request headers for downstream services
-            ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
-                    .header("X-User-ID", userId.toString())
-                    .build();
+            forwarded.header(USER_ID_HEADER, userId.toString());
 
-            ServerWebExchange mutatedExchange = exchange.mutate()
-                    .request(mutatedRequest)
-                    .build();
-
-            return chain.filter(mutatedExchange)
+            return chain.filter(exchange.mutate().request(forwarded.build()).build())
                     .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
         }
 
-        return chain.filter(exchange);
+        return chain.filter(exchange.mutate().request(forwarded.build()).build());
     }
 
     /**
-     * Extract the JWT token from the request header.
+     * Verify a JWT token, timing the verification if the request is sampled.
+     *
+     * @param exchange the server web exchange
+     * @param token the JWT token
+     * @return the verified token, or null if the token is invalid
+     */
+    private VerifiedToken verify(ServerWebExchange exchange, String token) {
+        if (!latencyMetrics.isSampled(exchange)) {
+            return jwtTokenProvider.verify(token).orElse(null);
+        }
+        long start = System.nanoTime();
+        VerifiedToken verifiedToken = jwtTokenProvider.verify(token).orElse(null);
+        latencyMetrics.recordAuthentication(System.nanoTime() - start);
+        return verifiedToken;
+    }
+
+    /**
+     * Extract the JWT token from the request header, or from the query of a WebSocket handshake.
      *
      * @param request the server HTTP request
      * @return the JWT token, or null if not found
@@ -76,6 +108,9 @@ public class JwtAuthenticationFilter implements WebFilter {
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
         }
+        if ("websocket".equalsIgnoreCase(request.getHeaders().getUpgrade())) {
+            return request.getQueryParams().getFirst(TOKEN_QUERY_PARAM);
+        }
         return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.chatapp.gateway.filter;
+
+import com.chatapp.gateway.shedding.EventLoopLagMonitor;
+import com.chatapp.gateway.shedding.Priority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Web filter that sheds low-priority requests when the gateway is overloaded.
+ * Every request is put into a {@link Priority} class by its path. The gateway's load is the higher
+ * of the event loop lag and the number of requests in flight, each relative to its configured limit;
+ * as the load grows, the lowest classes are rejected first with 503 and a Retry-After header, so that
+ * message delivery stays healthy while features such as media and search degrade.
+ *
+ * <p>Runs before the Spring Security filter chain, so shed requests cost no token verification.
+ */
+@Component
+public class LoadSheddingFilter implements WebFilter, Ordered {
+
+    /**
+     * Runs ahead of the Spring Security filter chain proxy (order -100).
+     */
+    public static final int ORDER = -200;
+
+    private final EventLoopLagMonitor lagMonitor;
+    private final long maxLagNanos;
+    private final int maxInFlight;
+    private final String retryAfterSeconds;
+    private final Map<Priority, List<PathPattern>> patterns = new LinkedHashMap<>();
+    private final Map<Priority, Counter> shedCounters = new EnumMap<>(Priority.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public LoadSheddingFilter(EventLoopLagMonitor lagMonitor,
+                              MeterRegistry meterRegistry,
+                              @Value("${load-shedding.max-event-loop-lag:100ms}") Duration maxLag,
+                              @Value("${load-shedding.max-in-flight:10000}") int maxInFlight,
+                              @Value("${load-shedding.retry-after:2s}") Duration retryAfter,
+                              @Value("${load-shedding.low-paths:}") List<String> lowPaths,
+                              @Value("${load-shedding.high-paths:}") List<String> highPaths,
+                              @Value("${load-shedding.critical-paths:}") List<String> criticalPaths) {
+        this.lagMonitor = lagMonitor;
+        this.maxLagNanos = maxLag.toNanos();
+        this.maxInFlight = maxInFlight;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+
+        // Lowest classes are matched first, so a sheddable path can be carved out of a critical prefix
+        patterns.put(Priority.LOW, parse(lowPaths));
+        patterns.put(Priority.CRITICAL, parse(criticalPaths));
+        patterns.put(Priority.HIGH, parse(highPaths));
+
+        for (Priority priority : Priority.values()) {
+            shedCounters.put(priority, Counter.builder("gateway.shedding.rejected")
+                    .description("Requests rejected by load shedding")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("gateway.shedding.in-flight", inFlight, AtomicInteger::get)
+                .description("Requests in flight through the gateway")
+                .register(meterRegistry);
+        Gauge.builder("gateway.shedding.event-loop-lag", lagMonitor, monitor -> monitor.getLag().toNanos() / 1e6)
+                .description("Event loop lag in milliseconds")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("gateway.shedding.load", this, LoadSheddingFilter::load)
+                .description("Gateway load relative to its shedding limits")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Priority priority = classify(exchange.getRequest().getPath().pathWithinApplication());
+        if (priority.isShedAt(load())) {
+            shedCounters.get(priority).increment();
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return exchange.getResponse().setComplete();
+        }
+
+        // WebSocket sessions live for hours and would pin the in-flight count
+        if ("websocket".equalsIgnoreCase(exchange.getRequest().getHeaders().getUpgrade())) {
+            return chain.filter(exchange);
+        }
+        inFlight.incrementAndGet();
+        return chain.filter(exchange).doFinally(signal -> inFlight.decrementAndGet());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Priority classify(PathContainer path) {
+        for (Map.Entry<Priority, List<PathPattern>> entry : patterns.entrySet()) {
+            for (PathPattern pattern : entry.getValue()) {
+                if (pattern.matches(path)) {
+                    return entry.getKey();
+                }
+            }
+        }
+        return Priority.NORMAL;
+    }
+
+    private double load() {
+        double lag = (double) lagMonitor.getLag().toNanos() / maxLagNanos;
+        double requests = (double) inFlight.get() / maxInFlight;
+        return Math.max(lag, requests);
+    }
+
+    private static List<PathPattern> parse(List<String> paths) {
+        return paths.stream()
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+}
@@ -0,0 +1,91 @@
+package com.chatapp.gateway.filter;
+
+import com.chatapp.common.deadline.RequestDeadline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Global filter that gives every routed request a deadline and tells the backend how much of it is left.
+ * The deadline is the client's own {@value RequestDeadline#TIMEOUT_HEADER}, capped at the gateway's
+ * default timeout. It is fixed on the first attempt and stored in the exchange, so every retry or
+ * hedge forwards only the time that is still left. A request whose deadline has already passed is
+ * answered with 504 instead of being sent.
+ */
+@Component
+public class RequestDeadlineGlobalFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Exchange attribute holding the request's {@link RequestDeadline}.
+     */
+    public static final String DEADLINE_ATTR = RequestDeadlineGlobalFilter.class.getName() + ".deadline";
+
+    /**
+     * Runs just before the load balancer, so an expired request never picks an instance.
+     */
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+
+    private final Duration defaultTimeout;
+
+    public RequestDeadlineGlobalFilter(@Value("${request-deadline.default-timeout:10s}") Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if ("websocket".equalsIgnoreCase(exchange.getRequest().getHeaders().getUpgrade())) {
+            return chain.filter(exchange);
+        }
+
+        RequestDeadline deadline = (RequestDeadline) exchange.getAttributes().computeIfAbsent(DEADLINE_ATTR,
+                key -> RequestDeadline.after(timeout(exchange.getRequest().getHeaders())));
+        Duration remaining = deadline.remaining();
+        if (remaining.toMillis() <= 0) {
+            exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+            return exchange.getResponse().setComplete();
+        }
+
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> headers.set(RequestDeadline.TIMEOUT_HEADER, Long.toString(remaining.toMillis())))
+                .build();
+        return chain.filter(exchange.mutate().request(request).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    /**
+     * Get the deadline stored in an exchange.
+     *
+     * @param exchange the exchange
+     * @return the deadline, or null if the request has not been given one yet
+     */
+    public static RequestDeadline getDeadline(ServerWebExchange exchange) {
+        return exchange.getAttribute(DEADLINE_ATTR);
+    }
+
+    private Duration timeout(HttpHeaders headers) {
+        String requested = headers.getFirst(RequestDeadline.TIMEOUT_HEADER);
+        if (requested == null) {
+            return defaultTimeout;
+        }
+        try {
+            Duration timeout = Duration.ofMillis(Long.parseLong(requested.trim()));
+            return timeout.compareTo(defaultTimeout) < 0 ? timeout : defaultTimeout;
+        } catch (NumberFormatException e) {
+            return defaultTimeout;
+        }
+    }
+}
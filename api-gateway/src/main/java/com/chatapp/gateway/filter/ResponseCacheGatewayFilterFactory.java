@@ -0,0 +1,209 @@
+package com.chatapp.gateway.filter;
+
+import com.chatapp.gateway.cache.CachedResponse;
+import com.chatapp.gateway.cache.ResponseCache;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gateway filter that serves repeated authenticated GETs from the {@link ResponseCache}.
+ * Responses are cached per principal and carry a strong ETag, so clients revalidating with
+ * If-None-Match get a 304 without a body, from the cache or after a backend fetch. Any other
+ * request by a principal through the route drops that principal's cached responses.
+ */
+@Slf4j
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    /**
+     * Runs before request coalescing, and wraps the response before the write filter subscribes to it.
+     */
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+
+    private static final String USER_ID_HEADER = "X-User-ID";
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+    private static final Pattern UUID_PATTERN = Pattern.compile(
+            "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final Set<String> UNCACHED_HEADERS = Set.of(
+            "set-cookie", "transfer-encoding", "connection", "date", "content-length", "etag", "x-cache");
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCache responseCache) {
+        super(Object.class);
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            UUID principal = principal(request);
+            if (principal == null) {
+                return chain.filter(exchange);
+            }
+
+            if (request.getMethod() != HttpMethod.GET) {
+                responseCache.invalidateUser(principal);
+                return chain.filter(exchange)
+                        .doFinally(signal -> responseCache.invalidateUser(principal));
+            }
+
+            String key = principal + " " + request.getURI().getRawPath() + "?" + request.getURI().getRawQuery();
+            boolean noCache = request.getHeaders().getCacheControl() != null
+                    && request.getHeaders().getCacheControl().contains("no-cache");
+            CachedResponse cached = noCache ? null : responseCache.get(key);
+            if (cached != null) {
+                return writeCached(exchange, cached);
+            }
+
+            Set<UUID> userIds = userIds(principal, request);
+            ServerHttpResponse decorated = new CachingResponse(exchange, key, userIds, System.nanoTime());
+            return chain.filter(exchange.mutate().response(decorated).build());
+        }, ORDER);
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().addAll(cached.getHeaders());
+        response.getHeaders().setETag(cached.getEtag());
+        response.getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+        if (matches(exchange.getRequest(), cached.getEtag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentLength(cached.getBody().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.getBody())));
+    }
+
+    private static UUID principal(ServerHttpRequest request) {
+        String userId = request.getHeaders().getFirst(USER_ID_HEADER);
+        if (userId == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Set<UUID> userIds(UUID principal, ServerHttpRequest request) {
+        Set<UUID> userIds = new HashSet<>();
+        userIds.add(principal);
+        Matcher matcher = UUID_PATTERN.matcher(request.getURI().getRawPath());
+        while (matcher.find()) {
+            userIds.add(UUID.fromString(matcher.group()));
+        }
+        return userIds;
+    }
+
+    private static boolean matches(ServerHttpRequest request, String etag) {
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        for (String candidate : ifNoneMatch) {
+            if ("*".equals(candidate) || etag.equals(candidate.startsWith("W/") ? candidate.substring(2) : candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Response decorator that buffers a 200 body, tags it with an ETag and stores it in the cache.
+     */
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final Set<UUID> userIds;
+        private final long requestedAtNanos;
+
+        CachingResponse(ServerWebExchange exchange, String key, Set<UUID> userIds, long requestedAtNanos) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.userIds = userIds;
+            this.requestedAtNanos = requestedAtNanos;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status == null || status.value() != HttpStatus.OK.value() || isNoStore()) {
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                String etag = getHeaders().getETag() != null ? getHeaders().getETag() : etag(bytes);
+                getHeaders().setETag(etag);
+                getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                if (responseCache.accepts(bytes.length)) {
+                    responseCache.put(key, new CachedResponse(cacheableHeaders(), bytes, etag, userIds), requestedAtNanos);
+                }
+
+                if (matches(exchange.getRequest(), etag)) {
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                    return getDelegate().setComplete();
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+
+        private boolean isNoStore() {
+            String cacheControl = getHeaders().getCacheControl();
+            return cacheControl != null && cacheControl.toLowerCase().contains("no-store");
+        }
+
+        private HttpHeaders cacheableHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                if (!UNCACHED_HEADERS.contains(name.toLowerCase())) {
+                    headers.addAll(name, values);
+                }
+            });
+            return HttpHeaders.readOnlyHttpHeaders(headers);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.chatapp.gateway.filter;
+
+import com.chatapp.common.deadline.RequestDeadline;
+import com.chatapp.gateway.budget.RatioBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Gateway filter that retries failed idempotent requests within a per-route retry budget.
+ * Each route may retry at most a fixed fraction of its requests, so when a service is down the
+ * gateway adds a small, bounded amount of load instead of multiplying every request by the retry
+ * count. A retry is also skipped once the response has been committed or when the request's
+ * deadline (see {@link RequestDeadlineGlobalFilter}) would pass during the backoff.
+ */
+@Component
+public class RetryBudgetGatewayFilterFactory extends AbstractGatewayFilterFactory<RetryBudgetGatewayFilterFactory.Config> {
+
+    private final Map<String, RatioBudget> budgets = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public RetryBudgetGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            if (route == null || !config.getMethods().contains(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+            RatioBudget budget = budgets.computeIfAbsent(route.getId(),
+                    id -> new RatioBudget(config.getBudgetRatio(), config.getBudgetBurst()));
+            budget.onRequest();
+            return attempt(exchange, chain, config, route, budget, 0);
+        };
+    }
+
+    private Mono<Void> attempt(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                               Route route, RatioBudget budget, int retry) {
+        return chain.filter(exchange)
+                .thenReturn(Optional.<Throwable>empty())
+                .onErrorResume(error -> Mono.just(Optional.of(error)))
+                .flatMap(error -> {
+                    Duration backoff = backoff(config, retry);
+                    if (!shouldRetry(exchange, config, error, retry, backoff)) {
+                        return error.isPresent() ? Mono.error(error.get()) : Mono.empty();
+                    }
+                    if (!budget.tryAcquire()) {
+                        counter(route, "budget_exhausted").increment();
+                        return error.isPresent() ? Mono.error(error.get()) : Mono.empty();
+                    }
+                    counter(route, "retried").increment();
+                    return Mono.delay(backoff).then(Mono.defer(() -> {
+                        reset(exchange);
+                        return attempt(exchange, chain, config, route, budget, retry + 1);
+                    }));
+                });
+    }
+
+    private boolean shouldRetry(ServerWebExchange exchange, Config config, Optional<Throwable> error,
+                                int retry, Duration backoff) {
+        if (retry >= config.getRetries() || exchange.getResponse().isCommitted()) {
+            return false;
+        }
+        RequestDeadline deadline = RequestDeadlineGlobalFilter.getDeadline(exchange);
+        if (deadline != null && deadline.remaining().compareTo(backoff) <= 0) {
+            return false;
+        }
+        if (error.isPresent()) {
+            return isRetryable(error.get());
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null && config.getStatuses().stream().anyMatch(retryable -> retryable.value() == status.value());
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        // Connection failures and missing instances mean the request never reached a backend
+        return error instanceof IOException || error instanceof TimeoutException
+                || error instanceof NotFoundException;
+    }
+
+    private static Duration backoff(Config config, int retry) {
+        double millis = config.getFirstBackoff().toMillis() * Math.pow(config.getFactor(), retry);
+        return millis < config.getMaxBackoff().toMillis() ? Duration.ofMillis((long) millis) : config.getMaxBackoff();
+    }
+
+    private static void reset(ServerWebExchange exchange) {
+        Connection connection = exchange.getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+        if (connection != null) {
+            // The failed response may still hold an unread body; close rather than return it to the pool
+            connection.channel().close();
+            connection.dispose();
+        }
+        exchange.getResponse().setStatusCode(null);
+        ServerWebExchangeUtils.reset(exchange);
+    }
+
+    private Counter counter(Route route, String result) {
+        return Counter.builder("gateway.retry.requests")
+                .description("Retries sent, and retries refused because the route's budget was spent")
+                .tag("route", route.getId())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Configuration for the retry budget filter.
+     */
+    @Data
+    public static class Config {
+        /**
+         * Maximum retries of a single request.
+         */
+        private int retries = 3;
+
+        /**
+         * Response statuses that are retried.
+         */
+        private List<HttpStatus> statuses = List.of(HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE);
+
+        /**
+         * Methods that are retried; only idempotent methods are safe to send twice.
+         */
+        private List<HttpMethod> methods = List.of(HttpMethod.GET, HttpMethod.HEAD);
+
+        /**
+         * Delay before the first retry.
+         */
+        private Duration firstBackoff = Duration.ofMillis(50);
+
+        /**
+         * Upper bound for the delay between retries.
+         */
+        private Duration maxBackoff = Duration.ofMillis(500);
+
+        /**
+         * Factor by which the delay grows with each retry.
+         */
+        private double factor = 2;
+
+        /**
+         * Maximum fraction of a route's requests that may be retried.
+         */
+        private double budgetRatio = 0.1;
+
+        /**
+         * Retries that may be sent back to back before the ratio applies.
+         */
+        private int budgetBurst = 10;
+    }
+}
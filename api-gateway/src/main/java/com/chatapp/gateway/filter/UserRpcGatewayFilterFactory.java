@@ -0,0 +1,102 @@
+package com.chatapp.gateway.filter;
+
+import com.chatapp.common.dto.ApiResponse;
+import com.chatapp.gateway.rpc.UserRpcClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.isAlreadyRouted;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.setAlreadyRouted;
+
+/**
+ * Gateway filter that serves single-user lookups over the binary user RPC instead of routing them.
+ * The user is fetched with {@link UserRpcClient} and only turned into the JSON {@code ApiResponse}
+ * the client expects here at the edge, so the internal hop carries no JSON. Requests that do not
+ * match the configured path continue to the routing filter. Off unless {@code user-rpc.enabled} is set.
+ */
+@Component
+public class UserRpcGatewayFilterFactory extends AbstractGatewayFilterFactory<UserRpcGatewayFilterFactory.Config> {
+
+    private final UserRpcClient userRpcClient;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public UserRpcGatewayFilterFactory(UserRpcClient userRpcClient,
+                                       ObjectMapper objectMapper,
+                                       @Value("${user-rpc.enabled:false}") boolean enabled) {
+        super(Config.class);
+        this.userRpcClient = userRpcClient;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        PathPattern pattern = PathPatternParser.defaultInstance.parse(config.getPath());
+
+        return (exchange, chain) -> {
+            if (!enabled || exchange.getRequest().getMethod() != HttpMethod.GET || isAlreadyRouted(exchange)) {
+                return chain.filter(exchange);
+            }
+            PathPattern.PathMatchInfo match = pattern.matchAndExtract(exchange.getRequest().getPath().pathWithinApplication());
+            UUID userId = match != null ? parseUuid(match.getUriVariables().get("userId")) : null;
+            if (userId == null) {
+                return chain.filter(exchange);
+            }
+
+            setAlreadyRouted(exchange);
+            return userRpcClient.getUsers(List.of(userId), RequestDeadlineGlobalFilter.getDeadline(exchange))
+                    .flatMap(users -> users.isEmpty()
+                            ? write(exchange.getResponse(), HttpStatus.NOT_FOUND,
+                                    ApiResponse.error("User not found", "RESOURCE_NOT_FOUND"))
+                            : write(exchange.getResponse(), HttpStatus.OK, ApiResponse.success(users.get(0))));
+        };
+    }
+
+    private Mono<Void> write(ServerHttpResponse response, HttpStatus status, ApiResponse<?> body) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(json.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(json)));
+    }
+
+    private static UUID parseUuid(String value) {
+        try {
+            return value != null ? UUID.fromString(value) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Configuration for the user RPC filter.
+     */
+    @Data
+    public static class Config {
+        /**
+         * Path of single-user lookups, as seen after path rewriting; must capture {@code userId}.
+         */
+        private String path = "/api/v1/users/{userId}";
+    }
+}
@@ -0,0 +1,57 @@
+package com.chatapp.gateway.hedging;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Tracks recent response times of a route and estimates a latency percentile from them.
+ * Keeps a ring of the latest samples and recomputes the percentile every
+ * {@code recomputeInterval} samples, so reads are a volatile load.
+ */
+public class LatencyTracker {
+
+    private final double percentile;
+    private final long[] samples;
+    private final int recomputeInterval;
+    private final long defaultNanos;
+
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private volatile long percentileNanos;
+
+    public LatencyTracker(double percentile, int windowSize, int recomputeInterval, Duration defaultLatency) {
+        this.percentile = percentile;
+        this.samples = new long[windowSize];
+        this.recomputeInterval = recomputeInterval;
+        this.defaultNanos = defaultLatency.toNanos();
+        this.percentileNanos = defaultNanos;
+    }
+
+    /**
+     * Record a response time.
+     *
+     * @param nanos the response time in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (++sinceRecompute >= recomputeInterval) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            percentileNanos = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+        }
+    }
+
+    /**
+     * Get the current percentile estimate. Until enough samples have been seen this is the
+     * default latency.
+     *
+     * @return the latency percentile
+     */
+    public Duration getPercentile() {
+        return Duration.ofNanos(percentileNanos > 0 ? percentileNanos : defaultNanos);
+    }
+}
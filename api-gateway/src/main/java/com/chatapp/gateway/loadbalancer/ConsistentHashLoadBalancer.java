@@ -0,0 +1,156 @@
+package com.chatapp.gateway.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load balancer that pins each user's WebSocket connections to one instance of a service.
+ * WebSocket upgrades are placed on a {@link HashRing} by the authenticated user ID, so all of a
+ * user's devices land on the same node and most deliveries stay node-local. To keep a popular node
+ * from being overloaded, placement uses bounded loads: an instance already holding more than
+ * {@code loadFactor} times the average number of connections is skipped for the next one on the
+ * ring. Other requests, and upgrades without a user, are balanced round robin.
+ *
+ * <p>Connection counts are kept by this balancer's own lifecycle callbacks and only reflect the
+ * connections opened through this gateway replica.
+ */
+@Slf4j
+public class ConsistentHashLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private static final String USER_ID_HEADER = "X-User-ID";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final int virtualNodes;
+    private final double loadFactor;
+    private final AtomicInteger position = new AtomicInteger(ThreadLocalRandom.current().nextInt(1000));
+    private final Map<String, AtomicInteger> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private volatile HashRing ring = new HashRing(List.of(), 0);
+
+    public ConsistentHashLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                      String serviceId, int virtualNodes, double loadFactor) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.virtualNodes = virtualNodes;
+        this.loadFactor = loadFactor;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> select(instances, request));
+    }
+
+    private Response<ServiceInstance> select(List<ServiceInstance> instances, Request<?> request) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+
+        String userId = webSocketUser(request);
+        if (userId == null) {
+            int next = Math.abs(position.incrementAndGet() % instances.size());
+            return new DefaultResponse(instances.get(next));
+        }
+
+        HashRing current = ring(instances);
+        int capacity = (int) Math.ceil(loadFactor * (totalConnections.get() + 1) / current.getInstances().size());
+        ServiceInstance instance = current.locate(userId, candidate -> load(candidate).get() < capacity);
+        if (instance == null) {
+            // Only possible while counts change concurrently; placement without the bound is still sticky
+            instance = current.locate(userId, candidate -> true);
+        }
+        load(instance).incrementAndGet();
+        totalConnections.incrementAndGet();
+        return new DefaultResponse(instance);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> response = completionContext.getLoadBalancerResponse();
+        if (response == null || !response.hasServer() || webSocketUser(completionContext.getLoadBalancerRequest()) == null) {
+            return;
+        }
+        AtomicInteger load = connections.get(HashRing.instanceKey(response.getServer()));
+        if (load != null && load.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+            totalConnections.decrementAndGet();
+        }
+    }
+
+    private HashRing ring(List<ServiceInstance> instances) {
+        HashRing current = ring;
+        List<ServiceInstance> sorted = new ArrayList<>(instances);
+        sorted.sort(Comparator.comparing(HashRing::instanceKey));
+        if (sameInstances(current.getInstances(), sorted)) {
+            return current;
+        }
+
+        HashRing rebuilt = new HashRing(sorted, virtualNodes);
+        ring = rebuilt;
+        // Forget counts of instances that left once their connections have closed
+        connections.entrySet().removeIf(entry -> entry.getValue().get() == 0
+                && sorted.stream().noneMatch(instance -> HashRing.instanceKey(instance).equals(entry.getKey())));
+        log.info("Rebuilt hash ring for {} with {} instances", serviceId, sorted.size());
+        return rebuilt;
+    }
+
+    private static boolean sameInstances(List<ServiceInstance> a, List<ServiceInstance> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!HashRing.instanceKey(a.get(i)).equals(HashRing.instanceKey(b.get(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private AtomicInteger load(ServiceInstance instance) {
+        return connections.computeIfAbsent(HashRing.instanceKey(instance), key -> new AtomicInteger());
+    }
+
+    private static String webSocketUser(Request<?> request) {
+        if (request == null || !(request.getContext() instanceof RequestDataContext context)
+                || context.getClientRequest() == null) {
+            return null;
+        }
+        HttpHeaders headers = context.getClientRequest().getHeaders();
+        if (headers == null || !"websocket".equalsIgnoreCase(headers.getUpgrade())) {
+            return null;
+        }
+        return headers.getFirst(USER_ID_HEADER);
+    }
+}
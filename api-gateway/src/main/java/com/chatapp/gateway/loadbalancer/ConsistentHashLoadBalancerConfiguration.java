@@ -0,0 +1,36 @@
+package com.chatapp.gateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load balancer client configuration that replaces round robin with {@link ConsistentHashLoadBalancer}.
+ * Registered per service through {@code @LoadBalancerClient}; it is deliberately not a
+ * {@code @Configuration} class so that component scanning does not apply it to every service.
+ */
+public class ConsistentHashLoadBalancerConfiguration {
+
+    /**
+     * Create the consistent-hash load balancer for the service of the enclosing client context.
+     *
+     * @param environment the client context environment
+     * @param clientFactory the load balancer client factory
+     * @param virtualNodes the ring positions per instance
+     * @param loadFactor the allowed load of an instance relative to the average
+     * @return the load balancer
+     */
+    @Bean
+    public ConsistentHashLoadBalancer consistentHashLoadBalancer(
+            Environment environment,
+            LoadBalancerClientFactory clientFactory,
+            @Value("${websocket-routing.virtual-nodes:160}") int virtualNodes,
+            @Value("${websocket-routing.load-factor:1.25}") double loadFactor) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new ConsistentHashLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, virtualNodes, loadFactor);
+    }
+}
@@ -0,0 +1,108 @@
+package com.chatapp.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Immutable consistent-hash ring of service instances.
+ * Each instance is placed on the ring at a number of virtual nodes derived from its host and port,
+ * so every gateway replica builds the same ring from the same instances, and adding or removing an
+ * instance only moves the keys next to its own virtual nodes.
+ */
+public class HashRing {
+
+    private final List<ServiceInstance> instances;
+    private final long[] points;
+    private final int[] owners;
+
+    public HashRing(List<ServiceInstance> instances, int virtualNodes) {
+        this.instances = List.copyOf(instances);
+        int size = instances.size() * virtualNodes;
+        long[][] nodes = new long[size][];
+        int n = 0;
+        for (int i = 0; i < instances.size(); i++) {
+            String key = instanceKey(instances.get(i));
+            for (int v = 0; v < virtualNodes; v++) {
+                nodes[n++] = new long[]{hash(key + "#" + v), i};
+            }
+        }
+        Arrays.sort(nodes, Comparator.comparingLong(node -> node[0]));
+
+        this.points = new long[size];
+        this.owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = nodes[i][0];
+            owners[i] = (int) nodes[i][1];
+        }
+    }
+
+    /**
+     * Get the instances on the ring.
+     *
+     * @return the instances
+     */
+    public List<ServiceInstance> getInstances() {
+        return instances;
+    }
+
+    /**
+     * Find the instance for a key, walking clockwise past instances that are not eligible.
+     *
+     * @param key the key
+     * @param eligible whether an instance may take the key
+     * @return the first eligible instance at or after the key's position, or null if none is eligible
+     */
+    public ServiceInstance locate(String key, Predicate<ServiceInstance> eligible) {
+        if (points.length == 0) {
+            return null;
+        }
+        int start = Arrays.binarySearch(points, hash(key));
+        if (start < 0) {
+            start = -start - 1;
+        }
+        boolean[] rejected = new boolean[instances.size()];
+        int remaining = instances.size();
+        for (int i = 0; i < points.length && remaining > 0; i++) {
+            int owner = owners[(start + i) % points.length];
+            if (rejected[owner]) {
+                continue;
+            }
+            ServiceInstance instance = instances.get(owner);
+            if (eligible.test(instance)) {
+                return instance;
+            }
+            rejected[owner] = true;
+            remaining--;
+        }
+        return null;
+    }
+
+    /**
+     * Get the stable key of an instance, used for its ring positions and load accounting.
+     *
+     * @param instance the instance
+     * @return the instance key
+     */
+    public static String instanceKey(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private static long hash(String key) {
+        // FNV-1a followed by a 64-bit finalizer to spread nearby keys around the ring
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
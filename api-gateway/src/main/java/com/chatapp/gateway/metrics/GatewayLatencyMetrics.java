@@ -0,0 +1,175 @@
+package com.chatapp.gateway.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms for the phases of a request through the gateway.
+ * Records JWT verification, the time each route filter takes before passing the request on, the
+ * backend's time to respond and the total per route. Timers publish log-scaled histogram buckets to
+ * the Prometheus endpoint, which also carry exemplars whenever tracing is on the classpath.
+ *
+ * <p>Requests are sampled at {@code gateway-metrics.sample-rate}, decided once per request so that
+ * all phases of a sampled request are recorded together. An unsampled request is never timed.
+ */
+@Component
+public class GatewayLatencyMetrics {
+
+    private static final String SAMPLED_ATTR = GatewayLatencyMetrics.class.getName() + ".sampled";
+
+    private final MeterRegistry meterRegistry;
+    private final double sampleRate;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public GatewayLatencyMetrics(MeterRegistry meterRegistry,
+                                 @Value("${gateway-metrics.sample-rate:0.1}") double sampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Check if a request is sampled, deciding on the first call for the request.
+     *
+     * @param exchange the exchange
+     * @return true if the request's phases should be timed
+     */
+    public boolean isSampled(ServerWebExchange exchange) {
+        if (sampleRate <= 0) {
+            return false;
+        }
+        Boolean sampled = exchange.getAttribute(SAMPLED_ATTR);
+        if (sampled == null) {
+            sampled = sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+            exchange.getAttributes().put(SAMPLED_ATTR, sampled);
+        }
+        return sampled;
+    }
+
+    /**
+     * Record the time spent verifying a JWT token.
+     *
+     * @param nanos the elapsed time in nanoseconds
+     */
+    public void recordAuthentication(long nanos) {
+        timer("gateway.auth.latency", "Time spent verifying JWT tokens").record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the time a route filter took before passing the request on.
+     *
+     * @param routeId the route ID
+     * @param filter the filter name
+     * @param nanos the elapsed time in nanoseconds
+     */
+    public void recordFilter(String routeId, String filter, long nanos) {
+        timer("gateway.filter.latency", "Time each route filter takes before passing the request on",
+                "route", routeId, "filter", filter).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the time a backend took to return response headers.
+     *
+     * @param routeId the route ID
+     * @param nanos the elapsed time in nanoseconds
+     */
+    public void recordBackend(String routeId, long nanos) {
+        timer("gateway.backend.latency", "Time until the backend returned response headers",
+                "route", routeId).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the total time a request spent in a route.
+     *
+     * @param routeId the route ID
+     * @param status the response status series, such as 2xx
+     * @param nanos the elapsed time in nanoseconds
+     */
+    public void recordRoute(String routeId, String status, long nanos) {
+        timer("gateway.route.latency", "Total time of requests through a route",
+                "route", routeId, "status", status).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Wrap a route locator so that every filter of its routes is timed.
+     *
+     * @param routeLocator the route locator
+     * @return the instrumented route locator
+     */
+    public RouteLocator instrument(RouteLocator routeLocator) {
+        return () -> routeLocator.getRoutes().map(this::instrument);
+    }
+
+    private Route instrument(Route route) {
+        List<GatewayFilter> filters = route.getFilters().stream()
+                .map(filter -> instrument(route.getId(), filter))
+                .toList();
+        return Route.async()
+                .id(route.getId())
+                .uri(route.getUri())
+                .order(route.getOrder())
+                .asyncPredicate(route.getPredicate())
+                .metadata(route.getMetadata())
+                .filters(filters)
+                .build();
+    }
+
+    private GatewayFilter instrument(String routeId, GatewayFilter filter) {
+        String name = filterName(filter);
+        GatewayFilter timed = (exchange, chain) -> {
+            if (!isSampled(exchange)) {
+                return filter.filter(exchange, chain);
+            }
+            long start = System.nanoTime();
+            return filter.filter(exchange, next -> {
+                recordFilter(routeId, name, System.nanoTime() - start);
+                return chain.filter(next);
+            });
+        };
+        return filter instanceof Ordered ordered ? new OrderedGatewayFilter(timed, ordered.getOrder()) : timed;
+    }
+
+    private static String filterName(GatewayFilter filter) {
+        GatewayFilter target = filter;
+        while (target instanceof OrderedGatewayFilter ordered) {
+            target = ordered.getDelegate();
+        }
+        String name = target.getClass().getName();
+        // Lambdas and anonymous classes are named after the class that declares them
+        int nested = name.indexOf('$');
+        if (nested > 0) {
+            name = name.substring(0, nested);
+        }
+        name = name.substring(name.lastIndexOf('.') + 1);
+        for (String suffix : List.of("GatewayFilterFactory", "FilterFactory", "GatewayFilter")) {
+            if (name.endsWith(suffix) && name.length() > suffix.length()) {
+                return name.substring(0, name.length() - suffix.length());
+            }
+        }
+        return name;
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return timers.computeIfAbsent(name + String.join("|", tags), key -> Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,74 @@
+package com.chatapp.gateway.ratelimit;
+
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket rate limiter that admits requests from in-memory buckets and reconciles them with
+ * Redis asynchronously (see {@link RateLimitReconciler}), so no request pays a Redis round trip.
+ *
+ * <p>Across gateway instances the limit is approximate: each instance learns about the others'
+ * consumption once per sync interval, so a key can briefly exceed its rate by roughly
+ * {@code replenishRate * syncInterval} per instance before the debit catches up.
+ *
+ * <p>Configured like {@link RedisRateLimiter}, under the {@value #CONFIGURATION_PROPERTY_NAME} prefix,
+ * and reports the same response headers.
+ */
+public class HybridRateLimiter extends AbstractRateLimiter<HybridRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "hybrid-rate-limiter";
+
+    private final RateLimitReconciler reconciler;
+    private final Config defaultConfig;
+
+    public HybridRateLimiter(RateLimitReconciler reconciler,
+                             ConfigurationService configurationService,
+                             int replenishRate,
+                             int burstCapacity) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.reconciler = reconciler;
+        this.defaultConfig = new Config();
+        this.defaultConfig.setReplenishRate(replenishRate);
+        this.defaultConfig.setBurstCapacity(burstCapacity);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        int requestedTokens = config.getRequestedTokens();
+        if (config.getReplenishRate() <= 0 || config.getBurstCapacity() < requestedTokens) {
+            throw new IllegalArgumentException("Invalid hybrid rate limiter configuration for route " + routeId);
+        }
+
+        LocalTokenBucket bucket = reconciler.bucket(routeId + ":" + id, config.getBurstCapacity());
+        long remaining = bucket.tryConsume(
+                config.getReplenishRate(), config.getBurstCapacity(), requestedTokens, System.nanoTime());
+
+        return Mono.just(new Response(remaining >= 0, getHeaders(config, Math.max(remaining, 0))));
+    }
+
+    private Map<String, String> getHeaders(Config config, long tokensLeft) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(RedisRateLimiter.REMAINING_HEADER, String.valueOf(tokensLeft));
+        headers.put(RedisRateLimiter.REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+        headers.put(RedisRateLimiter.BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+        headers.put(RedisRateLimiter.REQUESTED_TOKENS_HEADER, String.valueOf(config.getRequestedTokens()));
+        return headers;
+    }
+
+    /**
+     * Per-route limiter settings.
+     */
+    @Data
+    public static class Config {
+        private int replenishRate;
+        private int burstCapacity = 1;
+        private int requestedTokens = 1;
+    }
+}
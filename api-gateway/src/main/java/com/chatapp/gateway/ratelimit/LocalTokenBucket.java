@@ -0,0 +1,117 @@
+package com.chatapp.gateway.ratelimit;
+
+/**
+ * In-memory token bucket for one rate-limit key on this gateway instance.
+ * Consumption is admitted locally and accumulated until {@link RateLimitReconciler} adds it to the
+ * key's global counter in Redis; the consumption of other instances seen in that counter is then
+ * debited from this bucket.
+ */
+final class LocalTokenBucket {
+
+    private final String redisKey;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private boolean initialized;
+    private long lastAccessNanos;
+    private boolean touched;
+    private long unsynced;
+    private long lastGlobalCount = -1;
+
+    LocalTokenBucket(String redisKey) {
+        this.redisKey = redisKey;
+    }
+
+    String getRedisKey() {
+        return redisKey;
+    }
+
+    /**
+     * Refill the bucket and take the requested tokens if enough are available.
+     *
+     * @param replenishRate tokens added per second
+     * @param burstCapacity the bucket capacity
+     * @param requested tokens needed by the request
+     * @param now the current {@link System#nanoTime()}
+     * @return the tokens left after the request, or -1 if it is denied
+     */
+    synchronized long tryConsume(int replenishRate, int burstCapacity, int requested, long now) {
+        if (!initialized) {
+            tokens = burstCapacity;
+            initialized = true;
+        } else {
+            tokens = Math.min(burstCapacity, tokens + (now - lastRefillNanos) / 1e9 * replenishRate);
+        }
+        lastRefillNanos = now;
+        lastAccessNanos = now;
+        touched = true;
+
+        if (tokens < requested) {
+            return -1;
+        }
+        tokens -= requested;
+        unsynced += requested;
+        return (long) tokens;
+    }
+
+    /**
+     * Check whether the bucket was used since the last reconciliation.
+     *
+     * @return true if the bucket needs to be reconciled
+     */
+    synchronized boolean isTouched() {
+        return touched;
+    }
+
+    /**
+     * Check whether the bucket has been unused long enough to be dropped.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @param idleNanos the idle timeout
+     * @return true if the bucket is idle and has nothing left to reconcile
+     */
+    synchronized boolean isIdle(long now, long idleNanos) {
+        return !touched && unsynced == 0 && now - lastAccessNanos > idleNanos;
+    }
+
+    /**
+     * Take the consumption not yet added to the global counter.
+     *
+     * @return the tokens consumed locally since the last drain
+     */
+    synchronized long drainUnsynced() {
+        long drained = unsynced;
+        unsynced = 0;
+        touched = false;
+        return drained;
+    }
+
+    /**
+     * Put back consumption whose reconciliation failed, so it is sent with the next one.
+     *
+     * @param sent the tokens that were drained
+     */
+    synchronized void restoreUnsynced(long sent) {
+        unsynced += sent;
+        touched = true;
+    }
+
+    /**
+     * Apply the global counter returned after adding this instance's consumption.
+     * Whatever the counter grew by beyond that was consumed on other instances and is debited
+     * here. The balance may go negative, down to minus the capacity, so an overshoot is repaid
+     * before new requests are admitted.
+     *
+     * @param sent the tokens this instance added to the counter
+     * @param globalCount the counter value after the addition
+     * @param burstCapacity the bucket capacity
+     */
+    synchronized void reconcile(long sent, long globalCount, int burstCapacity) {
+        long previous = globalCount - sent;
+        // The first reconciliation only establishes a baseline; a counter that went backwards has expired
+        if (lastGlobalCount >= 0 && previous > lastGlobalCount) {
+            tokens = Math.max(-burstCapacity, tokens - (previous - lastGlobalCount));
+        }
+        lastGlobalCount = globalCount;
+    }
+}
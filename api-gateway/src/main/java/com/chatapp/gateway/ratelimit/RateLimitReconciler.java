@@ -0,0 +1,167 @@
+package com.chatapp.gateway.ratelimit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owns the local token buckets of all {@link HybridRateLimiter}s and reconciles them with Redis.
+ * On every tick the consumption of all buckets used since the previous tick is added to per-key
+ * global counters, one script call per batch of keys, and the growth contributed by other gateway
+ * instances is debited from the local buckets. Requests never wait for Redis: if it is slow or
+ * down, limiting continues locally and the consumption is sent with the next successful batch.
+ */
+@Slf4j
+@Component
+public class RateLimitReconciler {
+
+    private static final String KEY_PREFIX = "rate_limit:hybrid:";
+
+    private static final String SYNC_SCRIPT = """
+            local ttl = ARGV[#ARGV]
+            local totals = {}
+            for i, key in ipairs(KEYS) do
+              totals[i] = redis.call('INCRBY', key, ARGV[i])
+              redis.call('EXPIRE', key, ttl)
+            end
+            return totals
+            """;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> SYNC_REDIS_SCRIPT = (RedisScript) RedisScript.of(SYNC_SCRIPT, List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration syncInterval;
+    private final Duration syncTimeout;
+    private final int batchSize;
+    private final long idleNanos;
+    private final String counterTtlSeconds;
+    private final Map<String, BucketEntry> buckets = new ConcurrentHashMap<>();
+    private Disposable syncTask;
+
+    public RateLimitReconciler(ReactiveStringRedisTemplate redisTemplate,
+                               @Value("${rate-limiter.sync-interval:200ms}") Duration syncInterval,
+                               @Value("${rate-limiter.sync-timeout:1s}") Duration syncTimeout,
+                               @Value("${rate-limiter.sync-batch-size:500}") int batchSize,
+                               @Value("${rate-limiter.idle-timeout:60s}") Duration idleTimeout) {
+        this.redisTemplate = redisTemplate;
+        this.syncInterval = syncInterval;
+        this.syncTimeout = syncTimeout;
+        this.batchSize = batchSize;
+        this.idleNanos = idleTimeout.toNanos();
+        // Counters outlive local buckets so that a briefly idle key keeps its global history
+        this.counterTtlSeconds = Long.toString(idleTimeout.multipliedBy(2).toSeconds());
+    }
+
+    /**
+     * Start the periodic reconciliation. Ticks that arrive while a reconciliation is still
+     * running are dropped rather than queued.
+     */
+    @PostConstruct
+    public void start() {
+        syncTask = Flux.interval(syncInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> reconcile())
+                .subscribe();
+    }
+
+    /**
+     * Stop the periodic reconciliation.
+     */
+    @PreDestroy
+    public void stop() {
+        if (syncTask != null) {
+            syncTask.dispose();
+        }
+    }
+
+    /**
+     * Get the local bucket for a key, creating it on first use.
+     *
+     * @param key the rate-limit key
+     * @param burstCapacity the capacity of the bucket, used when reconciling
+     * @return the bucket
+     */
+    LocalTokenBucket bucket(String key, int burstCapacity) {
+        BucketEntry entry = buckets.get(key);
+        if (entry == null || entry.burstCapacity() != burstCapacity) {
+            entry = buckets.compute(key, (k, existing) -> existing != null
+                    ? new BucketEntry(existing.bucket(), burstCapacity)
+                    : new BucketEntry(new LocalTokenBucket(KEY_PREFIX + k), burstCapacity));
+        }
+        return entry.bucket();
+    }
+
+    /**
+     * Reconcile every bucket used since the previous run and drop idle ones.
+     *
+     * @return completion of all batches
+     */
+    Mono<Void> reconcile() {
+        long now = System.nanoTime();
+        List<BucketEntry> dirty = new ArrayList<>();
+        buckets.forEach((key, entry) -> {
+            if (entry.bucket().isIdle(now, idleNanos)) {
+                buckets.remove(key, entry);
+            } else if (entry.bucket().isTouched()) {
+                dirty.add(entry);
+            }
+        });
+        if (dirty.isEmpty()) {
+            return Mono.empty();
+        }
+
+        List<List<BucketEntry>> batches = new ArrayList<>();
+        for (int i = 0; i < dirty.size(); i += batchSize) {
+            batches.add(dirty.subList(i, Math.min(i + batchSize, dirty.size())));
+        }
+        return Flux.fromIterable(batches)
+                .concatMap(this::reconcileBatch)
+                .then();
+    }
+
+    private Mono<Void> reconcileBatch(List<BucketEntry> batch) {
+        long[] sent = new long[batch.size()];
+        List<String> keys = new ArrayList<>(batch.size());
+        List<String> args = new ArrayList<>(batch.size() + 1);
+        for (int i = 0; i < batch.size(); i++) {
+            sent[i] = batch.get(i).bucket().drainUnsynced();
+            keys.add(batch.get(i).bucket().getRedisKey());
+            args.add(Long.toString(sent[i]));
+        }
+        args.add(counterTtlSeconds);
+
+        return redisTemplate.execute(SYNC_REDIS_SCRIPT, keys, args)
+                .next()
+                .timeout(syncTimeout)
+                .doOnNext(totals -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).bucket().reconcile(sent[i], totals.get(i), batch.get(i).burstCapacity());
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.warn("Rate limit reconciliation failed for {} keys, limiting locally", batch.size(), e);
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).bucket().restoreUnsynced(sent[i]);
+                    }
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private record BucketEntry(LocalTokenBucket bucket, int burstCapacity) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.chatapp.gateway.rpc;
+
+import com.chatapp.common.deadline.RequestDeadline;
+import com.chatapp.common.exception.ChatAppException;
+import com.chatapp.common.model.User;
+import com.chatapp.common.rpc.UserProtoCodec;
+import com.chatapp.common.rpc.UserRpc;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Client for the user service's internal binary RPC.
+ * Calls go over cleartext HTTP/2 with prior knowledge, so a handful of connections per instance
+ * carry all concurrent calls as multiplexed streams. The instance is chosen by the service's load
+ * balancer, like routed requests, and is called on its internal RPC port rather than its public one.
+ */
+@Component
+public class UserRpcClient {
+
+    private static final String SERVICE_ID = "user-service";
+
+    private final ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory;
+    private final ConnectionProvider connectionProvider;
+    private final HttpClient httpClient;
+    private final int defaultPort;
+
+    public UserRpcClient(ReactiveLoadBalancer.Factory<ServiceInstance> loadBalancerFactory,
+                         @Value("${user-rpc.max-connections:4}") int maxConnections,
+                         @Value("${user-rpc.timeout:2s}") Duration timeout,
+                         @Value("${user-rpc.port:" + UserRpc.DEFAULT_PORT + "}") int defaultPort) {
+        this.loadBalancerFactory = loadBalancerFactory;
+        this.defaultPort = defaultPort;
+        this.connectionProvider = ConnectionProvider.builder("user-rpc")
+                .maxConnections(maxConnections)
+                .build();
+        this.httpClient = HttpClient.create(connectionProvider)
+                .protocol(HttpProtocol.H2C)
+                .responseTimeout(timeout);
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    /**
+     * Look up users by ID.
+     *
+     * @param userIds the user IDs
+     * @param deadline the caller's deadline, or null for none
+     * @return the users that exist, in the order of the given IDs
+     */
+    public Mono<List<User>> getUsers(Collection<UUID> userIds, RequestDeadline deadline) {
+        return call(UserRpc.GET_USERS_PATH, UserProtoCodec.encodeIds(userIds), deadline)
+                .map(UserProtoCodec::decodeUsers);
+    }
+
+    /**
+     * Update a user's presence status.
+     *
+     * @param userId the user ID
+     * @param status the new status
+     * @param deadline the caller's deadline, or null for none
+     * @return completion of the update
+     */
+    public Mono<Void> updateStatus(UUID userId, User.UserStatus status, RequestDeadline deadline) {
+        byte[] request = UserProtoCodec.encodeStatusUpdate(new UserProtoCodec.StatusUpdate(userId, status));
+        return call(UserRpc.UPDATE_STATUS_PATH, request, deadline).then();
+    }
+
+    private Mono<byte[]> call(String path, byte[] request, RequestDeadline deadline) {
+        return Mono.from(loadBalancerFactory.getInstance(SERVICE_ID).choose())
+                .flatMap(response -> {
+                    if (!response.hasServer()) {
+                        return Mono.error(new ChatAppException(
+                                "No user service instance available", "SERVICE_UNAVAILABLE", 503));
+                    }
+                    ServiceInstance instance = response.getServer();
+                    String advertisedPort = instance.getMetadata().get(UserRpc.PORT_METADATA_KEY);
+                    int port = advertisedPort != null ? Integer.parseInt(advertisedPort) : defaultPort;
+                    return httpClient
+                            .headers(headers -> {
+                                headers.set(HttpHeaderNames.CONTENT_TYPE, UserRpc.CONTENT_TYPE);
+                                if (deadline != null) {
+                                    headers.set(RequestDeadline.TIMEOUT_HEADER, deadline.remaining().toMillis());
+                                }
+                            })
+                            .post()
+                            .uri("http://" + instance.getHost() + ":" + port + path)
+                            .send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(request)))
+                            .responseSingle((rpcResponse, body) -> {
+                                int status = rpcResponse.status().code();
+                                if (status >= 300) {
+                                    String errorCode = rpcResponse.responseHeaders().get(UserRpc.ERROR_CODE_HEADER, "RPC_FAILED");
+                                    return Mono.error(new ChatAppException("User RPC " + path + " failed", errorCode, status));
+                                }
+                                return body.asByteArray().defaultIfEmpty(new byte[0]);
+                            });
+                });
+    }
+}
@@ -0,0 +1,95 @@
+package com.chatapp.gateway.shedding;
+
+import io.netty.util.concurrent.EventExecutor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how long tasks wait before the server's Netty event loops run them.
+ * A probe task is queued on every event loop at a fixed interval and the time until it runs is
+ * recorded. A probe that has not run yet counts with the time it has waited so far, so a loop that
+ * is blocked outright shows up as growing lag rather than as missing samples.
+ */
+@Slf4j
+@Component
+public class EventLoopLagMonitor {
+
+    private final ReactorResourceFactory resourceFactory;
+    private final Duration probeInterval;
+
+    private volatile List<EventExecutor> eventLoops = List.of();
+    private volatile AtomicLong[] pendingSince = new AtomicLong[0];
+    private volatile long[] lastLagNanos = new long[0];
+    private volatile long lagNanos;
+    private Disposable probes;
+
+    public EventLoopLagMonitor(ReactorResourceFactory resourceFactory,
+                               @Value("${load-shedding.probe-interval:50ms}") Duration probeInterval) {
+        this.resourceFactory = resourceFactory;
+        this.probeInterval = probeInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        List<EventExecutor> loops = new ArrayList<>();
+        resourceFactory.getLoopResources().onServer(true).forEach(loops::add);
+        AtomicLong[] pending = new AtomicLong[loops.size()];
+        for (int i = 0; i < pending.length; i++) {
+            pending[i] = new AtomicLong();
+        }
+        this.pendingSince = pending;
+        this.lastLagNanos = new long[loops.size()];
+        this.eventLoops = loops;
+
+        probes = Flux.interval(probeInterval, Schedulers.parallel())
+                .subscribe(tick -> probe(), error -> log.error("Event loop lag probe stopped", error));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (probes != null) {
+            probes.dispose();
+        }
+    }
+
+    /**
+     * Get the current event loop lag, the worst of all server event loops.
+     *
+     * @return the lag
+     */
+    public Duration getLag() {
+        return Duration.ofNanos(lagNanos);
+    }
+
+    private void probe() {
+        long now = System.nanoTime();
+        long worst = 0;
+        for (int i = 0; i < eventLoops.size(); i++) {
+            long since = pendingSince[i].get();
+            if (since != 0) {
+                worst = Math.max(worst, now - since);
+                continue;
+            }
+            worst = Math.max(worst, lastLagNanos[i]);
+            pendingSince[i].set(now);
+            int loop = i;
+            eventLoops.get(i).execute(() -> {
+                lastLagNanos[loop] = System.nanoTime() - now;
+                pendingSince[loop].set(0);
+            });
+        }
+        lagNanos = worst;
+    }
+}
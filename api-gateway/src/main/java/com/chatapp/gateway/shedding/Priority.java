@@ -0,0 +1,29 @@
+package com.chatapp.gateway.shedding;
+
+/**
+ * Priority class of a request for load shedding.
+ * Each class is shed once the gateway's load reaches its threshold, so lower classes go first and
+ * critical traffic, such as message delivery and authentication, is never shed.
+ */
+public enum Priority {
+    CRITICAL(Double.POSITIVE_INFINITY),
+    HIGH(1.0),
+    NORMAL(0.8),
+    LOW(0.6);
+
+    private final double shedAt;
+
+    Priority(double shedAt) {
+        this.shedAt = shedAt;
+    }
+
+    /**
+     * Check if requests of this class should be shed at the given load.
+     *
+     * @param load the load as a fraction of the gateway's capacity
+     * @return true if the request should be rejected
+     */
+    public boolean isShedAt(double load) {
+        return load >= shedAt;
+    }
+}
@@ -0,0 +1,155 @@
+package com.chatapp.benchmarks;
+
+import com.chatapp.common.model.Message;
+import com.chatapp.common.model.User;
+import com.chatapp.common.model.UserSettings;
+import com.chatapp.common.websocket.WebSocketMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Sample data shared by the benchmarks, shaped like typical production payloads.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Create an object mapper configured like the Spring Boot auto-configured one.
+     *
+     * @return the object mapper
+     */
+    static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Create a set of random user IDs.
+     *
+     * @param count the number of IDs
+     * @return the user IDs
+     */
+    static Set<UUID> randomIds(int count) {
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+
+    /**
+     * Create a user DTO with the given number of contacts.
+     *
+     * @param contactCount the number of contacts
+     * @return the user DTO
+     */
+    static User user(int contactCount) {
+        LocalDateTime now = LocalDateTime.now();
+        return User.builder()
+                .id(UUID.randomUUID())
+                .username("benchmark.user")
+                .email("benchmark.user@example.com")
+                .displayName("Benchmark User")
+                .profilePictureUrl("https://cdn.example.com/avatars/benchmark.user.png")
+                .status(User.UserStatus.ONLINE)
+                .lastSeen(now)
+                .createdAt(now.minusDays(30))
+                .updatedAt(now)
+                .contacts(randomIds(contactCount))
+                .blockedUsers(randomIds(2))
+                .settings(UserSettings.builder()
+                        .enableReadReceipts(true)
+                        .enableTypingIndicators(true)
+                        .enablePushNotifications(true)
+                        .notificationLevel(UserSettings.NotificationLevel.ALL)
+                        .privacyLevel(UserSettings.PrivacyLevel.CONTACTS_ONLY)
+                        .themePreference(UserSettings.ThemePreference.SYSTEM)
+                        .language("en")
+                        .build())
+                .build();
+    }
+
+    /**
+     * Create a user entity with the given number of contacts.
+     *
+     * @param contactCount the number of contacts
+     * @return the user entity
+     */
+    static com.chatapp.user.entity.User userEntity(int contactCount) {
+        LocalDateTime now = LocalDateTime.now();
+        return com.chatapp.user.entity.User.builder()
+                .id(UUID.randomUUID())
+                .username("benchmark.user")
+                .email("benchmark.user@example.com")
+                .password("$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ01")
+                .displayName("Benchmark User")
+                .profilePictureUrl("https://cdn.example.com/avatars/benchmark.user.png")
+                .status(User.UserStatus.ONLINE)
+                .lastSeen(now)
+                .createdAt(now.minusDays(30))
+                .updatedAt(now)
+                .contacts(randomIds(contactCount))
+                .blockedUsers(randomIds(2))
+                .roles(new HashSet<>(Set.of("USER")))
+                .settings(com.chatapp.user.entity.UserSettings.builder()
+                        .enableReadReceipts(true)
+                        .enableTypingIndicators(true)
+                        .enablePushNotifications(true)
+                        .notificationLevel(UserSettings.NotificationLevel.ALL)
+                        .privacyLevel(UserSettings.PrivacyLevel.CONTACTS_ONLY)
+                        .themePreference(UserSettings.ThemePreference.SYSTEM)
+                        .language("en")
+                        .build())
+                .build();
+    }
+
+    /**
+     * Create a chat message frame as sent over the WebSocket connection.
+     *
+     * @return the WebSocket message
+     */
+    static WebSocketMessage webSocketMessage() {
+        UUID conversationId = UUID.randomUUID();
+        return WebSocketMessage.builder()
+                .id(UUID.randomUUID())
+                .type(WebSocketMessage.MessageType.MESSAGE)
+                .channel("conversation:" + conversationId)
+                .senderId(UUID.randomUUID())
+                .payload(Map.of(
+                        "conversationId", conversationId.toString(),
+                        "content", "Hey, are we still on for lunch tomorrow?",
+                        "type", "TEXT"))
+                .timestamp(LocalDateTime.now())
+                .metadata(Map.of("clientMessageId", UUID.randomUUID().toString()))
+                .build();
+    }
+
+    /**
+     * Create a text message in a conversation.
+     *
+     * @param conversationId the conversation ID
+     * @return the message
+     */
+    static Message message(UUID conversationId) {
+        LocalDateTime now = LocalDateTime.now();
+        return Message.builder()
+                .id(UUID.randomUUID())
+                .conversationId(conversationId)
+                .senderId(UUID.randomUUID())
+                .type(Message.MessageType.TEXT)
+                .content("Hey, are we still on for lunch tomorrow?")
+                .sentAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
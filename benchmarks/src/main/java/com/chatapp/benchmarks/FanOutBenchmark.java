@@ -0,0 +1,110 @@
+package com.chatapp.benchmarks;
+
+import com.chatapp.chat.fanout.FanOutEngine;
+import com.chatapp.chat.fanout.FanOutStrategy;
+import com.chatapp.chat.fanout.InMemoryInboxStore;
+import com.chatapp.chat.sequence.ConversationOwnership;
+import com.chatapp.chat.sequence.ConversationSequencer;
+import com.chatapp.chat.store.MessagePage;
+import com.chatapp.chat.store.MessageStore;
+import com.chatapp.chat.websocket.MessageDispatcher;
+import com.chatapp.chat.websocket.SessionRegistry;
+import com.chatapp.common.model.Conversation;
+import com.chatapp.common.model.Message;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Send latency of the fan-out engine as conversation membership grows, with the hybrid strategy
+ * (fan-out on write up to 1000 members, on read above) against fan-out on write for every size.
+ * The timeline append is an in-memory no-op so that the fan-out itself is measured, and no members
+ * are connected, so WebSocket delivery (which runs after the send completes) is not included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FanOutBenchmark {
+
+    @Param({"2", "100", "1000", "10000", "100000"})
+    private int members;
+
+    @Param({"hybrid", "write-all"})
+    private String strategy;
+
+    private ConversationSequencer sequencer;
+    private FanOutEngine engine;
+    private Conversation conversation;
+    private Message message;
+
+    @Setup
+    public void setUp() throws IOException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SessionRegistry sessionRegistry = new SessionRegistry(meterRegistry);
+        MessageDispatcher dispatcher = new MessageDispatcher(sessionRegistry, BenchmarkFixtures.objectMapper(), meterRegistry);
+        int writeThreshold = "hybrid".equals(strategy) ? 1000 : Integer.MAX_VALUE;
+        sequencer = new ConversationSequencer(Files.createTempDirectory("fan-out-benchmark"), 1000, 64);
+        engine = new FanOutEngine(new NoOpMessageStore(), sequencer, new ConversationOwnership(0, 1),
+                new InMemoryInboxStore(100, 200_000),
+                sessionRegistry, dispatcher, meterRegistry, writeThreshold, 500);
+
+        conversation = Conversation.builder()
+                .id(UUID.randomUUID())
+                .type(members == 2 ? Conversation.ConversationType.DIRECT : Conversation.ConversationType.CHANNEL)
+                .participants(BenchmarkFixtures.randomIds(members))
+                .build();
+        message = BenchmarkFixtures.message(conversation.getId());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        sequencer.close();
+    }
+
+    @Benchmark
+    public FanOutStrategy send() {
+        return engine.publish(conversation, message).join();
+    }
+
+    private static final class NoOpMessageStore implements MessageStore {
+
+        @Override
+        public CompletableFuture<Void> append(Message message) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public MessagePage findLatest(UUID conversationId, int limit) {
+            return MessagePage.empty();
+        }
+
+        @Override
+        public MessagePage findOlder(UUID conversationId, long cursor, int limit) {
+            return MessagePage.empty();
+        }
+
+        @Override
+        public MessagePage findNewer(UUID conversationId, long sequence, int limit) {
+            return MessagePage.empty();
+        }
+    }
+}
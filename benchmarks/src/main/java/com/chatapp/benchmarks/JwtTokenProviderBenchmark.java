@@ -0,0 +1,99 @@
+package com.chatapp.benchmarks;
+
+import com.chatapp.common.security.JwtTokenProvider;
+import com.chatapp.common.security.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for JWT generation and verification, the per-request work done by the gateway.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET =
+            "benchmarkSecretKeyThatIsLongEnoughForHmacSha512SignaturesInTheBenchmarkSuite0123456789";
+
+    private JwtTokenProvider provider;
+    private JwtTokenProvider cachingProvider;
+    private UUID userId;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        provider = newProvider(false);
+        cachingProvider = newProvider(true);
+        userId = UUID.randomUUID();
+        token = provider.generateToken(userId, "benchmark.user", new String[]{"USER"}, Map.of());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return provider.generateToken(userId, "benchmark.user", new String[]{"USER"}, Map.of());
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return provider.generateRefreshToken(userId);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verify() {
+        return provider.verify(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyCached() {
+        return cachingProvider.verify(token);
+    }
+
+    /**
+     * The validate/getUserId/getAllClaims sequence the gateway filter used before verify() existed.
+     */
+    @Benchmark
+    public void validateThenExtract(Blackhole blackhole) {
+        blackhole.consume(provider.validateToken(token));
+        blackhole.consume(provider.getUserIdFromToken(token));
+        Claims claims = provider.getAllClaimsFromToken(token);
+        blackhole.consume(claims.get("roles"));
+    }
+
+    private static JwtTokenProvider newProvider(boolean verificationCacheEnabled) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        setField(provider, "jwtSecret", SECRET);
+        setField(provider, "jwtExpirationMs", 86400000L);
+        setField(provider, "refreshExpirationMs", 604800000L);
+        setField(provider, "verificationCacheEnabled", verificationCacheEnabled);
+        setField(provider, "verificationCacheMaxSize", 100000L);
+        provider.init();
+        return provider;
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
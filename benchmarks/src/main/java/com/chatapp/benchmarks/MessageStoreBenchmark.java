@@ -0,0 +1,142 @@
+package com.chatapp.benchmarks;
+
+import com.chatapp.chat.store.MessagePage;
+import com.chatapp.chat.store.SegmentedMessageStore;
+import com.chatapp.common.model.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of the embedded segmented message store on a temporary directory.
+ *
+ * <p>Appends wait for the fsync that makes them durable, so single-threaded appends measure one
+ * fsync per message and 32 threads show what group commit recovers. Page reads go to random
+ * conversations whose history is {@code historyDepth} messages deep; a page near the start of the
+ * history should cost the same as the latest page, and so should catching up from the start.
+ * Sequence numbers are assigned and queued under a per-conversation lock, as the fan-out engine does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageStoreBenchmark {
+
+    private static final int CONVERSATIONS = 50;
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"1000", "20000"})
+    private int historyDepth;
+
+    private Path directory;
+    private SegmentedMessageStore store;
+    private UUID[] conversationIds;
+    private AtomicLong[] sequences;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("message-store-benchmark");
+        store = new SegmentedMessageStore(directory, 64 * 1024 * 1024, 64, 1024, 65536, 200);
+        conversationIds = new UUID[CONVERSATIONS];
+        sequences = new AtomicLong[CONVERSATIONS];
+        for (int i = 0; i < CONVERSATIONS; i++) {
+            conversationIds[i] = UUID.randomUUID();
+            sequences[i] = new AtomicLong();
+        }
+
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (int n = 0; n < historyDepth; n++) {
+            for (int i = 0; i < CONVERSATIONS; i++) {
+                pending.add(append(i));
+            }
+            if (pending.size() >= 32768) {
+                CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+                pending.clear();
+            }
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void appendSingleThread() {
+        append(randomIndex()).join();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void appendGroupCommit() {
+        append(randomIndex()).join();
+    }
+
+    @Benchmark
+    public MessagePage latestPage() {
+        return store.findLatest(randomConversation(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public MessagePage oldestPage() {
+        return store.findOlder(randomConversation(), PAGE_SIZE + 1, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public MessagePage catchUpFromStart() {
+        return store.findNewer(randomConversation(), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public MessagePage latestPageConcurrent() {
+        return store.findLatest(randomConversation(), PAGE_SIZE);
+    }
+
+    private CompletableFuture<Void> append(int conversation) {
+        Message message = BenchmarkFixtures.message(conversationIds[conversation]);
+        AtomicLong sequence = sequences[conversation];
+        synchronized (sequence) {
+            message.setSequence(sequence.incrementAndGet());
+            return store.append(message);
+        }
+    }
+
+    private int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(CONVERSATIONS);
+    }
+
+    private UUID randomConversation() {
+        return conversationIds[randomIndex()];
+    }
+}
@@ -0,0 +1,52 @@
+package com.chatapp.benchmarks;
+
+import com.chatapp.common.websocket.WebSocketMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for Jackson serialization of WebSocket frames.
+ * User event encoding is covered by {@link UserEventEncodingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private WebSocketMessage webSocketMessage;
+    private String webSocketMessageJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = BenchmarkFixtures.objectMapper();
+        webSocketMessage = BenchmarkFixtures.webSocketMessage();
+
+        webSocketMessageJson = objectMapper.writeValueAsString(webSocketMessage);
+    }
+
+    @Benchmark
+    public String serializeWebSocketMessage() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(webSocketMessage);
+    }
+
+    @Benchmark
+    public WebSocketMessage deserializeWebSocketMessage() throws JsonProcessingException {
+        return objectMapper.readValue(webSocketMessageJson, WebSocketMessage.class);
+    }
+}
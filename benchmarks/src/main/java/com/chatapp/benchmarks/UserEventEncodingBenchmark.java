@@ -0,0 +1,138 @@
+package com.chatapp.benchmarks;
+
+import com.chatapp.common.event.UserChangeEvent;
+import com.chatapp.common.event.UserEventCodec;
+import com.chatapp.common.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary user event encoding with the JSON events it replaced, for a display-name
+ * change and a status change. The JSON events embedded the full user DTO, so their size grows
+ * with the contact count; encoded sizes are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserEventEncodingBenchmark {
+
+    @Param({"10", "5000"})
+    private int contactCount;
+
+    private ObjectMapper objectMapper;
+    private JsonUserEvent jsonUserEvent;
+    private JsonUserStatusEvent jsonUserStatusEvent;
+    private UserChangeEvent userUpdated;
+    private UserChangeEvent statusChanged;
+    private String userEventJson;
+    private byte[] userUpdatedBytes;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = BenchmarkFixtures.objectMapper();
+
+        User user = BenchmarkFixtures.user(contactCount);
+        long now = System.currentTimeMillis();
+        LocalDateTime lastSeen = LocalDateTime.now();
+        jsonUserEvent = new JsonUserEvent("USER_UPDATED", user.getId(), user, now);
+        jsonUserStatusEvent = new JsonUserStatusEvent(user.getId(), User.UserStatus.AWAY, lastSeen, now);
+        userUpdated = UserChangeEvent.builder()
+                .type(UserChangeEvent.Type.UPDATED)
+                .userId(user.getId())
+                .username(user.getUsername())
+                .displayName(user.getDisplayName())
+                .timestamp(now)
+                .build();
+        statusChanged = UserChangeEvent.builder()
+                .type(UserChangeEvent.Type.STATUS_CHANGED)
+                .userId(user.getId())
+                .status(User.UserStatus.AWAY)
+                .lastSeen(lastSeen)
+                .timestamp(now)
+                .build();
+
+        userEventJson = objectMapper.writeValueAsString(jsonUserEvent);
+        userUpdatedBytes = UserEventCodec.encode(userUpdated);
+
+        System.out.printf("%nUSER_UPDATED: json=%d bytes, binary=%d bytes; USER_STATUS: json=%d bytes, binary=%d bytes%n",
+                objectMapper.writeValueAsBytes(jsonUserEvent).length, userUpdatedBytes.length,
+                objectMapper.writeValueAsBytes(jsonUserStatusEvent).length, UserEventCodec.encode(statusChanged).length);
+    }
+
+    @Benchmark
+    public byte[] encodeUserUpdatedJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(jsonUserEvent);
+    }
+
+    @Benchmark
+    public byte[] encodeUserUpdatedBinary() {
+        return UserEventCodec.encode(userUpdated);
+    }
+
+    @Benchmark
+    public JsonUserEvent decodeUserUpdatedJson() throws JsonProcessingException {
+        return objectMapper.readValue(userEventJson, JsonUserEvent.class);
+    }
+
+    @Benchmark
+    public UserChangeEvent decodeUserUpdatedBinary() {
+        return UserEventCodec.decode(userUpdatedBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeStatusJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(jsonUserStatusEvent);
+    }
+
+    @Benchmark
+    public byte[] encodeStatusBinary() {
+        return UserEventCodec.encode(statusChanged);
+    }
+
+    /**
+     * The JSON user event format that embedded the full user.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class JsonUserEvent {
+        private String eventType;
+        private UUID userId;
+        private User user;
+        private long timestamp;
+    }
+
+    /**
+     * The JSON user status event format.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class JsonUserStatusEvent {
+        private UUID userId;
+        private User.UserStatus status;
+        private LocalDateTime lastSeen;
+        private long timestamp;
+    }
+}
@@ -0,0 +1,63 @@
+package com.chatapp.benchmarks;
+
+import com.chatapp.common.dto.PageResponse;
+import com.chatapp.common.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for entity-to-DTO mapping and page envelope construction in the user service read paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10", "1000"})
+    private int contactCount;
+
+    private com.chatapp.user.entity.User userEntity;
+    private Page<com.chatapp.user.entity.User> entityPage;
+
+    @Setup
+    public void setUp() {
+        userEntity = BenchmarkFixtures.userEntity(contactCount);
+
+        List<com.chatapp.user.entity.User> content = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            content.add(BenchmarkFixtures.userEntity(contactCount));
+        }
+        entityPage = new PageImpl<>(content, PageRequest.of(3, PAGE_SIZE), 10_000);
+    }
+
+    @Benchmark
+    public User entityToDto() {
+        return userEntity.toDto();
+    }
+
+    @Benchmark
+    public PageResponse<User> pageResponseFrom() {
+        return PageResponse.from(entityPage.map(com.chatapp.user.entity.User::toDto));
+    }
+}
@@ -0,0 +1,86 @@
+package com.chatapp.benchmarks;
+
+import com.chatapp.common.dto.ApiResponse;
+import com.chatapp.common.model.User;
+import com.chatapp.common.rpc.UserProtoCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary user RPC encoding with the JSON {@code ApiResponse} envelope for a user
+ * lookup response, on both the sending and the receiving side of the hop. Encoded sizes are
+ * printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRpcEncodingBenchmark {
+
+    private static final TypeReference<ApiResponse<List<User>>> USER_LIST_RESPONSE = new TypeReference<>() {
+    };
+
+    @Param({"1", "50"})
+    private int userCount;
+
+    @Param({"10", "500"})
+    private int contactCount;
+
+    private ObjectMapper objectMapper;
+    private List<User> users;
+    private byte[] json;
+    private byte[] proto;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = BenchmarkFixtures.objectMapper();
+        users = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            users.add(BenchmarkFixtures.user(contactCount));
+        }
+        json = objectMapper.writeValueAsBytes(ApiResponse.success(users));
+        proto = UserProtoCodec.encodeUsers(users);
+
+        System.out.printf("%n%d users with %d contacts: json=%d bytes, proto=%d bytes%n",
+                userCount, contactCount, json.length, proto.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ApiResponse.success(users));
+    }
+
+    @Benchmark
+    public byte[] encodeProto() {
+        return UserProtoCodec.encodeUsers(users);
+    }
+
+    @Benchmark
+    public ApiResponse<List<User>> decodeJson() throws IOException {
+        return objectMapper.readValue(json, USER_LIST_RESPONSE);
+    }
+
+    @Benchmark
+    public List<User> decodeProto() {
+        return UserProtoCodec.decodeUsers(proto);
+    }
+}
@@ -0,0 +1,18 @@
+package com.chatapp.chat;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+
+/**
+ * Chat Service application entry point.
+ * This service terminates client WebSocket connections and delivers messages between them.
+ */
+@SpringBootApplication
+@EnableDiscoveryClient
+public class ChatServiceApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ChatServiceApplication.class, args);
+    }
+}
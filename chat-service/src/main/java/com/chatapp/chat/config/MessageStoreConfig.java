@@ -0,0 +1,94 @@
+package com.chatapp.chat.config;
+
+import com.chatapp.chat.fanout.InMemoryInboxStore;
+import com.chatapp.chat.fanout.InboxStore;
+import com.chatapp.chat.sequence.ConversationOwnership;
+import com.chatapp.chat.sequence.ConversationSequencer;
+import com.chatapp.chat.store.MessageStore;
+import com.chatapp.chat.store.SegmentedMessageStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Configuration for message storage.
+ * The embedded segmented log and the in-memory inboxes are used unless {@code chat.store.type} and
+ * {@code chat.inbox.type} select other implementations.
+ */
+@Configuration
+public class MessageStoreConfig {
+
+    /**
+     * Define the embedded message store.
+     *
+     * @param directory the directory holding the segment files
+     * @param segmentSize the size of each segment file
+     * @param indexInterval the number of messages between index checkpoints
+     * @param maxBatchSize the maximum number of messages written per fsync
+     * @param maxPendingAppends the maximum number of appends waiting for the writer
+     * @param maxPageSize the maximum number of messages returned per page
+     * @return the message store
+     * @throws IOException if the store cannot be opened
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "chat.store.type", havingValue = "segmented", matchIfMissing = true)
+    public MessageStore segmentedMessageStore(@Value("${chat.store.directory:data/messages}") Path directory,
+                                              @Value("${chat.store.segment-size:64MB}") DataSize segmentSize,
+                                              @Value("${chat.store.index-interval:64}") int indexInterval,
+                                              @Value("${chat.store.max-batch-size:1024}") int maxBatchSize,
+                                              @Value("${chat.store.max-pending-appends:65536}") int maxPendingAppends,
+                                              @Value("${chat.store.max-page-size:200}") int maxPageSize)
+            throws IOException {
+        return new SegmentedMessageStore(directory, Math.toIntExact(segmentSize.toBytes()), indexInterval,
+                maxBatchSize, maxPendingAppends, maxPageSize);
+    }
+
+    /**
+     * Define the per-conversation sequencer.
+     *
+     * @param directory the directory holding the high-water mark log
+     * @param blockSize the number of sequence numbers reserved per durable write
+     * @param stripes the number of locks that block reservations are spread over
+     * @return the sequencer
+     * @throws IOException if the high-water marks cannot be read or written
+     */
+    @Bean(destroyMethod = "close")
+    public ConversationSequencer conversationSequencer(@Value("${chat.sequence.directory:data/sequences}") Path directory,
+                                                       @Value("${chat.sequence.block-size:1000}") int blockSize,
+                                                       @Value("${chat.sequence.stripes:64}") int stripes)
+            throws IOException {
+        return new ConversationSequencer(directory, blockSize, stripes);
+    }
+
+    /**
+     * Define which conversations this node numbers and stores.
+     *
+     * @param partition the sequence partition owned by this node
+     * @param partitions the number of sequence partitions, one per chat-service node
+     * @return the conversation ownership
+     */
+    @Bean
+    public ConversationOwnership conversationOwnership(@Value("${chat.sequence.partition:0}") int partition,
+                                                       @Value("${chat.sequence.partitions:1}") int partitions) {
+        return new ConversationOwnership(partition, partitions);
+    }
+
+    /**
+     * Define the in-memory inbox store.
+     *
+     * @param capacity the maximum number of entries per inbox
+     * @param maxUsers the maximum number of inboxes held
+     * @return the inbox store
+     */
+    @Bean
+    @ConditionalOnProperty(name = "chat.inbox.type", havingValue = "memory", matchIfMissing = true)
+    public InboxStore inMemoryInboxStore(@Value("${chat.inbox.capacity:1000}") int capacity,
+                                         @Value("${chat.inbox.max-users:1000000}") long maxUsers) {
+        return new InMemoryInboxStore(capacity, maxUsers);
+    }
+}
@@ -0,0 +1,61 @@
+package com.chatapp.chat.config;
+
+import com.chatapp.chat.websocket.ChatWebSocketHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.reactive.socket.server.WebSocketService;
+import org.springframework.web.reactive.socket.server.support.HandshakeWebSocketService;
+import org.springframework.web.reactive.socket.server.support.WebSocketHandlerAdapter;
+import org.springframework.web.reactive.socket.server.upgrade.ReactorNettyRequestUpgradeStrategy;
+import reactor.netty.http.server.WebsocketServerSpec;
+
+import java.util.Map;
+
+/**
+ * Configuration for the WebSocket endpoint.
+ * Sessions run on the Reactor Netty event loop; the frame size limit bounds what a single client
+ * frame can make the server buffer.
+ */
+@Configuration
+public class WebSocketConfig {
+
+    /**
+     * Map the WebSocket path to the chat handler, ahead of annotated controllers.
+     *
+     * @param handler the chat WebSocket handler
+     * @param path the WebSocket path
+     * @return the handler mapping
+     */
+    @Bean
+    public HandlerMapping webSocketHandlerMapping(ChatWebSocketHandler handler,
+                                                  @Value("${chat.websocket.path:/ws/chat}") String path) {
+        return new SimpleUrlHandlerMapping(Map.of(path, handler), -1);
+    }
+
+    /**
+     * Define the WebSocket service with the frame size limit.
+     *
+     * @param maxFrameSize the largest frame payload accepted from a client
+     * @return the WebSocket service
+     */
+    @Bean
+    public WebSocketService webSocketService(@Value("${chat.websocket.max-frame-size:64KB}") DataSize maxFrameSize) {
+        return new HandshakeWebSocketService(new ReactorNettyRequestUpgradeStrategy(
+                () -> WebsocketServerSpec.builder().maxFramePayloadLength((int) maxFrameSize.toBytes())));
+    }
+
+    /**
+     * Define the handler adapter that upgrades requests with the WebSocket service.
+     *
+     * @param webSocketService the WebSocket service
+     * @return the handler adapter
+     */
+    @Bean
+    public WebSocketHandlerAdapter webSocketHandlerAdapter(WebSocketService webSocketService) {
+        return new WebSocketHandlerAdapter(webSocketService);
+    }
+}
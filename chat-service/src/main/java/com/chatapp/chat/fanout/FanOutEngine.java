@@ -0,0 +1,226 @@
+package com.chatapp.chat.fanout;
+
+import com.chatapp.chat.sequence.ConversationOwnership;
+import com.chatapp.chat.sequence.ConversationSequencer;
+import com.chatapp.chat.store.MessageStore;
+import com.chatapp.chat.websocket.MessageDispatcher;
+import com.chatapp.chat.websocket.SessionRegistry;
+import com.chatapp.common.exception.ChatAppException;
+import com.chatapp.common.model.Conversation;
+import com.chatapp.common.model.Message;
+import com.chatapp.common.websocket.WebSocketMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Decides how a message reaches the members of its conversation and carries it out.
+ *
+ * <p>Every message is numbered by the {@link ConversationSequencer} and appended once to the
+ * conversation timeline in the {@link MessageStore}, which pages by that number, so a client can
+ * catch up on everything after the last number it saw. Only the node that owns a conversation, as
+ * decided by {@link ConversationOwnership}, numbers its messages; {@link MessagePublisher} forwards
+ * sends from other nodes to it, and this engine refuses them so that no number is issued twice. A
+ * number whose append is rejected, for example because the store's queue is full, is released for
+ * the next message. A write that fails after it was queued stops the store from accepting further
+ * appends, so it cannot leave a gap behind a later message. DIRECT conversations, and GROUP or
+ * CHANNEL conversations with at most {@code write-threshold} members, are also fanned out on write:
+ * the message is added to each member's inbox before the send completes. Larger conversations are
+ * fanned out on read: members page through the timeline themselves, so the cost of a send does not
+ * depend on the number of members.
+ *
+ * <p>Members connected to this node receive the message over their WebSocket sessions in either
+ * case. That delivery starts once the send has completed and runs in batches of
+ * {@code delivery-batch-size} members, so one large conversation cannot hold a thread for the
+ * whole member list.
+ *
+ * <p>Live delivery does not cross nodes. A message reaches the WebSocket sessions on the node that
+ * numbered it and, for a forwarded send, on the sender's node; members connected anywhere else see
+ * it only when they next read their inbox or catch up on the timeline after the last number they
+ * saw. Pushing to those members needs a cross-node delivery channel, which this engine does not
+ * provide.
+ */
+@Slf4j
+@Component
+public class FanOutEngine {
+
+    private static final int ORDERING_STRIPES = 256;
+
+    private final MessageStore messageStore;
+    private final ConversationSequencer sequencer;
+    private final ConversationOwnership ownership;
+    private final InboxStore inboxStore;
+    private final SessionRegistry sessionRegistry;
+    private final MessageDispatcher dispatcher;
+    private final int writeThreshold;
+    private final int deliveryBatchSize;
+    private final Object[] orderingStripes = new Object[ORDERING_STRIPES];
+    private final Scheduler deliveryScheduler = Schedulers.parallel();
+    private final Executor fanOutExecutor = deliveryScheduler::schedule;
+    private final Map<FanOutStrategy, Counter> messages = new EnumMap<>(FanOutStrategy.class);
+    private final Counter inboxWrites;
+    private final Counter deliveries;
+
+    public FanOutEngine(MessageStore messageStore,
+                        ConversationSequencer sequencer,
+                        ConversationOwnership ownership,
+                        InboxStore inboxStore,
+                        SessionRegistry sessionRegistry,
+                        MessageDispatcher dispatcher,
+                        MeterRegistry meterRegistry,
+                        @Value("${chat.fanout.write-threshold:1000}") int writeThreshold,
+                        @Value("${chat.fanout.delivery-batch-size:500}") int deliveryBatchSize) {
+        this.messageStore = messageStore;
+        this.sequencer = sequencer;
+        this.ownership = ownership;
+        this.inboxStore = inboxStore;
+        this.sessionRegistry = sessionRegistry;
+        this.dispatcher = dispatcher;
+        this.writeThreshold = writeThreshold;
+        this.deliveryBatchSize = deliveryBatchSize;
+        for (int i = 0; i < ORDERING_STRIPES; i++) {
+            orderingStripes[i] = new Object();
+        }
+        for (FanOutStrategy strategy : FanOutStrategy.values()) {
+            messages.put(strategy, Counter.builder("chat.fanout.messages")
+                    .description("Messages fanned out, by strategy")
+                    .tag("strategy", strategy.name())
+                    .register(meterRegistry));
+        }
+        this.inboxWrites = Counter.builder("chat.fanout.inbox-writes")
+                .description("Inbox entries written by fan-out on write")
+                .register(meterRegistry);
+        this.deliveries = Counter.builder("chat.fanout.deliveries")
+                .description("WebSocket sessions a fanned-out message was queued on")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Choose the fan-out strategy for a conversation.
+     *
+     * @param conversation the conversation
+     * @return the strategy
+     */
+    public FanOutStrategy strategyFor(Conversation conversation) {
+        if (conversation.getType() == Conversation.ConversationType.DIRECT) {
+            return FanOutStrategy.WRITE;
+        }
+        return participants(conversation).size() <= writeThreshold ? FanOutStrategy.WRITE : FanOutStrategy.READ;
+    }
+
+    /**
+     * Send a message to the members of a conversation.
+     *
+     * @param conversation the conversation, with its participants
+     * @param message the message; its sequence number is assigned here
+     * @return a future that completes with the strategy used once the message is in the timeline
+     *         and, for fan-out on write, in every member's inbox; it fails if this node does not own
+     *         the conversation
+     */
+    public CompletableFuture<FanOutStrategy> publish(Conversation conversation, Message message) {
+        if (!conversation.getId().equals(message.getConversationId())) {
+            return CompletableFuture.failedFuture(
+                    new ChatAppException.BadRequestException("Message does not belong to the conversation"));
+        }
+        try {
+            ownership.checkOwner(conversation.getId());
+        } catch (ChatAppException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        FanOutStrategy strategy = strategyFor(conversation);
+        CompletableFuture<Void> appended;
+        // Numbering and queueing together keep the timeline in sequence order; append only encodes and enqueues
+        synchronized (orderingStripes[Math.floorMod(conversation.getId().hashCode(), ORDERING_STRIPES)]) {
+            long sequence;
+            try {
+                sequence = sequencer.next(conversation.getId());
+            } catch (ChatAppException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            message.setSequence(sequence);
+            appended = messageStore.append(message);
+            if (appended.isCompletedExceptionally()) {
+                // Rejected before it was queued, so no later message can follow it into the timeline
+                sequencer.release(conversation.getId(), sequence);
+                message.setSequence(0);
+            }
+        }
+        // Continue off the store's writer thread so that inbox writes do not delay its next batch
+        return appended.thenApplyAsync(ignored -> {
+            if (strategy == FanOutStrategy.WRITE) {
+                Set<UUID> members = participants(conversation);
+                inboxStore.append(members, new InboxEntry(conversation.getId(), message));
+                inboxWrites.increment(members.size());
+            }
+            messages.get(strategy).increment();
+            deliveryScheduler.schedule(() -> deliverToConnected(conversation, message));
+            return strategy;
+        }, fanOutExecutor);
+    }
+
+    /**
+     * Deliver a message that another node has published to the members connected to this node.
+     *
+     * @param conversation the conversation, with its participants
+     * @param message the numbered message
+     */
+    void deliverLocally(Conversation conversation, Message message) {
+        deliveryScheduler.schedule(() -> deliverToConnected(conversation, message));
+    }
+
+    private void deliverToConnected(Conversation conversation, Message message) {
+        Set<UUID> members = participants(conversation);
+        Set<UUID> connected = sessionRegistry.getConnectedUsers();
+        List<UUID> recipients = new ArrayList<>();
+        // Walk whichever side is smaller: the member list or the users connected to this node
+        Collection<UUID> smaller = members.size() <= connected.size() ? members : connected;
+        Set<UUID> larger = smaller == members ? connected : members;
+        for (UUID userId : smaller) {
+            if (larger.contains(userId)) {
+                recipients.add(userId);
+            }
+        }
+        if (recipients.isEmpty()) {
+            return;
+        }
+
+        String frame = dispatcher.encode(WebSocketMessage.builder()
+                .id(message.getId())
+                .type(WebSocketMessage.MessageType.MESSAGE)
+                .channel(MessageDispatcher.CONVERSATION_CHANNEL_PREFIX + conversation.getId())
+                .senderId(message.getSenderId())
+                .payload(message)
+                .timestamp(LocalDateTime.now())
+                .build());
+        if (frame == null) {
+            return;
+        }
+        for (int from = 0; from < recipients.size(); from += deliveryBatchSize) {
+            List<UUID> batch = recipients.subList(from, Math.min(from + deliveryBatchSize, recipients.size()));
+            if (from == 0) {
+                deliveries.increment(dispatcher.sendToUsers(batch, frame));
+            } else {
+                deliveryScheduler.schedule(() -> deliveries.increment(dispatcher.sendToUsers(batch, frame)));
+            }
+        }
+    }
+
+    private static Set<UUID> participants(Conversation conversation) {
+        return conversation.getParticipants() != null ? conversation.getParticipants() : Set.of();
+    }
+}
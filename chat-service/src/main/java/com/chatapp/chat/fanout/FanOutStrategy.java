@@ -0,0 +1,16 @@
+package com.chatapp.chat.fanout;
+
+/**
+ * How a conversation's messages reach its members.
+ */
+public enum FanOutStrategy {
+    /**
+     * The message is added to every member's inbox when it is sent.
+     */
+    WRITE,
+
+    /**
+     * The message is written once to the conversation timeline and members read it from there.
+     */
+    READ
+}
@@ -0,0 +1,13 @@
+package com.chatapp.chat.fanout;
+
+import com.chatapp.common.model.Conversation;
+import com.chatapp.common.model.Message;
+
+/**
+ * A send forwarded to the node that owns the conversation.
+ *
+ * @param conversation the conversation, with its participants
+ * @param message the message, without a sequence number
+ */
+public record ForwardedSend(Conversation conversation, Message message) {
+}
@@ -0,0 +1,58 @@
+package com.chatapp.chat.fanout;
+
+import com.chatapp.common.exception.ChatAppException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Internal endpoint through which other chat-service nodes hand this node the sends of
+ * conversations it owns. The gateway refuses {@code /internal/} paths, so only other nodes reach it.
+ */
+@RestController
+@RequiredArgsConstructor
+public class ForwardedSendController {
+
+    public static final String SEND_PATH = "/internal/conversations/{conversationId}/messages";
+    public static final String ERROR_CODE_HEADER = "X-Error-Code";
+
+    private final FanOutEngine fanOutEngine;
+
+    /**
+     * Publish a forwarded send. It is never forwarded again: if this node does not own the
+     * conversation, for example because the partition layout changed, the send fails with 421.
+     *
+     * @param conversationId the conversation ID
+     * @param send the forwarded send
+     * @return the assigned sequence number and the fan-out strategy used
+     */
+    @PostMapping(SEND_PATH)
+    public Mono<ForwardedSendResult> send(@PathVariable UUID conversationId, @RequestBody ForwardedSend send) {
+        if (send.conversation() == null || send.message() == null
+                || !conversationId.equals(send.conversation().getId())) {
+            return Mono.error(new ChatAppException.BadRequestException("Malformed forwarded send"));
+        }
+        return Mono.fromFuture(() -> fanOutEngine.publish(send.conversation(), send.message()))
+                .map(strategy -> new ForwardedSendResult(send.message().getSequence(), strategy));
+    }
+
+    /**
+     * Map application exceptions to a status and error code header.
+     *
+     * @param ex the exception
+     * @return the error response
+     */
+    @ExceptionHandler(ChatAppException.class)
+    public ResponseEntity<Void> handleChatAppException(ChatAppException ex) {
+        return ResponseEntity.status(ex.getStatusCode())
+                .header(ERROR_CODE_HEADER, ex.getErrorCode())
+                .build();
+    }
+}
@@ -0,0 +1,10 @@
+package com.chatapp.chat.fanout;
+
+/**
+ * The outcome of a forwarded send.
+ *
+ * @param sequence the sequence number the owning node assigned to the message
+ * @param strategy the fan-out strategy used
+ */
+public record ForwardedSendResult(long sequence, FanOutStrategy strategy) {
+}
@@ -0,0 +1,71 @@
+package com.chatapp.chat.fanout;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link InboxStore} holding the latest entries of recently active users in memory.
+ * Entries share the message instance rather than copying it, and each inbox keeps at most
+ * {@code capacity} entries; older history is read from the conversation timelines.
+ */
+public class InMemoryInboxStore implements InboxStore {
+
+    private final int capacity;
+    private final Cache<UUID, Inbox> inboxes;
+
+    public InMemoryInboxStore(int capacity, long maxUsers) {
+        this.capacity = capacity;
+        this.inboxes = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .build();
+    }
+
+    @Override
+    public void append(Collection<UUID> userIds, InboxEntry entry) {
+        for (UUID userId : userIds) {
+            inboxes.get(userId, id -> new Inbox(capacity)).add(entry);
+        }
+    }
+
+    @Override
+    public List<InboxEntry> findLatest(UUID userId, int limit) {
+        Inbox inbox = inboxes.getIfPresent(userId);
+        return inbox != null ? inbox.latest(limit) : List.of();
+    }
+
+    private static final class Inbox {
+        private final int capacity;
+        private final ArrayDeque<InboxEntry> entries;
+
+        private Inbox(int capacity) {
+            this.capacity = capacity;
+            this.entries = new ArrayDeque<>(Math.min(capacity, 16));
+        }
+
+        synchronized void add(InboxEntry entry) {
+            if (entries.size() == capacity) {
+                entries.pollFirst();
+            }
+            entries.addLast(entry);
+        }
+
+        synchronized List<InboxEntry> latest(int limit) {
+            int count = Math.min(limit, entries.size());
+            List<InboxEntry> latest = new ArrayList<>(count);
+            Iterator<InboxEntry> newestFirst = entries.descendingIterator();
+            for (int i = 0; i < count; i++) {
+                latest.add(newestFirst.next());
+            }
+            Collections.reverse(latest);
+            return latest;
+        }
+    }
+}
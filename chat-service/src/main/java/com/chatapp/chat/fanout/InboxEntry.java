@@ -0,0 +1,14 @@
+package com.chatapp.chat.fanout;
+
+import com.chatapp.common.model.Message;
+
+import java.util.UUID;
+
+/**
+ * A message as it appears in a member's inbox.
+ *
+ * @param conversationId the conversation the message was sent to
+ * @param message the message
+ */
+public record InboxEntry(UUID conversationId, Message message) {
+}
@@ -0,0 +1,28 @@
+package com.chatapp.chat.fanout;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-user inboxes for conversations delivered with {@link FanOutStrategy#WRITE}.
+ */
+public interface InboxStore {
+
+    /**
+     * Add an entry to the inboxes of several users.
+     *
+     * @param userIds the receiving users
+     * @param entry the entry
+     */
+    void append(Collection<UUID> userIds, InboxEntry entry);
+
+    /**
+     * Get the most recent entries of a user's inbox.
+     *
+     * @param userId the user ID
+     * @param limit the maximum number of entries
+     * @return the entries, oldest first
+     */
+    List<InboxEntry> findLatest(UUID userId, int limit);
+}
@@ -0,0 +1,117 @@
+package com.chatapp.chat.fanout;
+
+import com.chatapp.chat.sequence.ConversationOwnership;
+import com.chatapp.chat.sequence.PartitionGuard;
+import com.chatapp.common.exception.ChatAppException;
+import com.chatapp.common.model.Conversation;
+import com.chatapp.common.model.Message;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends messages from whichever node the sender is connected to.
+ *
+ * <p>Only the node that owns a conversation may number its messages (see
+ * {@link ConversationOwnership}), but the gateway places users on nodes by user ID. Sends of
+ * conversations owned by this node go straight to the {@link FanOutEngine}; any other send is
+ * forwarded to the owning node, found by the partition it advertises in the service registry, which
+ * numbers, stores and fans out the message. Members connected to this node then receive the message
+ * from here as well.
+ */
+@Slf4j
+@Component
+public class MessagePublisher {
+
+    private final FanOutEngine fanOutEngine;
+    private final ConversationOwnership ownership;
+    private final ObjectProvider<DiscoveryClient> discoveryClient;
+    private final WebClient webClient;
+    private final String serviceId;
+    private final Duration forwardTimeout;
+
+    public MessagePublisher(FanOutEngine fanOutEngine,
+                            ConversationOwnership ownership,
+                            ObjectProvider<DiscoveryClient> discoveryClient,
+                            WebClient.Builder webClientBuilder,
+                            @Value("${spring.application.name:chat-service}") String serviceId,
+                            @Value("${chat.sequence.forward-timeout:2s}") Duration forwardTimeout) {
+        this.fanOutEngine = fanOutEngine;
+        this.ownership = ownership;
+        this.discoveryClient = discoveryClient;
+        this.webClient = webClientBuilder.build();
+        this.serviceId = serviceId;
+        this.forwardTimeout = forwardTimeout;
+    }
+
+    /**
+     * Send a message to the members of a conversation.
+     *
+     * @param conversation the conversation, with its participants
+     * @param message the message; its sequence number is assigned by the owning node
+     * @return a future that completes with the strategy used once the owning node has stored the
+     *         message and, for fan-out on write, added it to every member's inbox
+     */
+    public CompletableFuture<FanOutStrategy> publish(Conversation conversation, Message message) {
+        if (ownership.owns(conversation.getId())) {
+            return fanOutEngine.publish(conversation, message);
+        }
+        return forward(conversation, message)
+                .doOnNext(result -> {
+                    message.setSequence(result.sequence());
+                    fanOutEngine.deliverLocally(conversation, message);
+                })
+                .map(ForwardedSendResult::strategy)
+                .toFuture();
+    }
+
+    private Mono<ForwardedSendResult> forward(Conversation conversation, Message message) {
+        int partition = ownership.partitionOf(conversation.getId());
+        ServiceInstance owner = findOwner(partition);
+        if (owner == null) {
+            return Mono.error(new ChatAppException.ServiceUnavailableException(
+                    "No node owns sequence partition " + partition));
+        }
+        return webClient.post()
+                .uri(owner.getUri() + ForwardedSendController.SEND_PATH, conversation.getId())
+                .bodyValue(new ForwardedSend(conversation, message))
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, response -> {
+                    String errorCode = response.headers().asHttpHeaders()
+                            .getFirst(ForwardedSendController.ERROR_CODE_HEADER);
+                    return Mono.error(new ChatAppException("Forwarded send to " + owner.getInstanceId() + " failed",
+                            errorCode != null ? errorCode : "FORWARD_FAILED", response.statusCode().value()));
+                })
+                .bodyToMono(ForwardedSendResult.class)
+                .timeout(forwardTimeout)
+                .onErrorMap(e -> !(e instanceof ChatAppException), e -> {
+                    log.warn("Failed to forward a send to {}", owner.getInstanceId(), e);
+                    return new ChatAppException.ServiceUnavailableException("Conversation owner unavailable");
+                });
+    }
+
+    private ServiceInstance findOwner(int partition) {
+        DiscoveryClient client = discoveryClient.getIfAvailable();
+        if (client == null) {
+            return null;
+        }
+        String advertised = String.valueOf(partition);
+        String partitions = String.valueOf(ownership.getPartitions());
+        for (ServiceInstance instance : client.getInstances(serviceId)) {
+            if (advertised.equals(instance.getMetadata().get(PartitionGuard.PARTITION_METADATA_KEY))
+                    && partitions.equals(instance.getMetadata().get(PartitionGuard.PARTITIONS_METADATA_KEY))) {
+                return instance;
+            }
+        }
+        return null;
+    }
+}
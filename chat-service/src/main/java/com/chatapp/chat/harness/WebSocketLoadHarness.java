@@ -0,0 +1,230 @@
+package com.chatapp.chat.harness;
+
+import com.chatapp.chat.ChatServiceApplication;
+import com.chatapp.chat.websocket.SessionRegistry;
+import com.chatapp.common.websocket.WebSocketMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process load harness for the WebSocket connection tier.
+ *
+ * <p>Starts chat-service on a random port, opens {@code connections} client sessions in pairs of
+ * users that message each other, and reports:
+ * <ul>
+ *   <li>connections established on the node and the heap retained per connection</li>
+ *   <li>messages per second, with each client keeping {@code window} messages in flight and
+ *       counting a message as done when its MESSAGE_DELIVERED acknowledgement arrives</li>
+ * </ul>
+ * Client and server share one JVM, so the heap figure includes both ends of every connection and
+ * is an upper bound for the server alone.
+ *
+ * <p>Usage: {@code WebSocketLoadHarness [connections] [messagesPerConnection] [window]}
+ */
+public final class WebSocketLoadHarness {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private WebSocketLoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int messagesPerConnection = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int window = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        new WebSocketLoadHarness().run(connections & ~1, messagesPerConnection, window);
+    }
+
+    private void run(int connections, int messagesPerConnection, int window) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ChatServiceApplication.class)
+                .properties(Map.of(
+                        "server.port", "0",
+                        "eureka.client.enabled", "false",
+                        "logging.level.com.chatapp", "INFO",
+                        "chat.store.directory", Files.createTempDirectory("chat-harness").toString(),
+                        "chat.sequence.directory", Files.createTempDirectory("chat-harness").toString(),
+                        "chat.websocket.outbound-queue-size", String.valueOf(Math.max(64, window * 4))))
+                .run();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String path = context.getEnvironment().getProperty("chat.websocket.path", "/ws/chat");
+            URI uri = URI.create("ws://localhost:" + port + path);
+            SessionRegistry registry = context.getBean(SessionRegistry.class);
+
+            ConnectionProvider provider = ConnectionProvider.builder("harness").maxConnections(connections).build();
+            ReactorNettyWebSocketClient client = new ReactorNettyWebSocketClient(HttpClient.create(provider));
+
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            long heapBefore = usedHeapAfterGc(memory);
+
+            List<UUID> users = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                users.add(UUID.randomUUID());
+            }
+
+            CountDownLatch connected = new CountDownLatch(connections);
+            CountDownLatch done = new CountDownLatch(connections);
+            Sinks.Empty<Void> start = Sinks.empty();
+            AtomicLong delivered = new AtomicLong();
+            List<Disposable> clients = new ArrayList<>(connections);
+
+            for (int i = 0; i < connections; i++) {
+                UUID self = users.get(i);
+                UUID peer = users.get(i ^ 1);
+                HttpHeaders headers = new HttpHeaders();
+                headers.set("X-User-ID", self.toString());
+                ClientSession session = new ClientSession(peer, messagesPerConnection, window, connected, done, delivered);
+                clients.add(client.execute(uri, headers, ws -> session.handle(ws, start.asMono())).subscribe());
+            }
+
+            if (!connected.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Only " + (connections - connected.getCount()) + " clients connected");
+            }
+            long heapConnected = usedHeapAfterGc(memory);
+            System.out.printf("Connections established: %d (server sees %d)%n",
+                    connections, registry.getConnectionCount());
+            System.out.printf("Heap per connection (client + server): %.1f KB%n",
+                    (heapConnected - heapBefore) / 1024.0 / connections);
+
+            long startNanos = System.nanoTime();
+            start.tryEmitEmpty();
+            if (!done.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out with " + done.getCount() + " clients still sending");
+            }
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            long total = (long) connections * messagesPerConnection;
+            System.out.printf("Messages: %d in %.2f s = %.0f msg/s (window %d, %d recipient deliveries)%n",
+                    total, seconds, total / seconds, window, delivered.get());
+
+            clients.forEach(Disposable::dispose);
+            provider.disposeLater().block(Duration.ofSeconds(10));
+        } finally {
+            context.close();
+        }
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * One client connection: CONNECT, wait for the start signal, then keep {@code window} messages
+     * to the peer in flight until all have been acknowledged.
+     */
+    private final class ClientSession {
+
+        private final UUID peer;
+        private final int messages;
+        private final int window;
+        private final CountDownLatch connected;
+        private final CountDownLatch done;
+        private final AtomicLong delivered;
+        private final Sinks.Many<String> outbound = Sinks.many().unicast().onBackpressureBuffer();
+        private int sent;
+        private int acked;
+
+        ClientSession(UUID peer, int messages, int window,
+                      CountDownLatch connected, CountDownLatch done, AtomicLong delivered) {
+            this.peer = peer;
+            this.messages = messages;
+            this.window = window;
+            this.connected = connected;
+            this.done = done;
+            this.delivered = delivered;
+        }
+
+        Mono<Void> handle(org.springframework.web.reactive.socket.WebSocketSession ws, Mono<Void> start) {
+            emit(WebSocketMessage.builder().type(WebSocketMessage.MessageType.CONNECT).build());
+            Mono<Void> input = ws.receive()
+                    .map(org.springframework.web.reactive.socket.WebSocketMessage::getPayloadAsText)
+                    .doOnNext(frame -> onFrame(frame, start))
+                    .then();
+            Mono<Void> output = ws.send(outbound.asFlux().map(ws::textMessage));
+            return Mono.zip(input, output).then();
+        }
+
+        private void onFrame(String frame, Mono<Void> start) {
+            WebSocketMessage message = read(frame);
+            switch (message.getType()) {
+                case CONNECT -> {
+                    connected.countDown();
+                    start.subscribe(null, null, this::sendWindow);
+                }
+                case MESSAGE_DELIVERED -> {
+                    delivered.addAndGet(((Number) message.getMetadata().get("sessions")).longValue());
+                    onAck();
+                }
+                case ERROR -> throw new IllegalStateException("Server error: " + message.getPayload());
+                default -> {
+                    // Messages from the peer only count through the peer's acknowledgements
+                }
+            }
+        }
+
+        private synchronized void sendWindow() {
+            while (sent < messages && sent - acked < window) {
+                sent++;
+                emit(WebSocketMessage.builder()
+                        .id(UUID.randomUUID())
+                        .type(WebSocketMessage.MessageType.MESSAGE)
+                        .channel("user:" + peer)
+                        .payload(Map.of("text", "message " + sent))
+                        .build());
+            }
+        }
+
+        private synchronized void onAck() {
+            acked++;
+            if (acked == messages) {
+                done.countDown();
+            } else {
+                sendWindow();
+            }
+        }
+
+        private synchronized void emit(WebSocketMessage message) {
+            try {
+                outbound.tryEmitNext(objectMapper.writeValueAsString(message));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private WebSocketMessage read(String frame) {
+            try {
+                return objectMapper.readValue(frame, WebSocketMessage.class);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.chatapp.chat.sequence;
+
+import com.chatapp.common.exception.ChatAppException;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Decides which chat-service node may number and store the messages of a conversation.
+ *
+ * <p>Sequence counters and the message log are local to a node, so every conversation must have a
+ * single writer. Conversations are split into {@code partitions} by ID, and each node owns exactly
+ * one partition, set by configuration. Sends for conversations owned by another node are forwarded
+ * to it rather than numbered a second time, and a node refuses all sends while another node claims
+ * its partition (see {@link PartitionGuard}). Changing the number of partitions moves conversations
+ * between nodes, so it needs their counters and logs to be moved with them.
+ */
+public class ConversationOwnership {
+
+    /**
+     * Status returned when a send reaches a node that does not own the conversation.
+     */
+    public static final int MISDIRECTED_REQUEST = 421;
+
+    @Getter
+    private final int partition;
+    @Getter
+    private final int partitions;
+    private volatile String conflict;
+
+    /**
+     * Create the ownership of one partition.
+     *
+     * @param partition the partition this node owns, from 0
+     * @param partitions the number of partitions, one per writing node
+     */
+    public ConversationOwnership(int partition, int partitions) {
+        if (partitions <= 0 || partition < 0 || partition >= partitions) {
+            throw new IllegalArgumentException("Invalid sequence partition " + partition + " of " + partitions);
+        }
+        this.partition = partition;
+        this.partitions = partitions;
+    }
+
+    /**
+     * Get the partition of a conversation.
+     *
+     * @param conversationId the conversation ID
+     * @return the partition
+     */
+    public int partitionOf(UUID conversationId) {
+        return Math.floorMod(conversationId.hashCode(), partitions);
+    }
+
+    /**
+     * Check if this node owns a conversation.
+     *
+     * @param conversationId the conversation ID
+     * @return true if this node numbers and stores the conversation's messages
+     */
+    public boolean owns(UUID conversationId) {
+        return partitionOf(conversationId) == partition;
+    }
+
+    /**
+     * Check that this node may write a conversation.
+     *
+     * @param conversationId the conversation ID
+     * @throws ChatAppException if another node owns the conversation, or another node claims this
+     *         node's partition
+     */
+    public void checkOwner(UUID conversationId) {
+        String claim = conflict;
+        if (claim != null) {
+            throw new ChatAppException.ServiceUnavailableException("Sequence partition " + partition
+                    + " is also claimed by " + claim);
+        }
+        int owner = partitionOf(conversationId);
+        if (owner != partition) {
+            throw new ChatAppException("Conversation belongs to sequence partition " + owner,
+                    "NOT_CONVERSATION_OWNER", MISDIRECTED_REQUEST);
+        }
+    }
+
+    /**
+     * Record whether another node claims this node's partition.
+     *
+     * @param claim the conflicting node, or null once no other node claims the partition
+     */
+    void setConflict(String claim) {
+        this.conflict = claim;
+    }
+}
@@ -0,0 +1,147 @@
+package com.chatapp.chat.sequence;
+
+import com.chatapp.common.exception.ChatAppException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Assigns dense, monotonically increasing sequence numbers per conversation, starting at 1.
+ *
+ * <p>Each conversation has a lock-free counter. Numbers are handed out from blocks of
+ * {@code blockSize} whose upper bound, the high-water mark, is made durable before the first
+ * number of the block is returned; only taking a new block locks, on one of {@code stripes} locks
+ * chosen by conversation, so a block reservation never holds up conversations on other stripes.
+ *
+ * <p>On a clean shutdown the exact last numbers are written, so numbering continues without a gap.
+ * After a crash numbering resumes above the recorded high-water mark: numbers are never reused,
+ * but up to one block per conversation is skipped.
+ *
+ * <p>Counters are local to this node, so each conversation must be numbered by a single node; see
+ * {@link ConversationOwnership}. Numbering stays dense only if callers assign and
+ * {@linkplain #release release} numbers of one conversation one at a time, as the fan-out engine does.
+ */
+@Slf4j
+public class ConversationSequencer implements Closeable {
+
+    private final int blockSize;
+    private final Object[] stripes;
+    private final HighWaterMarkLog highWaterMarks;
+    private final Map<UUID, Long> recovered;
+    private final Map<UUID, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Open the sequencer, recovering the high-water marks from a directory.
+     *
+     * @param directory the directory holding the high-water mark log
+     * @param blockSize the number of sequence numbers reserved per durable write
+     * @param stripes the number of locks that block reservations are spread over
+     * @throws IOException if the high-water marks cannot be read or written
+     */
+    public ConversationSequencer(Path directory, int blockSize, int stripes) throws IOException {
+        if (blockSize <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("Block size and stripes must be positive");
+        }
+        this.blockSize = blockSize;
+        this.stripes = new Object[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Object();
+        }
+        this.recovered = new HashMap<>();
+        this.highWaterMarks = HighWaterMarkLog.open(directory, recovered);
+    }
+
+    /**
+     * Assign the next sequence number of a conversation.
+     *
+     * @param conversationId the conversation ID
+     * @return the sequence number
+     * @throws ChatAppException.ServiceUnavailableException if a new block cannot be reserved
+     */
+    public long next(UUID conversationId) {
+        Counter counter = counters.computeIfAbsent(conversationId,
+                id -> new Counter(recovered.getOrDefault(id, 0L)));
+        long number = counter.last.incrementAndGet();
+        if (number <= counter.reserved) {
+            return number;
+        }
+
+        synchronized (stripes[Math.floorMod(conversationId.hashCode(), stripes.length)]) {
+            if (number > counter.reserved) {
+                long mark = number + blockSize - 1;
+                try {
+                    highWaterMarks.reserve(conversationId, mark);
+                } catch (IOException e) {
+                    counter.last.compareAndSet(number, number - 1);
+                    log.error("Failed to reserve sequence numbers for conversation {}", conversationId, e);
+                    throw new ChatAppException.ServiceUnavailableException("Sequence numbers unavailable");
+                }
+                counter.reserved = mark;
+            }
+        }
+        return number;
+    }
+
+    /**
+     * Give back the last number assigned in a conversation because the message it was assigned to
+     * was rejected, so that the next message takes it instead of leaving a gap.
+     * Has no effect once a later number has been assigned.
+     *
+     * @param conversationId the conversation ID
+     * @param number the number returned by the last call to {@link #next}
+     */
+    public void release(UUID conversationId, long number) {
+        Counter counter = counters.get(conversationId);
+        if (counter != null) {
+            counter.last.compareAndSet(number, number - 1);
+        }
+    }
+
+    /**
+     * Get the last sequence number assigned in a conversation.
+     *
+     * @param conversationId the conversation ID
+     * @return the last number, or 0 if none has been assigned since startup or recovered
+     */
+    public long current(UUID conversationId) {
+        Counter counter = counters.get(conversationId);
+        if (counter != null) {
+            return counter.last.get();
+        }
+        return recovered.getOrDefault(conversationId, 0L);
+    }
+
+    /**
+     * Record the exact last number of every conversation so that numbering continues without a gap.
+     * Must only be called once no more numbers are being assigned.
+     *
+     * @throws IOException if the high-water marks cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        Map<UUID, Long> marks = new HashMap<>(recovered);
+        counters.forEach((conversationId, counter) -> {
+            // A failed reservation leaves the counter above the durable mark; those numbers were not handed out
+            marks.put(conversationId, Math.min(counter.last.get(), counter.reserved));
+        });
+        highWaterMarks.close(marks);
+        log.info("Saved sequence numbers of {} conversations", marks.size());
+    }
+
+    private static final class Counter {
+        private final AtomicLong last;
+        private volatile long reserved;
+
+        private Counter(long start) {
+            this.last = new AtomicLong(start);
+            this.reserved = start;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.chatapp.chat.sequence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable log of per-conversation sequence high-water marks.
+ *
+ * <p>Each reservation appends a 28-byte record (conversation ID, high-water mark, CRC32C); the
+ * highest mark per conversation wins on load. Concurrent reservations share fsyncs: a caller whose
+ * record was covered by another caller's fsync returns without forcing again. The log is compacted
+ * to one record per conversation when it is opened and when it is closed.
+ */
+@Slf4j
+final class HighWaterMarkLog implements Closeable {
+
+    private static final String FILE_NAME = "sequences.log";
+    private static final int RECORD_SIZE = 28;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Object syncLock = new Object();
+    private long writtenPosition;
+    private volatile long syncedPosition;
+
+    private HighWaterMarkLog(Path file, FileChannel channel, long position) {
+        this.file = file;
+        this.channel = channel;
+        this.writtenPosition = position;
+        this.syncedPosition = position;
+    }
+
+    /**
+     * Load the high-water marks from a directory and open the log for appending, compacted.
+     *
+     * @param directory the directory holding the log
+     * @param marks receives the high-water mark of every conversation in the log
+     * @return the log
+     * @throws IOException if the log cannot be read or written
+     */
+    static HighWaterMarkLog open(Path directory, Map<UUID, Long> marks) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(FILE_NAME);
+        if (Files.exists(file)) {
+            load(file, marks);
+        }
+        writeSnapshot(file, marks);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        return new HighWaterMarkLog(file, channel, channel.size());
+    }
+
+    /**
+     * Durably record a high-water mark.
+     *
+     * @param conversationId the conversation ID
+     * @param mark the highest sequence number that may be handed out
+     * @throws IOException if the record cannot be written
+     */
+    void reserve(UUID conversationId, long mark) throws IOException {
+        ByteBuffer record = encode(conversationId, mark);
+        long end;
+        synchronized (this) {
+            long position = writtenPosition;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            writtenPosition = position;
+            end = position;
+        }
+        if (syncedPosition >= end) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedPosition >= end) {
+                return;
+            }
+            long target;
+            synchronized (this) {
+                target = writtenPosition;
+            }
+            channel.force(false);
+            syncedPosition = target;
+        }
+    }
+
+    /**
+     * Replace the log with one record per conversation and close it.
+     *
+     * @param marks the final high-water marks
+     * @throws IOException if the snapshot cannot be written
+     */
+    void close(Map<UUID, Long> marks) throws IOException {
+        synchronized (this) {
+            channel.close();
+            writeSnapshot(file, marks);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void load(Path file, Map<UUID, Long> marks) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096);
+            long records = 0;
+            long firstDamaged = -1;
+            // Damaged or partial records at the end are torn writes that were never synced, so their
+            // reservations were never used; damage followed by a valid record is not
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    long most = buffer.getLong();
+                    long least = buffer.getLong();
+                    long mark = buffer.getLong();
+                    if (buffer.getInt() != checksum(most, least, mark)) {
+                        if (firstDamaged < 0) {
+                            firstDamaged = records;
+                        }
+                    } else if (firstDamaged >= 0) {
+                        throw new IOException("Damaged sequence record " + firstDamaged + " in " + file);
+                    } else {
+                        marks.merge(new UUID(most, least), mark, Math::max);
+                    }
+                    records++;
+                }
+                buffer.compact();
+            }
+            if (firstDamaged >= 0) {
+                log.warn("Discarding {} torn sequence records at the end of {}", records - firstDamaged, file);
+                records = firstDamaged;
+            }
+            log.info("Loaded sequence high-water marks of {} conversations from {} records", marks.size(), records);
+        }
+    }
+
+    private static void writeSnapshot(Path file, Map<UUID, Long> marks) throws IOException {
+        Path snapshot = file.resolveSibling(FILE_NAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096);
+            for (Map.Entry<UUID, Long> entry : marks.entrySet()) {
+                if (buffer.remaining() < RECORD_SIZE) {
+                    drain(channel, buffer);
+                }
+                buffer.put(encode(entry.getKey(), entry.getValue()));
+            }
+            drain(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(snapshot, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static ByteBuffer encode(UUID conversationId, long mark) {
+        long most = conversationId.getMostSignificantBits();
+        long least = conversationId.getLeastSignificantBits();
+        return ByteBuffer.allocate(RECORD_SIZE)
+                .putLong(most)
+                .putLong(least)
+                .putLong(mark)
+                .putInt(checksum(most, least, mark))
+                .flip();
+    }
+
+    private static int checksum(long most, long least, long mark) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(24).putLong(most).putLong(least).putLong(mark).flip());
+        return (int) crc.getValue();
+    }
+}
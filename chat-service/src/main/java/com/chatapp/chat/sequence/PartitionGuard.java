@@ -0,0 +1,105 @@
+package com.chatapp.chat.sequence;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Watches the service registry for other chat-service nodes that claim this node's sequence
+ * partition, or that split conversations into a different number of partitions.
+ * Every node advertises its partition in its registry metadata; while a conflicting node is
+ * registered, {@link ConversationOwnership} refuses all sends on this node, so two nodes never
+ * number the same conversation. A node that starts before it has seen the registry can overlap for
+ * up to one registry refresh.
+ *
+ * <p>The default layout is a single partition, which only fits a single node. A node on that layout
+ * fails to start if another chat-service node is already registered, rather than refusing every
+ * send; give each node its own {@code chat.sequence.partition} instead.
+ */
+@Slf4j
+@Component
+public class PartitionGuard {
+
+    public static final String PARTITION_METADATA_KEY = "sequence-partition";
+    public static final String PARTITIONS_METADATA_KEY = "sequence-partitions";
+
+    private final ConversationOwnership ownership;
+    private final ObjectProvider<DiscoveryClient> discoveryClient;
+    private final ObjectProvider<Registration> registration;
+    private final String serviceId;
+    private final Duration checkInterval;
+    private Disposable checks;
+
+    public PartitionGuard(ConversationOwnership ownership,
+                          ObjectProvider<DiscoveryClient> discoveryClient,
+                          ObjectProvider<Registration> registration,
+                          @Value("${spring.application.name:chat-service}") String serviceId,
+                          @Value("${chat.sequence.owner-check-interval:10s}") Duration checkInterval) {
+        this.ownership = ownership;
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.serviceId = serviceId;
+        this.checkInterval = checkInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        String conflict = check();
+        if (conflict != null && ownership.getPartitions() == 1) {
+            throw new IllegalStateException("Another chat-service node (" + conflict + ") is registered, but this"
+                    + " node uses the single-partition default; set chat.sequence.partition and"
+                    + " chat.sequence.partitions on every node");
+        }
+        checks = Flux.interval(checkInterval, Schedulers.boundedElastic())
+                .subscribe(tick -> check(), error -> log.error("Sequence partition checks stopped", error));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (checks != null) {
+            checks.dispose();
+        }
+    }
+
+    private String check() {
+        DiscoveryClient client = discoveryClient.getIfAvailable();
+        Registration self = registration.getIfAvailable();
+        if (client == null || self == null) {
+            return null;
+        }
+
+        String conflict = null;
+        for (ServiceInstance instance : client.getInstances(serviceId)) {
+            if (Objects.equals(instance.getInstanceId(), self.getInstanceId())) {
+                continue;
+            }
+            Map<String, String> metadata = instance.getMetadata();
+            boolean samePartition = String.valueOf(ownership.getPartition()).equals(metadata.get(PARTITION_METADATA_KEY));
+            boolean otherLayout = !String.valueOf(ownership.getPartitions()).equals(metadata.get(PARTITIONS_METADATA_KEY));
+            if (samePartition || otherLayout) {
+                conflict = instance.getInstanceId();
+                break;
+            }
+        }
+
+        if (conflict != null) {
+            log.error("Node {} also claims sequence partition {} of {}; refusing sends",
+                    conflict, ownership.getPartition(), ownership.getPartitions());
+        }
+        ownership.setConflict(conflict);
+        return conflict;
+    }
+}
@@ -0,0 +1,130 @@
+package com.chatapp.chat.store;
+
+import java.util.Arrays;
+
+/**
+ * In-memory index of one conversation's records in the log.
+ *
+ * <p>Each record links to the previous record of its conversation, so walking back from the head
+ * reads only that conversation's records. To start a walk in the middle, the index keeps the
+ * sequence number and position of every {@code interval}-th record. Sequence numbers increase but
+ * may have gaps, so a checkpoint is found by binary search; reaching any message from it then
+ * takes at most {@code interval - 1} extra hops.
+ *
+ * <p>Only the log writer thread modifies the index. The count is written last, so a reader that
+ * reads the count first sees every checkpoint below it.
+ */
+final class ConversationIndex {
+
+    private final int interval;
+    private volatile long[] checkpointNumbers = new long[1];
+    private volatile long[] checkpointPositions = new long[1];
+    private volatile long head = -1;
+    private volatile long count;
+
+    // Writer thread only: state including appends that are not yet durable
+    long lastNumber;
+    long lastPosition = -1;
+    long nextRecord;
+
+    ConversationIndex(int interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Make a durable record visible to readers. Records must be published in order.
+     *
+     * @param record the record's ordinal within the conversation, from 0
+     * @param number the message's sequence number
+     * @param position the record position
+     */
+    void publish(long record, long number, long position) {
+        if (record % interval == 0) {
+            int slot = (int) (record / interval);
+            long[] numbers = checkpointNumbers;
+            long[] positions = checkpointPositions;
+            if (slot >= numbers.length) {
+                int length = Math.max(slot + 1, numbers.length * 2);
+                numbers = Arrays.copyOf(numbers, length);
+                positions = Arrays.copyOf(positions, length);
+            }
+            numbers[slot] = number;
+            positions[slot] = position;
+            checkpointPositions = positions;
+            checkpointNumbers = numbers;
+        }
+        head = position;
+        count = record + 1;
+    }
+
+    /**
+     * Get the number of published messages.
+     *
+     * @return the count
+     */
+    long count() {
+        return count;
+    }
+
+    /**
+     * Get the position of the newest published record.
+     *
+     * @return the position, or -1 if there is none
+     */
+    long head() {
+        return head;
+    }
+
+    /**
+     * Get the position from which to walk back to a message: the nearest checkpoint at or after it,
+     * or the head if there is none.
+     *
+     * @param number the sequence number
+     * @return the position of a record at or after the message
+     */
+    long seek(long number) {
+        int slot = firstCheckpointAtOrAfter(number);
+        return slot >= 0 ? checkpointPositions[slot] : head;
+    }
+
+    /**
+     * Get the position from which to walk back to the oldest {@code limit} messages after a
+     * sequence number: a checkpoint at least {@code limit} records past the first of them, or the
+     * head if there is none.
+     *
+     * @param number the sequence number
+     * @param limit the number of messages wanted
+     * @return the position of a record at or after the newest wanted message
+     */
+    long seekAfter(long number, int limit) {
+        int slot = firstCheckpointAtOrAfter(number + 1);
+        if (slot < 0) {
+            return head;
+        }
+        // The first message after the number is at most slot * interval records in
+        long last = (long) slot * interval + limit - 1;
+        long target = (last + interval - 1) / interval;
+        if (target * interval < count) {
+            return checkpointPositions[(int) target];
+        }
+        return head;
+    }
+
+    private int firstCheckpointAtOrAfter(long number) {
+        long published = count;
+        long[] numbers = checkpointNumbers;
+        int low = 0;
+        int high = (int) Math.min((published + interval - 1) / interval, numbers.length) - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (numbers[mid] >= number) {
+                found = mid;
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,197 @@
+package com.chatapp.chat.store;
+
+import com.chatapp.common.model.Message;
+import com.chatapp.common.rpc.ProtoReader;
+import com.chatapp.common.rpc.ProtoWriter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Protocol buffers encoding of the message model for the message store.
+ *
+ * <p>Equivalent schema:
+ * <pre>
+ * message Message {
+ *   bytes id = 1;  bytes conversation_id = 2;  bytes sender_id = 3;  MessageType type = 4;
+ *   string content = 5;  repeated Attachment attachments = 6;  repeated UserStatus status_by_user = 7;
+ *   sint64 sent_at = 8;  sint64 delivered_at = 9;  sint64 read_at = 10;  sint64 updated_at = 11;
+ *   bool edited = 12;  bool deleted = 13;  bytes reply_to_message_id = 14;  string metadata_json = 15;
+ *   sint64 sequence = 16;
+ * }
+ * message Attachment {
+ *   bytes id = 1;  string name = 2;  string url = 3;  string content_type = 4;  sint64 size = 5;
+ *   string thumbnail_url = 6;  sint64 width = 7;  sint64 height = 8;  sint64 duration = 9;
+ * }
+ * message UserStatus { bytes user_id = 1;  MessageStatus status = 2; }
+ * </pre>
+ * Conventions follow {@link com.chatapp.common.rpc.UserProtoCodec}, except that an unset date-time
+ * decodes to null. Metadata values are free-form, so the map is stored as JSON.
+ */
+public final class MessageCodec {
+
+    private static final ObjectMapper METADATA_MAPPER = JsonMapper.builder().findAndAddModules().build();
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private MessageCodec() {
+    }
+
+    /**
+     * Encode a message.
+     *
+     * @param message the message
+     * @return the encoded {@code Message}
+     * @throws IllegalArgumentException if the metadata cannot be serialized
+     */
+    public static byte[] encode(Message message) {
+        String content = message.getContent();
+        ProtoWriter writer = new ProtoWriter(96 + (content != null ? content.length() * 3 : 0))
+                .writeUuid(1, message.getId())
+                .writeUuid(2, message.getConversationId())
+                .writeUuid(3, message.getSenderId())
+                .writeEnum(4, message.getType())
+                .writeString(5, content);
+        if (message.getAttachments() != null) {
+            message.getAttachments().forEach(attachment -> writer.writeMessage(6, writeAttachment(attachment)));
+        }
+        if (message.getStatusByUser() != null) {
+            message.getStatusByUser().forEach((userId, status) -> writer.writeMessage(7, new ProtoWriter(24)
+                    .writeUuid(1, userId)
+                    .writeEnum(2, status)));
+        }
+        writer.writeSInt64(8, toMillis(message.getSentAt()))
+                .writeSInt64(9, toMillis(message.getDeliveredAt()))
+                .writeSInt64(10, toMillis(message.getReadAt()))
+                .writeSInt64(11, toMillis(message.getUpdatedAt()))
+                .writeBool(12, message.isEdited())
+                .writeBool(13, message.isDeleted())
+                .writeUuid(14, message.getReplyToMessageId())
+                .writeSInt64(16, message.getSequence());
+        if (message.getMetadata() != null && !message.getMetadata().isEmpty()) {
+            try {
+                writer.writeString(15, METADATA_MAPPER.writeValueAsString(message.getMetadata()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Message metadata is not serializable", e);
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decode a message.
+     *
+     * @param payload the encoded {@code Message}
+     * @return the message
+     * @throws IllegalArgumentException if the payload is malformed
+     */
+    public static Message decode(byte[] payload) {
+        Message message = new Message();
+        ProtoReader reader = new ProtoReader(payload);
+        for (int field = reader.nextField(); field != 0; field = reader.nextField()) {
+            switch (field) {
+                case 1 -> message.setId(reader.readUuid());
+                case 2 -> message.setConversationId(reader.readUuid());
+                case 3 -> message.setSenderId(reader.readUuid());
+                case 4 -> message.setType(reader.readEnum(Message.MessageType.values()));
+                case 5 -> message.setContent(reader.readString());
+                case 6 -> {
+                    if (message.getAttachments() == null) {
+                        message.setAttachments(new ArrayList<>());
+                    }
+                    message.getAttachments().add(readAttachment(reader.readMessage()));
+                }
+                case 7 -> {
+                    if (message.getStatusByUser() == null) {
+                        message.setStatusByUser(new HashMap<>());
+                    }
+                    readUserStatus(reader.readMessage(), message.getStatusByUser());
+                }
+                case 8 -> message.setSentAt(fromMillis(reader.readSInt64()));
+                case 9 -> message.setDeliveredAt(fromMillis(reader.readSInt64()));
+                case 10 -> message.setReadAt(fromMillis(reader.readSInt64()));
+                case 11 -> message.setUpdatedAt(fromMillis(reader.readSInt64()));
+                case 12 -> message.setEdited(reader.readBool());
+                case 13 -> message.setDeleted(reader.readBool());
+                case 14 -> message.setReplyToMessageId(reader.readUuid());
+                case 15 -> message.setMetadata(readMetadata(reader.readString()));
+                case 16 -> message.setSequence(reader.readSInt64());
+                default -> reader.skip();
+            }
+        }
+        return message;
+    }
+
+    private static ProtoWriter writeAttachment(Message.Attachment attachment) {
+        return new ProtoWriter(128)
+                .writeUuid(1, attachment.getId())
+                .writeString(2, attachment.getName())
+                .writeString(3, attachment.getUrl())
+                .writeString(4, attachment.getContentType())
+                .writeSInt64(5, attachment.getSize())
+                .writeString(6, attachment.getThumbnailUrl())
+                .writeSInt64(7, attachment.getWidth())
+                .writeSInt64(8, attachment.getHeight())
+                .writeSInt64(9, attachment.getDuration());
+    }
+
+    private static Message.Attachment readAttachment(ProtoReader reader) {
+        Message.Attachment attachment = new Message.Attachment();
+        for (int field = reader.nextField(); field != 0; field = reader.nextField()) {
+            switch (field) {
+                case 1 -> attachment.setId(reader.readUuid());
+                case 2 -> attachment.setName(reader.readString());
+                case 3 -> attachment.setUrl(reader.readString());
+                case 4 -> attachment.setContentType(reader.readString());
+                case 5 -> attachment.setSize(reader.readSInt64());
+                case 6 -> attachment.setThumbnailUrl(reader.readString());
+                case 7 -> attachment.setWidth((int) reader.readSInt64());
+                case 8 -> attachment.setHeight((int) reader.readSInt64());
+                case 9 -> attachment.setDuration((int) reader.readSInt64());
+                default -> reader.skip();
+            }
+        }
+        return attachment;
+    }
+
+    private static void readUserStatus(ProtoReader reader, Map<UUID, Message.MessageStatus> statusByUser) {
+        UUID userId = null;
+        Message.MessageStatus status = null;
+        for (int field = reader.nextField(); field != 0; field = reader.nextField()) {
+            switch (field) {
+                case 1 -> userId = reader.readUuid();
+                case 2 -> status = reader.readEnum(Message.MessageStatus.values());
+                default -> reader.skip();
+            }
+        }
+        if (userId != null) {
+            statusByUser.put(userId, status);
+        }
+    }
+
+    private static Map<String, Object> readMetadata(String json) {
+        try {
+            return METADATA_MAPPER.readValue(json, METADATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed message metadata", e);
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return millis != 0 ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC) : null;
+    }
+}
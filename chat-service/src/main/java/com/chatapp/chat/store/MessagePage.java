@@ -0,0 +1,33 @@
+package com.chatapp.chat.store;
+
+import com.chatapp.common.model.Message;
+
+import java.util.List;
+
+/**
+ * A page of conversation history, oldest message first.
+ *
+ * @param messages the messages
+ * @param cursor the sequence number of the oldest message in the page, to pass to
+ *        {@link MessageStore#findOlder}, or 0 if the conversation has no messages before the page
+ */
+public record MessagePage(List<Message> messages, long cursor) {
+
+    /**
+     * Create an empty page.
+     *
+     * @return a page without messages or older messages
+     */
+    public static MessagePage empty() {
+        return new MessagePage(List.of(), 0);
+    }
+
+    /**
+     * Check if the conversation has messages before this page.
+     *
+     * @return true if {@link MessageStore#findOlder} with this page's cursor can return messages
+     */
+    public boolean hasOlder() {
+        return cursor > 0;
+    }
+}
@@ -0,0 +1,57 @@
+package com.chatapp.chat.store;
+
+import com.chatapp.common.model.Message;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage for conversation message history.
+ *
+ * <p>Messages are identified within their conversation by {@link Message#getSequence()}, which
+ * must increase with every append to the conversation but may skip numbers. Pages are returned
+ * oldest first, and their cursor is the sequence number of the oldest message in the page, or 0
+ * if there are no older messages; passing it to {@link #findOlder} continues with the messages
+ * before it. {@link #findNewer} lets a client that has seen up to some sequence number catch up
+ * from there.
+ */
+public interface MessageStore {
+
+    /**
+     * Append a message to its conversation.
+     *
+     * @param message the message; its conversation ID and sequence number are required
+     * @return a future that completes once the message is durable and visible to reads; it fails
+     *         if the sequence number is not above that of the conversation's last message
+     */
+    CompletableFuture<Void> append(Message message);
+
+    /**
+     * Get the most recent messages of a conversation.
+     *
+     * @param conversationId the conversation ID
+     * @param limit the maximum number of messages
+     * @return the page, empty if the conversation has no messages
+     */
+    MessagePage findLatest(UUID conversationId, int limit);
+
+    /**
+     * Get the messages of a conversation that precede a cursor.
+     *
+     * @param conversationId the conversation ID
+     * @param cursor the cursor of a previous page
+     * @param limit the maximum number of messages
+     * @return the page, empty if there are no older messages
+     */
+    MessagePage findOlder(UUID conversationId, long cursor, int limit);
+
+    /**
+     * Get the oldest messages of a conversation with a sequence number above a given one.
+     *
+     * @param conversationId the conversation ID
+     * @param sequence the sequence number of the last message already seen, or 0 for none
+     * @param limit the maximum number of messages
+     * @return the page, empty if there are no newer messages
+     */
+    MessagePage findNewer(UUID conversationId, long sequence, int limit);
+}
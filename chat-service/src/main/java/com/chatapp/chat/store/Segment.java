@@ -0,0 +1,151 @@
+package com.chatapp.chat.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One file of the message log.
+ *
+ * <p>The file is allocated at its full capacity when created and mapped read-only once, so reads
+ * are plain memory accesses; writes go through the file channel. Positions in the log are the
+ * segment's base offset plus the offset within the file, and the file is named after its base
+ * offset. Unused space at the end of a segment is zero, which marks the end of its records.
+ */
+final class Segment implements Closeable {
+
+    static final String SUFFIX = ".log";
+
+    private final long baseOffset;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int writeOffset;
+
+    private Segment(long baseOffset, FileChannel channel, int capacity) throws IOException {
+        this.baseOffset = baseOffset;
+        this.capacity = capacity;
+        this.channel = channel;
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+    }
+
+    /**
+     * Create a new, empty segment.
+     *
+     * @param directory the log directory
+     * @param baseOffset the log position of the segment's first byte
+     * @param capacity the segment size in bytes
+     * @return the segment
+     * @throws IOException if the file cannot be created
+     */
+    static Segment create(Path directory, long baseOffset, int capacity) throws IOException {
+        Path file = directory.resolve(fileName(baseOffset));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(capacity);
+        }
+        return open(file);
+    }
+
+    /**
+     * Open an existing segment. Its write offset is 0 until recovery sets it.
+     *
+     * @param file the segment file
+     * @return the segment
+     * @throws IOException if the file cannot be opened
+     */
+    static Segment open(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        long baseOffset = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Segment too large: " + file);
+        }
+        return new Segment(baseOffset, channel, (int) size);
+    }
+
+    static String fileName(long baseOffset) {
+        return String.format("%020d%s", baseOffset, SUFFIX);
+    }
+
+    long getBaseOffset() {
+        return baseOffset;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    int getWriteOffset() {
+        return writeOffset;
+    }
+
+    void setWriteOffset(int writeOffset) {
+        this.writeOffset = writeOffset;
+    }
+
+    int remaining() {
+        return capacity - writeOffset;
+    }
+
+    int getInt(int offset) {
+        return buffer.getInt(offset);
+    }
+
+    long getLong(int offset) {
+        return buffer.getLong(offset);
+    }
+
+    void get(int offset, byte[] destination) {
+        buffer.get(offset, destination);
+    }
+
+    ByteBuffer slice(int offset, int length) {
+        return buffer.slice(offset, length);
+    }
+
+    /**
+     * Write bytes at the write offset and advance it.
+     *
+     * @param source the bytes to write
+     * @throws IOException if the write fails
+     */
+    void append(ByteBuffer source) throws IOException {
+        long position = writeOffset;
+        while (source.hasRemaining()) {
+            position += channel.write(source, position);
+        }
+        writeOffset = (int) position;
+    }
+
+    /**
+     * Overwrite everything from the write offset to the end with zeros.
+     *
+     * @throws IOException if the write fails
+     */
+    void clearTail() throws IOException {
+        ByteBuffer zeros = ByteBuffer.allocate(64 * 1024);
+        long position = writeOffset;
+        while (position < capacity) {
+            zeros.clear().limit((int) Math.min(zeros.capacity(), capacity - position));
+            while (zeros.hasRemaining()) {
+                position += channel.write(zeros, position);
+            }
+        }
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,464 @@
+package com.chatapp.chat.store;
+
+import com.chatapp.common.exception.ChatAppException;
+import com.chatapp.common.model.Message;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Embedded {@link MessageStore} on an append-only log of segment files.
+ *
+ * <p>Record layout, big-endian:
+ * <pre>
+ * int  length        bytes after the checksum
+ * int  checksum      CRC32C of the bytes after it
+ * long previous      position of the conversation's previous record, or -1
+ * long number        sequence number of the message
+ * long conversation  most significant bits of the conversation ID
+ * long conversation  least significant bits of the conversation ID
+ * byte[] payload     the message, see {@link MessageCodec}
+ * </pre>
+ *
+ * <p>A single writer thread takes appends from a bounded queue. It writes everything queued as
+ * one batch, forces it to disk once, and only then publishes the batch to the index and completes
+ * the callers' futures. Under load one fsync covers many messages.
+ *
+ * <p>Reads follow the links between a conversation's records through the memory-mapped segments,
+ * so a page costs one record read per message plus, for {@link #findOlder} and
+ * {@link #findNewer}, a few times {@code index-interval} header reads at most to reach the wanted
+ * messages (see {@link ConversationIndex}).
+ *
+ * <p>On startup every segment is scanned to rebuild the index. A torn write at the end of the
+ * newest segment is discarded; it was never acknowledged. Damage anywhere else stops the store
+ * from opening.
+ */
+@Slf4j
+public class SegmentedMessageStore implements MessageStore, Closeable {
+
+    private static final int HEADER_SIZE = 40;
+    private static final int CHECKSUMMED_OFFSET = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int indexInterval;
+    private final int maxBatchSize;
+    private final int maxPageSize;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Map<UUID, ConversationIndex> conversations = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingAppend> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile Exception failure;
+
+    // Writer thread only
+    private Segment active;
+    private ByteBuffer batchBuffer = ByteBuffer.allocate(64 * 1024);
+    private final CRC32C checksum = new CRC32C();
+
+    /**
+     * Open the store, creating the directory if needed and recovering existing segments.
+     *
+     * @param directory the directory holding the segment files
+     * @param segmentSize the size of each segment file in bytes
+     * @param indexInterval the number of messages between index checkpoints
+     * @param maxBatchSize the maximum number of messages written per fsync
+     * @param maxPendingAppends the maximum number of appends waiting for the writer
+     * @param maxPageSize the maximum number of messages returned per page
+     * @throws IOException if the segments cannot be opened or are damaged
+     */
+    public SegmentedMessageStore(Path directory,
+                                 int segmentSize,
+                                 int indexInterval,
+                                 int maxBatchSize,
+                                 int maxPendingAppends,
+                                 int maxPageSize) throws IOException {
+        if (segmentSize <= HEADER_SIZE || indexInterval <= 0) {
+            throw new IllegalArgumentException("Invalid segment size or index interval");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.indexInterval = indexInterval;
+        this.maxBatchSize = maxBatchSize;
+        this.maxPageSize = maxPageSize;
+        this.queue = new ArrayBlockingQueue<>(maxPendingAppends);
+
+        Files.createDirectories(directory);
+        recover();
+        if (active == null) {
+            active = Segment.create(directory, 0, segmentSize);
+            segments.put(0L, active);
+        }
+
+        this.writer = new Thread(this::runWriter, "message-store-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public CompletableFuture<Void> append(Message message) {
+        if (message.getConversationId() == null) {
+            return CompletableFuture.failedFuture(
+                    new ChatAppException.BadRequestException("Message has no conversation ID"));
+        }
+        if (message.getSequence() <= 0) {
+            return CompletableFuture.failedFuture(
+                    new ChatAppException.BadRequestException("Message has no sequence number"));
+        }
+        byte[] payload = MessageCodec.encode(message);
+        if (HEADER_SIZE + payload.length > segmentSize) {
+            return CompletableFuture.failedFuture(
+                    new ChatAppException.BadRequestException("Message too large: " + payload.length + " bytes"));
+        }
+        if (!running || failure != null) {
+            return CompletableFuture.failedFuture(
+                    new ChatAppException.ServiceUnavailableException("Message store is not accepting writes"));
+        }
+
+        PendingAppend append = new PendingAppend(message.getConversationId(), message.getSequence(), payload);
+        if (!queue.offer(append)) {
+            return CompletableFuture.failedFuture(
+                    new ChatAppException.ServiceUnavailableException("Message store write queue is full"));
+        }
+        return append.future;
+    }
+
+    @Override
+    public MessagePage findLatest(UUID conversationId, int limit) {
+        ConversationIndex index = conversations.get(conversationId);
+        if (index == null || index.head() < 0) {
+            return MessagePage.empty();
+        }
+        return readPage(index.head(), Long.MAX_VALUE, limit);
+    }
+
+    @Override
+    public MessagePage findOlder(UUID conversationId, long cursor, int limit) {
+        ConversationIndex index = conversations.get(conversationId);
+        if (index == null || cursor <= 0) {
+            return MessagePage.empty();
+        }
+        long target = cursor - 1;
+        long position = index.seek(target);
+        if (position < 0) {
+            return MessagePage.empty();
+        }
+        return readPage(position, target, limit);
+    }
+
+    @Override
+    public MessagePage findNewer(UUID conversationId, long sequence, int limit) {
+        ConversationIndex index = conversations.get(conversationId);
+        int size = Math.min(limit, maxPageSize);
+        if (index == null || size <= 0) {
+            return MessagePage.empty();
+        }
+
+        // Collect the positions after the sequence number reading headers only, newest first
+        List<Long> positions = new ArrayList<>();
+        long position = index.seekAfter(sequence, size);
+        while (position >= 0) {
+            Segment segment = segmentFor(position);
+            int offset = (int) (position - segment.getBaseOffset());
+            if (segment.getLong(offset + 16) <= sequence) {
+                break;
+            }
+            positions.add(position);
+            position = segment.getLong(offset + 8);
+        }
+        if (positions.isEmpty()) {
+            return MessagePage.empty();
+        }
+        // The oldest of them are at the end of the list
+        int count = Math.min(size, positions.size());
+        return readPage(positions.get(positions.size() - count), Long.MAX_VALUE, count);
+    }
+
+    /**
+     * Stop accepting appends, write the ones already queued and close the segment files.
+     *
+     * @throws IOException if a segment cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ChatAppException closed = new ChatAppException.ServiceUnavailableException("Message store is closed");
+        for (PendingAppend append = queue.poll(); append != null; append = queue.poll()) {
+            append.future.completeExceptionally(closed);
+        }
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+    }
+
+    private MessagePage readPage(long position, long newest, int limit) {
+        int size = Math.min(limit, maxPageSize);
+        if (size <= 0) {
+            return MessagePage.empty();
+        }
+
+        // Walk back to the newest wanted message reading headers only, then collect the page
+        long number = Long.MAX_VALUE;
+        while (position >= 0) {
+            Segment segment = segmentFor(position);
+            int offset = (int) (position - segment.getBaseOffset());
+            number = segment.getLong(offset + 16);
+            if (number <= newest) {
+                break;
+            }
+            position = segment.getLong(offset + 8);
+        }
+
+        List<Message> messages = new ArrayList<>(size);
+        while (position >= 0 && messages.size() < size) {
+            Segment segment = segmentFor(position);
+            int offset = (int) (position - segment.getBaseOffset());
+            byte[] payload = new byte[segment.getInt(offset) - (HEADER_SIZE - CHECKSUMMED_OFFSET)];
+            segment.get(offset + HEADER_SIZE, payload);
+            messages.add(MessageCodec.decode(payload));
+            number = segment.getLong(offset + 16);
+            position = segment.getLong(offset + 8);
+        }
+        if (messages.isEmpty()) {
+            return MessagePage.empty();
+        }
+        Collections.reverse(messages);
+        return new MessagePage(messages, position >= 0 ? number : 0);
+    }
+
+    private Segment segmentFor(long position) {
+        Map.Entry<Long, Segment> entry = segments.floorEntry(position);
+        if (entry == null) {
+            throw new IllegalStateException("No segment for log position " + position);
+        }
+        return entry.getValue();
+    }
+
+    private void runWriter() {
+        List<PendingAppend> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (failure == null) {
+                try {
+                    writeBatch(batch);
+                } catch (IOException | RuntimeException e) {
+                    failure = e;
+                    log.error("Message store write failed; rejecting further writes", failure);
+                }
+            }
+            if (failure != null) {
+                ChatAppException error = new ChatAppException.ServiceUnavailableException("Message store write failed");
+                batch.forEach(append -> append.future.completeExceptionally(error));
+            }
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<PendingAppend> batch) throws IOException {
+        List<Segment> written = new ArrayList<>(2);
+        long[] positions = new long[batch.size()];
+        long[] records = new long[batch.size()];
+        ConversationIndex[] indexes = new ConversationIndex[batch.size()];
+        batchBuffer.clear();
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingAppend append = batch.get(i);
+            int recordSize = HEADER_SIZE + append.payload.length;
+            if (recordSize > active.remaining() - batchBuffer.position()) {
+                // Only the last segment may have a torn tail, so the full one is made durable first
+                flush(written);
+                active.force();
+                written.remove(active);
+                rollSegment();
+            }
+            ensureBatchCapacity(recordSize);
+
+            ConversationIndex index = conversations.computeIfAbsent(
+                    append.conversationId, id -> new ConversationIndex(indexInterval));
+            if (append.number <= index.lastNumber) {
+                continue;
+            }
+            long position = active.getBaseOffset() + active.getWriteOffset() + batchBuffer.position();
+            writeRecord(append, index.lastPosition);
+
+            positions[i] = position;
+            records[i] = index.nextRecord;
+            indexes[i] = index;
+            index.lastPosition = position;
+            index.lastNumber = append.number;
+            index.nextRecord++;
+        }
+        flush(written);
+
+        for (Segment segment : written) {
+            segment.force();
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            PendingAppend append = batch.get(i);
+            if (indexes[i] == null) {
+                append.future.completeExceptionally(new ChatAppException.ConflictException(
+                        "Sequence number " + append.number + " is not above the conversation's last message"));
+                continue;
+            }
+            indexes[i].publish(records[i], append.number, positions[i]);
+            append.future.complete(null);
+        }
+    }
+
+    private void writeRecord(PendingAppend append, long previous) {
+        int start = batchBuffer.position();
+        batchBuffer.putInt(HEADER_SIZE - CHECKSUMMED_OFFSET + append.payload.length)
+                .putInt(0)
+                .putLong(previous)
+                .putLong(append.number)
+                .putLong(append.conversationId.getMostSignificantBits())
+                .putLong(append.conversationId.getLeastSignificantBits())
+                .put(append.payload);
+        checksum.reset();
+        checksum.update(batchBuffer.array(), start + CHECKSUMMED_OFFSET,
+                batchBuffer.position() - start - CHECKSUMMED_OFFSET);
+        batchBuffer.putInt(start + 4, (int) checksum.getValue());
+    }
+
+    private void flush(List<Segment> written) throws IOException {
+        if (batchBuffer.position() == 0) {
+            return;
+        }
+        batchBuffer.flip();
+        active.append(batchBuffer);
+        batchBuffer.clear();
+        if (!written.contains(active)) {
+            written.add(active);
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        long baseOffset = active.getBaseOffset() + active.getCapacity();
+        active = Segment.create(directory, baseOffset, segmentSize);
+        segments.put(baseOffset, active);
+        log.info("Rolled message log to segment {}", Segment.fileName(baseOffset));
+    }
+
+    private void ensureBatchCapacity(int recordSize) {
+        if (batchBuffer.remaining() < recordSize) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(batchBuffer.capacity() * 2, batchBuffer.position() + recordSize));
+            batchBuffer.flip();
+            larger.put(batchBuffer);
+            batchBuffer = larger;
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(file -> file.getFileName().toString().endsWith(Segment.SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        long records = 0;
+        for (int i = 0; i < files.size(); i++) {
+            Segment segment = Segment.open(files.get(i));
+            segments.put(segment.getBaseOffset(), segment);
+            int end = scan(segment);
+            segment.setWriteOffset(end);
+            boolean last = i == files.size() - 1;
+            if (last) {
+                // Records written out of order can leave stale bytes behind a zeroed hole, so clear
+                // everything past the last valid record before appending after it
+                if (segment.getCapacity() - end >= 4 && segment.getInt(end) != 0) {
+                    log.warn("Discarding torn write at offset {} of {}", end, files.get(i));
+                }
+                segment.clearTail();
+                segment.force();
+            } else if (segment.getCapacity() - end >= 4 && segment.getInt(end) != 0) {
+                throw new IOException("Damaged record at offset " + end + " of " + files.get(i));
+            }
+            active = segment;
+        }
+        for (ConversationIndex index : conversations.values()) {
+            records += index.count();
+        }
+        if (!files.isEmpty()) {
+            log.info("Recovered {} messages in {} conversations from {} segments",
+                    records, conversations.size(), files.size());
+        }
+    }
+
+    private int scan(Segment segment) {
+        int offset = 0;
+        while (segment.getCapacity() - offset >= HEADER_SIZE) {
+            int length = segment.getInt(offset);
+            if (length < HEADER_SIZE - CHECKSUMMED_OFFSET
+                    || length > segment.getCapacity() - offset - CHECKSUMMED_OFFSET) {
+                break;
+            }
+            checksum.reset();
+            checksum.update(segment.slice(offset + CHECKSUMMED_OFFSET, length));
+            if ((int) checksum.getValue() != segment.getInt(offset + 4)) {
+                break;
+            }
+
+            long position = segment.getBaseOffset() + offset;
+            long number = segment.getLong(offset + 16);
+            UUID conversationId = new UUID(segment.getLong(offset + 24), segment.getLong(offset + 32));
+            ConversationIndex index = conversations.computeIfAbsent(
+                    conversationId, id -> new ConversationIndex(indexInterval));
+            if (number <= index.lastNumber || segment.getLong(offset + 8) != index.lastPosition) {
+                break;
+            }
+            index.publish(index.nextRecord, number, position);
+            index.lastPosition = position;
+            index.lastNumber = number;
+            index.nextRecord++;
+            offset += CHECKSUMMED_OFFSET + length;
+        }
+        return offset;
+    }
+
+    private static final class PendingAppend {
+        private final UUID conversationId;
+        private final long number;
+        private final byte[] payload;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingAppend(UUID conversationId, long number, byte[] payload) {
+            this.conversationId = conversationId;
+            this.number = number;
+            this.payload = payload;
+        }
+    }
+}
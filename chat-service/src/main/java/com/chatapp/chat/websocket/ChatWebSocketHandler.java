@@ -0,0 +1,186 @@
+package com.chatapp.chat.websocket;
+
+import com.chatapp.common.websocket.WebSocketMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * WebSocket handler speaking the {@link WebSocketMessage} protocol.
+ *
+ * <p>The user is identified by the {@code X-User-ID} header that the API gateway adds after
+ * verifying the client's token; the gateway drops any such header sent by the client and refuses
+ * unauthenticated upgrades, so this node must only be reachable through the gateway. A client
+ * starts with CONNECT, keeps the session alive with HEARTBEAT and ends it with DISCONNECT. MESSAGE
+ * and typing frames addressed to a {@code user:<uuid>} channel are delivered to that user's
+ * sessions on this node and to the sender's other devices; the sender receives MESSAGE_DELIVERED
+ * with the number of sessions reached.
+ */
+@Slf4j
+@Component
+public class ChatWebSocketHandler implements WebSocketHandler {
+
+    private static final String USER_ID_HEADER = "X-User-ID";
+
+    private final SessionRegistry sessionRegistry;
+    private final MessageDispatcher dispatcher;
+    private final ObjectMapper objectMapper;
+    private final int outboundQueueSize;
+    private final Duration heartbeatTimeout;
+    private final Map<WebSocketMessage.MessageType, Counter> framesIn = new EnumMap<>(WebSocketMessage.MessageType.class);
+
+    public ChatWebSocketHandler(SessionRegistry sessionRegistry,
+                                MessageDispatcher dispatcher,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${chat.websocket.outbound-queue-size:64}") int outboundQueueSize,
+                                @Value("${chat.websocket.heartbeat-timeout:90s}") Duration heartbeatTimeout) {
+        this.sessionRegistry = sessionRegistry;
+        this.dispatcher = dispatcher;
+        this.objectMapper = objectMapper;
+        this.outboundQueueSize = outboundQueueSize;
+        this.heartbeatTimeout = heartbeatTimeout;
+        for (WebSocketMessage.MessageType type : WebSocketMessage.MessageType.values()) {
+            framesIn.put(type, Counter.builder("chat.websocket.frames")
+                    .description("WebSocket frames received and sent by this node")
+                    .tag("direction", "in")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        UUID userId = parseUserId(session.getHandshakeInfo().getHeaders().getFirst(USER_ID_HEADER));
+        if (userId == null) {
+            return session.close(CloseStatus.POLICY_VIOLATION.withReason("Unauthenticated"));
+        }
+
+        ConnectedSession connected = new ConnectedSession(session, userId, outboundQueueSize);
+        sessionRegistry.register(connected);
+
+        Mono<Void> input = session.receive()
+                .map(org.springframework.web.reactive.socket.WebSocketMessage::getPayloadAsText)
+                .doOnNext(frame -> onFrame(connected, frame))
+                .then();
+        Mono<Void> output = session.send(connected.outbound().map(session::textMessage));
+
+        return Mono.zip(input.doFinally(signal -> connected.close(CloseStatus.NORMAL)), output)
+                .then()
+                .doFinally(signal -> sessionRegistry.unregister(connected));
+    }
+
+    private void onFrame(ConnectedSession session, String frame) {
+        WebSocketMessage message;
+        try {
+            message = objectMapper.readValue(frame, WebSocketMessage.class);
+        } catch (JsonProcessingException e) {
+            sendError(session, null, "Malformed frame");
+            return;
+        }
+        if (message.getType() == null) {
+            sendError(session, message.getId(), "Missing frame type");
+            return;
+        }
+        framesIn.get(message.getType()).increment();
+        session.touch();
+
+        if (!session.isEstablished() && message.getType() != WebSocketMessage.MessageType.CONNECT) {
+            sendError(session, message.getId(), "CONNECT required");
+            return;
+        }
+
+        switch (message.getType()) {
+            case CONNECT -> onConnect(session, message);
+            case HEARTBEAT -> dispatcher.send(session, reply(WebSocketMessage.MessageType.HEARTBEAT, message.getId()));
+            case DISCONNECT -> session.close(CloseStatus.NORMAL);
+            case MESSAGE -> onMessage(session, message);
+            case TYPING_START, TYPING_STOP -> relay(session, message);
+            default -> sendError(session, message.getId(), "Unsupported frame type: " + message.getType());
+        }
+    }
+
+    private void onConnect(ConnectedSession session, WebSocketMessage message) {
+        session.establish();
+        WebSocketMessage ack = reply(WebSocketMessage.MessageType.CONNECT, message.getId());
+        ack.setMetadata(Map.of(
+                "sessionId", session.getId(),
+                "heartbeatTimeoutSeconds", heartbeatTimeout.toSeconds()));
+        dispatcher.send(session, ack);
+        log.debug("WebSocket session {} established for user {}", session.getId(), session.getUserId());
+    }
+
+    private void onMessage(ConnectedSession session, WebSocketMessage message) {
+        UUID recipient = MessageDispatcher.userOf(message.getChannel());
+        if (recipient == null) {
+            sendError(session, message.getId(), "Unsupported channel: " + message.getChannel());
+            return;
+        }
+        WebSocketMessage outbound = stamp(session, message);
+        int delivered = dispatcher.sendToUser(recipient, outbound, session);
+        if (!recipient.equals(session.getUserId())) {
+            delivered += dispatcher.sendToUser(session.getUserId(), outbound, session);
+        }
+
+        WebSocketMessage ack = reply(WebSocketMessage.MessageType.MESSAGE_DELIVERED, outbound.getId());
+        ack.setChannel(message.getChannel());
+        ack.setMetadata(Map.of("sessions", delivered));
+        dispatcher.send(session, ack);
+    }
+
+    private void relay(ConnectedSession session, WebSocketMessage message) {
+        UUID recipient = MessageDispatcher.userOf(message.getChannel());
+        if (recipient != null) {
+            dispatcher.sendToUser(recipient, stamp(session, message), session);
+        }
+    }
+
+    private static WebSocketMessage stamp(ConnectedSession session, WebSocketMessage message) {
+        // The sender is always the authenticated user, whatever the client put in the frame
+        return WebSocketMessage.builder()
+                .id(message.getId() != null ? message.getId() : UUID.randomUUID())
+                .type(message.getType())
+                .channel(message.getChannel())
+                .senderId(session.getUserId())
+                .payload(message.getPayload())
+                .timestamp(LocalDateTime.now())
+                .metadata(message.getMetadata())
+                .build();
+    }
+
+    private void sendError(ConnectedSession session, UUID messageId, String reason) {
+        WebSocketMessage error = reply(WebSocketMessage.MessageType.ERROR, messageId);
+        error.setPayload(Map.of("reason", reason));
+        dispatcher.send(session, error);
+    }
+
+    private static WebSocketMessage reply(WebSocketMessage.MessageType type, UUID messageId) {
+        return WebSocketMessage.builder()
+                .id(messageId)
+                .type(type)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private static UUID parseUserId(String value) {
+        try {
+            return value != null ? UUID.fromString(value) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
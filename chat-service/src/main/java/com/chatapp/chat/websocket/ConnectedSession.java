@@ -0,0 +1,118 @@
+package com.chatapp.chat.websocket;
+
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A client WebSocket connection as seen by the connection tier.
+ * Outbound frames wait in a bounded queue allocated once when the session opens, so every session
+ * costs a small, fixed amount of memory however many messages it receives. A client that falls so
+ * far behind that the queue fills up is disconnected and resynchronizes when it reconnects.
+ */
+public final class ConnectedSession {
+
+    private final WebSocketSession session;
+    private final UUID userId;
+    private final Sinks.Many<String> outbound;
+    private volatile long lastSeenNanos;
+    private volatile boolean established;
+    private volatile boolean closed;
+
+    public ConnectedSession(WebSocketSession session, UUID userId, int queueSize) {
+        this.session = session;
+        this.userId = userId;
+        this.outbound = Sinks.many().unicast().onBackpressureBuffer(new ArrayBlockingQueue<>(queueSize));
+        this.lastSeenNanos = System.nanoTime();
+    }
+
+    public String getId() {
+        return session.getId();
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    /**
+     * Check if the client has completed the CONNECT exchange.
+     *
+     * @return true if the session is established
+     */
+    public boolean isEstablished() {
+        return established;
+    }
+
+    /**
+     * Check if the session has not been closed by the server.
+     *
+     * @return true if the session is open
+     */
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Mark the session as established after a CONNECT frame.
+     */
+    public void establish() {
+        established = true;
+        touch();
+    }
+
+    /**
+     * Record activity from the client.
+     */
+    public void touch() {
+        lastSeenNanos = System.nanoTime();
+    }
+
+    /**
+     * Get the time of the client's last activity.
+     *
+     * @return the last activity as a {@link System#nanoTime()} value
+     */
+    public long getLastSeenNanos() {
+        return lastSeenNanos;
+    }
+
+    /**
+     * Queue a frame for the client.
+     * Callers on different threads are serialized here; the sink itself allows only one emitter at a time.
+     *
+     * @param frame the encoded frame
+     * @return true if the frame was queued, false if the queue is full or the session is closed
+     */
+    public synchronized boolean send(String frame) {
+        return outbound.tryEmitNext(frame).isSuccess();
+    }
+
+    /**
+     * Get the frames queued for the client, for the session's single writer.
+     *
+     * @return the outbound frames
+     */
+    public Flux<String> outbound() {
+        return outbound.asFlux();
+    }
+
+    /**
+     * Close the connection.
+     *
+     * @param status the close status sent to the client
+     */
+    public void close(CloseStatus status) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            outbound.tryEmitComplete();
+        }
+        session.close(status).subscribe();
+    }
+}
@@ -0,0 +1,65 @@
+package com.chatapp.chat.websocket;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+/**
+ * Closes sessions whose client has gone silent.
+ * One periodic sweep checks every session instead of giving each session its own timer, which keeps
+ * the per-session footprint down to a timestamp.
+ */
+@Slf4j
+@Component
+public class HeartbeatMonitor {
+
+    private static final CloseStatus HEARTBEAT_TIMEOUT = CloseStatus.GOING_AWAY.withReason("Heartbeat timeout");
+
+    private final SessionRegistry sessionRegistry;
+    private final Duration heartbeatTimeout;
+    private final Duration sweepInterval;
+    private Disposable sweeps;
+
+    public HeartbeatMonitor(SessionRegistry sessionRegistry,
+                            @Value("${chat.websocket.heartbeat-timeout:90s}") Duration heartbeatTimeout,
+                            @Value("${chat.websocket.sweep-interval:15s}") Duration sweepInterval) {
+        this.sessionRegistry = sessionRegistry;
+        this.heartbeatTimeout = heartbeatTimeout;
+        this.sweepInterval = sweepInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        sweeps = Flux.interval(sweepInterval, Schedulers.boundedElastic())
+                .subscribe(tick -> sweep(), error -> log.error("Heartbeat sweep stopped", error));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweeps != null) {
+            sweeps.dispose();
+        }
+    }
+
+    private void sweep() {
+        long cutoff = System.nanoTime() - heartbeatTimeout.toNanos();
+        int closed = 0;
+        for (ConnectedSession session : sessionRegistry.getAllSessions()) {
+            if (session.getLastSeenNanos() - cutoff < 0) {
+                session.close(HEARTBEAT_TIMEOUT);
+                closed++;
+            }
+        }
+        if (closed > 0) {
+            log.debug("Closed {} WebSocket sessions without a heartbeat", closed);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.chatapp.chat.websocket;
+
+import com.chatapp.common.websocket.WebSocketMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Delivers frames to the sessions connected to this node.
+ * A frame is encoded once and the same string is queued on every receiving session.
+ */
+@Slf4j
+@Component
+public class MessageDispatcher {
+
+    /**
+     * Channel prefix addressing all sessions of one user, e.g. {@code user:<uuid>}.
+     */
+    public static final String USER_CHANNEL_PREFIX = "user:";
+
+    /**
+     * Channel prefix addressing the members of a conversation, e.g. {@code conversation:<uuid>}.
+     */
+    public static final String CONVERSATION_CHANNEL_PREFIX = "conversation:";
+
+    private static final CloseStatus SLOW_CONSUMER = CloseStatus.POLICY_VIOLATION.withReason("Slow consumer");
+
+    private final SessionRegistry sessionRegistry;
+    private final ObjectMapper objectMapper;
+    private final Counter framesOut;
+    private final Counter slowConsumers;
+
+    public MessageDispatcher(SessionRegistry sessionRegistry, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.sessionRegistry = sessionRegistry;
+        this.objectMapper = objectMapper;
+        this.framesOut = Counter.builder("chat.websocket.frames")
+                .description("WebSocket frames received and sent by this node")
+                .tag("direction", "out")
+                .register(meterRegistry);
+        this.slowConsumers = Counter.builder("chat.websocket.slow-consumers")
+                .description("Sessions closed because their outbound queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Send a frame to one session.
+     *
+     * @param session the session
+     * @param message the frame
+     * @return true if the frame was queued
+     */
+    public boolean send(ConnectedSession session, WebSocketMessage message) {
+        String frame = encode(message);
+        return frame != null && send(session, frame);
+    }
+
+    /**
+     * Send a frame to every session of a user on this node, except one.
+     *
+     * @param userId the receiving user
+     * @param message the frame
+     * @param except a session to skip, usually the sender's own, or null
+     * @return the number of sessions the frame was queued on
+     */
+    public int sendToUser(UUID userId, WebSocketMessage message, ConnectedSession except) {
+        String frame = null;
+        int delivered = 0;
+        for (ConnectedSession session : sessionRegistry.getSessions(userId)) {
+            if (session == except) {
+                continue;
+            }
+            if (frame == null) {
+                frame = encode(message);
+                if (frame == null) {
+                    return 0;
+                }
+            }
+            if (send(session, frame)) {
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Send an encoded frame to every session of several users on this node.
+     *
+     * @param userIds the receiving users
+     * @param frame the frame, encoded with {@link #encode}
+     * @return the number of sessions the frame was queued on
+     */
+    public int sendToUsers(Collection<UUID> userIds, String frame) {
+        int delivered = 0;
+        for (UUID userId : userIds) {
+            for (ConnectedSession session : sessionRegistry.getSessions(userId)) {
+                if (send(session, frame)) {
+                    delivered++;
+                }
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Encode a frame once for delivery to many sessions.
+     *
+     * @param message the frame
+     * @return the encoded frame, or null if it cannot be encoded
+     */
+    public String encode(WebSocketMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to encode WebSocket frame of type {}", message.getType(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Parse the user addressed by a user channel.
+     *
+     * @param channel the channel
+     * @return the user ID, or null if the channel does not address a user
+     */
+    public static UUID userOf(String channel) {
+        if (channel == null || !channel.startsWith(USER_CHANNEL_PREFIX)) {
+            return null;
+        }
+        try {
+            return UUID.fromString(channel.substring(USER_CHANNEL_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean send(ConnectedSession session, String frame) {
+        if (session.send(frame)) {
+            framesOut.increment();
+            return true;
+        }
+        if (session.isOpen()) {
+            slowConsumers.increment();
+            log.debug("Closing slow WebSocket session {} of user {}", session.getId(), session.getUserId());
+            session.close(SLOW_CONSUMER);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,117 @@
+package com.chatapp.chat.websocket;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of the WebSocket sessions connected to this node, indexed by user.
+ * A user's sessions are kept in a small array that is replaced on every change, so delivery
+ * iterates without locking; connects and disconnects are rare next to deliveries.
+ */
+@Component
+public class SessionRegistry {
+
+    private static final ConnectedSession[] NO_SESSIONS = new ConnectedSession[0];
+
+    private final Map<UUID, ConnectedSession[]> sessionsByUser = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    public SessionRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder("chat.websocket.connections", connections, AtomicInteger::get)
+                .description("WebSocket connections open on this node")
+                .register(meterRegistry);
+        Gauge.builder("chat.websocket.users", sessionsByUser, Map::size)
+                .description("Users with at least one WebSocket connection on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Add a session.
+     *
+     * @param session the session
+     */
+    public void register(ConnectedSession session) {
+        sessionsByUser.compute(session.getUserId(), (userId, sessions) -> {
+            ConnectedSession[] current = sessions != null ? sessions : NO_SESSIONS;
+            ConnectedSession[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = session;
+            return updated;
+        });
+        connections.incrementAndGet();
+    }
+
+    /**
+     * Remove a session.
+     *
+     * @param session the session
+     */
+    public void unregister(ConnectedSession session) {
+        sessionsByUser.computeIfPresent(session.getUserId(), (userId, sessions) -> {
+            ConnectedSession[] updated = Arrays.stream(sessions)
+                    .filter(candidate -> candidate != session)
+                    .toArray(ConnectedSession[]::new);
+            if (updated.length < sessions.length) {
+                connections.decrementAndGet();
+            }
+            return updated.length > 0 ? updated : null;
+        });
+    }
+
+    /**
+     * Get the established sessions of a user on this node.
+     *
+     * @param userId the user ID
+     * @return the sessions, empty if the user is not connected here
+     */
+    public List<ConnectedSession> getSessions(UUID userId) {
+        ConnectedSession[] sessions = sessionsByUser.getOrDefault(userId, NO_SESSIONS);
+        List<ConnectedSession> established = new ArrayList<>(sessions.length);
+        for (ConnectedSession session : sessions) {
+            if (session.isEstablished()) {
+                established.add(session);
+            }
+        }
+        return established;
+    }
+
+    /**
+     * Get the users with at least one session on this node.
+     *
+     * @return a live view of the user IDs
+     */
+    public Set<UUID> getConnectedUsers() {
+        return Collections.unmodifiableSet(sessionsByUser.keySet());
+    }
+
+    /**
+     * Get all sessions on this node.
+     *
+     * @return a snapshot of the sessions
+     */
+    public Collection<ConnectedSession> getAllSessions() {
+        List<ConnectedSession> all = new ArrayList<>(connections.get());
+        sessionsByUser.values().forEach(sessions -> all.addAll(Arrays.asList(sessions)));
+        return all;
+    }
+
+    /**
+     * Get the number of open sessions on this node.
+     *
+     * @return the session count
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+}
@@ -0,0 +1,123 @@
+package com.chatapp.common.deadline;
+
+import com.chatapp.common.exception.ChatAppException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The point in time after which nobody is waiting for the result of the current request.
+ *
+ * <p>The gateway sends the time the caller is still willing to wait in the
+ * {@value #TIMEOUT_HEADER} header. A relative timeout is used instead of a timestamp, so clocks of
+ * different hosts need not agree. {@link RequestDeadlineFilter} turns the header into a deadline
+ * bound to the request thread; services check it before starting expensive work, and executors can
+ * carry it to their worker threads with {@link #propagate(Runnable)}.
+ */
+public final class RequestDeadline {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private RequestDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Create a deadline the given time from now.
+     *
+     * @param timeout the time left
+     * @return the deadline
+     */
+    public static RequestDeadline after(Duration timeout) {
+        return new RequestDeadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Get the deadline of the request handled by the current thread.
+     *
+     * @return the deadline, or empty if the request has none
+     */
+    public static Optional<RequestDeadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Fail if the current request's deadline has passed.
+     *
+     * @throws ChatAppException.DeadlineExceededException if the deadline has passed
+     */
+    public static void checkCurrent() {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.check();
+        }
+    }
+
+    /**
+     * Wrap a task so that it runs with the deadline of the thread that created it.
+     * Usable as a Spring {@code TaskDecorator}.
+     *
+     * @param task the task
+     * @return the wrapped task, or the task itself if there is no current deadline
+     */
+    public static Runnable propagate(Runnable task) {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            RequestDeadline previous = CURRENT.get();
+            CURRENT.set(deadline);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    static void bind(RequestDeadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Get the time left until the deadline.
+     *
+     * @return the remaining time, negative once the deadline has passed
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * Check if the deadline has passed.
+     *
+     * @return true if the deadline has passed
+     */
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Fail if the deadline has passed.
+     *
+     * @throws ChatAppException.DeadlineExceededException if the deadline has passed
+     */
+    public void check() {
+        if (isExpired()) {
+            throw new ChatAppException.DeadlineExceededException("Request deadline exceeded");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.chatapp.common.deadline;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Servlet filter that binds the deadline sent in the {@value RequestDeadline#TIMEOUT_HEADER}
+ * header to the request thread. Requests whose caller has already given up are answered with
+ * 504 without being handled.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(RequestDeadline.TIMEOUT_HEADER);
+        if (header == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long timeoutMillis;
+        try {
+            timeoutMillis = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring malformed {} header: {}", RequestDeadline.TIMEOUT_HEADER, header);
+            chain.doFilter(request, response);
+            return;
+        }
+        if (timeoutMillis <= 0) {
+            log.debug("Skipping {} {}, deadline already exceeded", request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+            return;
+        }
+
+        RequestDeadline.bind(RequestDeadline.after(Duration.ofMillis(timeoutMillis)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.unbind();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.chatapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cursor-based pagination response.
+ * Unlike {@link PageResponse} it carries no total count, so producing it never requires counting
+ * the matching rows, and the next page is found from the {@code nextCursor} continuation token
+ * instead of an offset, so every page costs the same however deep it is.
+ *
+ * @param <T> the type of items in the page
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+
+    /**
+     * Create a CursorPage from the result of a query that fetched up to {@code size + 1} items.
+     * The extra item only signals that another page exists and is not returned.
+     *
+     * @param fetched the fetched items, in page order
+     * @param size the page size
+     * @param cursorOf the function creating the continuation token from the last item of the page
+     * @param <T> the type of the fetched items
+     * @return a CursorPage
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, String> cursorOf) {
+        boolean hasNext = fetched.size() > size;
+        List<T> content = hasNext ? fetched.subList(0, size) : fetched;
+        return CursorPage.<T>builder()
+                .content(content)
+                .size(size)
+                .nextCursor(hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    /**
+     * Convert the items of this page, keeping its cursor.
+     *
+     * @param mapper the conversion
+     * @param <R> the type of the converted items
+     * @return the converted page
+     */
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return CursorPage.<R>builder()
+                .content(content.stream().map(mapper).toList())
+                .size(size)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.chatapp.common.dto;
+
+import com.chatapp.common.exception.ChatAppException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+/**
+ * Encoding of the opaque continuation tokens of {@link CursorPage}.
+ * A token holds the sort key of the last item of a page as a list of strings, URL-safe Base64
+ * encoded. Clients must pass tokens back unchanged; their content is not part of the API.
+ */
+public final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    /**
+     * Encode a sort key as a continuation token.
+     *
+     * @param parts the components of the sort key
+     * @return the token
+     */
+    public static String encode(String... parts) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(parts.length);
+            for (String part : parts) {
+                out.writeUTF(part);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decode a continuation token.
+     *
+     * @param token the token
+     * @param expectedParts the number of sort key components
+     * @return the components of the sort key
+     * @throws ChatAppException.BadRequestException if the token is malformed
+     */
+    public static String[] decode(String token, int expectedParts) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (in.readUnsignedByte() != expectedParts) {
+                throw new ChatAppException.BadRequestException("Invalid page cursor");
+            }
+            String[] parts = new String[expectedParts];
+            for (int i = 0; i < expectedParts; i++) {
+                parts[i] = in.readUTF();
+            }
+            return parts;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ChatAppException.BadRequestException("Invalid page cursor");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.chatapp.common.event;
+
+import com.chatapp.common.model.User;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A change to a user, as carried on the user-events and user-status topics.
+ * Events are deltas: apart from the user ID and username, a field is set only if the change
+ * affected it, and a null field means "unchanged". Contacts, blocks and settings are never
+ * included; consumers that need them read the user from the user service.
+ *
+ * <p>Encoded with {@link UserEventCodec}.
+ */
+@Value
+@Builder
+public class UserChangeEvent {
+    Type type;
+    UUID userId;
+    long timestamp;
+    String username;
+    String email;
+    String displayName;
+    String profilePictureUrl;
+    User.UserStatus status;
+    LocalDateTime lastSeen;
+
+    /**
+     * Create an event carrying every scalar field of a user, e.g. for registrations.
+     *
+     * @param type the event type
+     * @param user the user
+     * @return the event
+     */
+    public static UserChangeEvent snapshot(Type type, User user) {
+        return UserChangeEvent.builder()
+                .type(type)
+                .userId(user.getId())
+                .timestamp(System.currentTimeMillis())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .displayName(user.getDisplayName())
+                .profilePictureUrl(user.getProfilePictureUrl())
+                .status(user.getStatus())
+                .lastSeen(user.getLastSeen())
+                .build();
+    }
+
+    /**
+     * User event types. Codes are part of the wire format and must never be reused.
+     */
+    public enum Type {
+        REGISTERED(1),
+        UPDATED(2),
+        DELETED(3),
+        INVALIDATED(4),
+        STATUS_CHANGED(5);
+
+        private final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        /**
+         * Get the wire code of this type.
+         *
+         * @return the code
+         */
+        public byte getCode() {
+            return code;
+        }
+
+        /**
+         * Look up a type by its wire code.
+         *
+         * @param code the code
+         * @return the type
+         * @throws IllegalArgumentException if the code is unknown
+         */
+        public static Type fromCode(byte code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown user event type code: " + code);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.chatapp.common.event;
+
+import com.chatapp.common.model.User;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Binary codec for {@link UserChangeEvent}, shared by producers and consumers.
+ *
+ * <p>Layout (big-endian):
+ * <pre>
+ * magic (1) | version (1) | type (1) | userId (16) | timestamp millis (8) | field*
+ * field = tag (1) | length (varint) | value
+ * </pre>
+ * Strings and the status name are UTF-8; lastSeen is epoch millis (8 bytes) of the local date-time
+ * read as UTC. Absent fields are not written. Decoders skip tags they do not know, so fields can be
+ * added with new tags without changing the version; the version changes only if the fixed header
+ * does, and decoders reject versions they do not support.
+ */
+public final class UserEventCodec {
+
+    public static final byte MAGIC = (byte) 0xCE;
+    public static final byte VERSION = 1;
+
+    private static final int HEADER_SIZE = 1 + 1 + 1 + 16 + 8;
+    private static final int USER_ID_OFFSET = 3;
+
+    private static final byte TAG_USERNAME = 1;
+    private static final byte TAG_EMAIL = 2;
+    private static final byte TAG_DISPLAY_NAME = 3;
+    private static final byte TAG_PROFILE_PICTURE_URL = 4;
+    private static final byte TAG_STATUS = 5;
+    private static final byte TAG_LAST_SEEN = 6;
+
+    private UserEventCodec() {
+    }
+
+    /**
+     * Encode an event.
+     *
+     * @param event the event
+     * @return the encoded bytes
+     */
+    public static byte[] encode(UserChangeEvent event) {
+        byte[] username = utf8(event.getUsername());
+        byte[] email = utf8(event.getEmail());
+        byte[] displayName = utf8(event.getDisplayName());
+        byte[] profilePictureUrl = utf8(event.getProfilePictureUrl());
+        byte[] status = event.getStatus() != null ? utf8(event.getStatus().name()) : null;
+
+        int size = HEADER_SIZE
+                + fieldSize(username) + fieldSize(email) + fieldSize(displayName)
+                + fieldSize(profilePictureUrl) + fieldSize(status)
+                + (event.getLastSeen() != null ? 2 + Long.BYTES : 0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(MAGIC)
+                .put(VERSION)
+                .put(event.getType().getCode())
+                .putLong(event.getUserId().getMostSignificantBits())
+                .putLong(event.getUserId().getLeastSignificantBits())
+                .putLong(event.getTimestamp());
+        putField(buffer, TAG_USERNAME, username);
+        putField(buffer, TAG_EMAIL, email);
+        putField(buffer, TAG_DISPLAY_NAME, displayName);
+        putField(buffer, TAG_PROFILE_PICTURE_URL, profilePictureUrl);
+        putField(buffer, TAG_STATUS, status);
+        if (event.getLastSeen() != null) {
+            buffer.put(TAG_LAST_SEEN);
+            putVarint(buffer, Long.BYTES);
+            buffer.putLong(event.getLastSeen().toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decode an event.
+     *
+     * @param payload the encoded bytes
+     * @return the event
+     * @throws IllegalArgumentException if the payload is not a supported user event
+     */
+    public static UserChangeEvent decode(byte[] payload) {
+        ByteBuffer buffer = readHeader(payload);
+        try {
+            UserChangeEvent.UserChangeEventBuilder event = UserChangeEvent.builder()
+                    .type(UserChangeEvent.Type.fromCode(buffer.get()))
+                    .userId(new UUID(buffer.getLong(), buffer.getLong()))
+                    .timestamp(buffer.getLong());
+
+            while (buffer.hasRemaining()) {
+                byte tag = buffer.get();
+                int length = getVarint(buffer);
+                if (length < 0 || length > buffer.remaining()) {
+                    throw new IllegalArgumentException("Truncated user event field: " + tag);
+                }
+                switch (tag) {
+                    case TAG_USERNAME -> event.username(getString(buffer, length));
+                    case TAG_EMAIL -> event.email(getString(buffer, length));
+                    case TAG_DISPLAY_NAME -> event.displayName(getString(buffer, length));
+                    case TAG_PROFILE_PICTURE_URL -> event.profilePictureUrl(getString(buffer, length));
+                    case TAG_STATUS -> event.status(parseStatus(getString(buffer, length)));
+                    case TAG_LAST_SEEN -> {
+                        if (length != Long.BYTES) {
+                            throw new IllegalArgumentException("Malformed user event field: " + tag);
+                        }
+                        event.lastSeen(LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()), ZoneOffset.UTC));
+                    }
+                    default -> buffer.position(buffer.position() + length);
+                }
+            }
+            return event.build();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated user event", e);
+        }
+    }
+
+    /**
+     * Read only the user ID of an encoded event, without decoding its fields.
+     *
+     * @param payload the encoded bytes
+     * @return the user ID
+     * @throws IllegalArgumentException if the payload is not a supported user event
+     */
+    public static UUID readUserId(byte[] payload) {
+        readHeader(payload);
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        return new UUID(buffer.getLong(USER_ID_OFFSET), buffer.getLong(USER_ID_OFFSET + Long.BYTES));
+    }
+
+    private static ByteBuffer readHeader(byte[] payload) {
+        if (payload == null || payload.length < HEADER_SIZE || payload[0] != MAGIC) {
+            throw new IllegalArgumentException("Not a user event");
+        }
+        if (payload[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported user event version: " + payload[1]);
+        }
+        return ByteBuffer.wrap(payload, 2, payload.length - 2).slice();
+    }
+
+    private static User.UserStatus parseStatus(String name) {
+        try {
+            return User.UserStatus.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            // A status added by a newer producer; treat as unchanged
+            return null;
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String getString(ByteBuffer buffer, int length) {
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int fieldSize(byte[] value) {
+        return value != null ? 1 + varintSize(value.length) + value.length : 0;
+    }
+
+    private static void putField(ByteBuffer buffer, byte tag, byte[] value) {
+        if (value != null) {
+            buffer.put(tag);
+            putVarint(buffer, value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in user event");
+    }
+}
@@ -76,6 +76,15 @@ public class ChatAppException extends RuntimeException {
         }
     }
 
+    /**
+     * Deadline exceeded exception, for work the caller is no longer waiting for.
+     */
+    public static class DeadlineExceededException extends ChatAppException {
+        public DeadlineExceededException(String message) {
+            super(message, "DEADLINE_EXCEEDED", 504);
+        }
+    }
+
     /**
      * Internal server error exception.
      */
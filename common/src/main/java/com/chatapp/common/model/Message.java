@@ -21,6 +21,7 @@ import java.util.UUID;
 public class Message {
     private UUID id;
     private UUID conversationId;
+    private long sequence; // Dense per-conversation order, starting at 1; 0 until assigned
     private UUID senderId;
     private MessageType type;
     private String content;
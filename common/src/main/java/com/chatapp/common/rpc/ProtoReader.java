@@ -0,0 +1,167 @@
+package com.chatapp.common.rpc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Minimal reader for the protocol buffers wire format, the counterpart of {@link ProtoWriter}.
+ * Fields are read in a loop of {@link #nextField()} and one of the typed reads; fields the caller
+ * does not know are passed to {@link #skip()}, so newer senders can add fields.
+ */
+public final class ProtoReader {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+    private int wireType;
+
+    public ProtoReader(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    private ProtoReader(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     * Advance to the next field.
+     *
+     * @return the field number, or 0 at the end of the message
+     * @throws IllegalArgumentException if the message is malformed
+     */
+    public int nextField() {
+        if (position >= limit) {
+            return 0;
+        }
+        long tag = readRawVarint();
+        wireType = (int) (tag & 0x7);
+        int field = (int) (tag >>> 3);
+        if (field <= 0) {
+            throw new IllegalArgumentException("Invalid field number: " + field);
+        }
+        return field;
+    }
+
+    /**
+     * Read the current field as a boolean.
+     *
+     * @return the value
+     */
+    public boolean readBool() {
+        return readRawVarint() != 0;
+    }
+
+    /**
+     * Read the current field as an enum written by {@link ProtoWriter#writeEnum}.
+     *
+     * @param values the enum constants
+     * @param <E> the enum type
+     * @return the constant, or null for an unset or unknown value
+     */
+    public <E extends Enum<E>> E readEnum(E[] values) {
+        long value = readRawVarint();
+        return value >= 1 && value <= values.length ? values[(int) value - 1] : null;
+    }
+
+    /**
+     * Read the current field as a zigzag-encoded {@code sint64}.
+     *
+     * @return the value
+     */
+    public long readSInt64() {
+        long value = readRawVarint();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Read the current field as a UTF-8 string.
+     *
+     * @return the value
+     */
+    public String readString() {
+        int length = readLength();
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    /**
+     * Read the current field as a 16-byte UUID.
+     *
+     * @return the value
+     */
+    public UUID readUuid() {
+        int length = readLength();
+        if (length != 16) {
+            throw new IllegalArgumentException("Invalid UUID length: " + length);
+        }
+        UUID value = new UUID(getLong(position), getLong(position + 8));
+        position += 16;
+        return value;
+    }
+
+    /**
+     * Read the current field as an embedded message.
+     *
+     * @return a reader over the embedded message
+     */
+    public ProtoReader readMessage() {
+        int length = readLength();
+        ProtoReader message = new ProtoReader(buffer, position, length);
+        position += length;
+        return message;
+    }
+
+    /**
+     * Skip the current field.
+     */
+    public void skip() {
+        switch (wireType) {
+            case ProtoWriter.WIRE_VARINT -> readRawVarint();
+            case ProtoWriter.WIRE_FIXED64 -> advance(8);
+            case ProtoWriter.WIRE_LENGTH_DELIMITED -> advance(readLength());
+            case 5 -> advance(4);
+            default -> throw new IllegalArgumentException("Unsupported wire type: " + wireType);
+        }
+    }
+
+    private int readLength() {
+        long length = readRawVarint();
+        if (length < 0 || length > limit - position) {
+            throw new IllegalArgumentException("Truncated field");
+        }
+        return (int) length;
+    }
+
+    private void advance(int bytes) {
+        if (bytes > limit - position) {
+            throw new IllegalArgumentException("Truncated field");
+        }
+        position += bytes;
+    }
+
+    private long readRawVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position >= limit) {
+                throw new IllegalArgumentException("Truncated varint");
+            }
+            byte b = buffer[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private long getLong(int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
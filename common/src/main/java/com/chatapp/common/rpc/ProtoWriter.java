@@ -0,0 +1,175 @@
+package com.chatapp.common.rpc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Minimal writer for the protocol buffers wire format.
+ * Supports the varint, 64-bit and length-delimited wire types, which is all the internal RPC
+ * messages need. Fields with default values are not written, as in proto3.
+ */
+public final class ProtoWriter {
+
+    static final int WIRE_VARINT = 0;
+    static final int WIRE_FIXED64 = 1;
+    static final int WIRE_LENGTH_DELIMITED = 2;
+
+    private byte[] buffer;
+    private int position;
+
+    public ProtoWriter() {
+        this(64);
+    }
+
+    public ProtoWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * Write a boolean field.
+     *
+     * @param field the field number
+     * @param value the value; false is not written
+     * @return this writer
+     */
+    public ProtoWriter writeBool(int field, boolean value) {
+        if (value) {
+            writeTag(field, WIRE_VARINT);
+            writeRawVarint(1);
+        }
+        return this;
+    }
+
+    /**
+     * Write an enum field as its ordinal plus one, so that zero means unset.
+     *
+     * @param field the field number
+     * @param value the value; null is not written
+     * @return this writer
+     */
+    public ProtoWriter writeEnum(int field, Enum<?> value) {
+        if (value != null) {
+            writeTag(field, WIRE_VARINT);
+            writeRawVarint(value.ordinal() + 1);
+        }
+        return this;
+    }
+
+    /**
+     * Write a signed 64-bit field with zigzag encoding ({@code sint64}).
+     *
+     * @param field the field number
+     * @param value the value; zero is not written
+     * @return this writer
+     */
+    public ProtoWriter writeSInt64(int field, long value) {
+        if (value != 0) {
+            writeTag(field, WIRE_VARINT);
+            writeRawVarint((value << 1) ^ (value >> 63));
+        }
+        return this;
+    }
+
+    /**
+     * Write a string field.
+     *
+     * @param field the field number
+     * @param value the value; null is not written
+     * @return this writer
+     */
+    public ProtoWriter writeString(int field, String value) {
+        if (value != null) {
+            writeBytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+        return this;
+    }
+
+    /**
+     * Write a UUID as a 16-byte {@code bytes} field.
+     *
+     * @param field the field number
+     * @param value the value; null is not written
+     * @return this writer
+     */
+    public ProtoWriter writeUuid(int field, UUID value) {
+        if (value != null) {
+            writeTag(field, WIRE_LENGTH_DELIMITED);
+            writeRawVarint(16);
+            ensureCapacity(16);
+            putLong(value.getMostSignificantBits());
+            putLong(value.getLeastSignificantBits());
+        }
+        return this;
+    }
+
+    /**
+     * Write a {@code bytes} field.
+     *
+     * @param field the field number
+     * @param value the value; null is not written
+     * @return this writer
+     */
+    public ProtoWriter writeBytes(int field, byte[] value) {
+        if (value != null) {
+            writeTag(field, WIRE_LENGTH_DELIMITED);
+            writeRawVarint(value.length);
+            ensureCapacity(value.length);
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+        }
+        return this;
+    }
+
+    /**
+     * Write an embedded message field.
+     *
+     * @param field the field number
+     * @param message the encoded message; null is not written
+     * @return this writer
+     */
+    public ProtoWriter writeMessage(int field, ProtoWriter message) {
+        if (message != null) {
+            writeTag(field, WIRE_LENGTH_DELIMITED);
+            writeRawVarint(message.position);
+            ensureCapacity(message.position);
+            System.arraycopy(message.buffer, 0, buffer, position, message.position);
+            position += message.position;
+        }
+        return this;
+    }
+
+    /**
+     * Get the bytes written so far.
+     *
+     * @return a copy of the encoded bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void writeTag(int field, int wireType) {
+        writeRawVarint(((long) field << 3) | wireType);
+    }
+
+    private void writeRawVarint(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void putLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
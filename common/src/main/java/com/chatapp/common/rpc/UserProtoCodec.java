@@ -0,0 +1,244 @@
+package com.chatapp.common.rpc;
+
+import com.chatapp.common.model.User;
+import com.chatapp.common.model.UserSettings;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Protocol buffers encoding of the user model for the internal user RPC.
+ *
+ * <p>Equivalent schema:
+ * <pre>
+ * message User {
+ *   bytes id = 1;  string username = 2;  string email = 3;  string display_name = 4;
+ *   string profile_picture_url = 5;  UserStatus status = 6;
+ *   sint64 last_seen = 7;  sint64 created_at = 8;  sint64 updated_at = 9;
+ *   repeated bytes contacts = 10;  repeated bytes blocked_users = 11;  UserSettings settings = 12;
+ * }
+ * message UserSettings {
+ *   bool read_receipts = 1;  bool typing_indicators = 2;  bool push_notifications = 3;
+ *   bool email_notifications = 4;  bool sound_notifications = 5;  NotificationLevel notification_level = 6;
+ *   PrivacyLevel privacy_level = 7;  ThemePreference theme = 8;  string language = 9;
+ * }
+ * message UserList { repeated User users = 1; }
+ * message UserIds { repeated bytes ids = 1; }
+ * message StatusUpdate { bytes user_id = 1; UserStatus status = 2; }
+ * </pre>
+ * UUIDs are 16 big-endian bytes. Date-times are epoch milliseconds of the local date-time read as
+ * UTC. Enums are numbered by ordinal plus one, so new constants must only be appended.
+ */
+public final class UserProtoCodec {
+
+    private UserProtoCodec() {
+    }
+
+    /**
+     * Status change sent to the user service.
+     *
+     * @param userId the user ID
+     * @param status the new status
+     */
+    public record StatusUpdate(UUID userId, User.UserStatus status) {
+    }
+
+    /**
+     * Encode a list of users.
+     *
+     * @param users the users
+     * @return the encoded {@code UserList}
+     */
+    public static byte[] encodeUsers(Collection<User> users) {
+        ProtoWriter writer = new ProtoWriter(256 * Math.max(1, users.size()));
+        for (User user : users) {
+            writer.writeMessage(1, writeUser(user));
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decode a list of users.
+     *
+     * @param payload the encoded {@code UserList}
+     * @return the users
+     * @throws IllegalArgumentException if the payload is malformed
+     */
+    public static List<User> decodeUsers(byte[] payload) {
+        List<User> users = new ArrayList<>();
+        ProtoReader reader = new ProtoReader(payload);
+        for (int field = reader.nextField(); field != 0; field = reader.nextField()) {
+            if (field == 1) {
+                users.add(readUser(reader.readMessage()));
+            } else {
+                reader.skip();
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Encode a list of user IDs.
+     *
+     * @param userIds the user IDs
+     * @return the encoded {@code UserIds}
+     */
+    public static byte[] encodeIds(Collection<UUID> userIds) {
+        ProtoWriter writer = new ProtoWriter(18 * Math.max(1, userIds.size()));
+        for (UUID userId : userIds) {
+            writer.writeUuid(1, userId);
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decode a list of user IDs.
+     *
+     * @param payload the encoded {@code UserIds}
+     * @return the user IDs
+     * @throws IllegalArgumentException if the payload is malformed
+     */
+    public static List<UUID> decodeIds(byte[] payload) {
+        List<UUID> userIds = new ArrayList<>();
+        ProtoReader reader = new ProtoReader(payload);
+        for (int field = reader.nextField(); field != 0; field = reader.nextField()) {
+            if (field == 1) {
+                userIds.add(reader.readUuid());
+            } else {
+                reader.skip();
+            }
+        }
+        return userIds;
+    }
+
+    /**
+     * Encode a status update.
+     *
+     * @param update the status update
+     * @return the encoded {@code StatusUpdate}
+     */
+    public static byte[] encodeStatusUpdate(StatusUpdate update) {
+        return new ProtoWriter(24)
+                .writeUuid(1, update.userId())
+                .writeEnum(2, update.status())
+                .toByteArray();
+    }
+
+    /**
+     * Decode a status update.
+     *
+     * @param payload the encoded {@code StatusUpdate}
+     * @return the status update
+     * @throws IllegalArgumentException if the payload is malformed or incomplete
+     */
+    public static StatusUpdate decodeStatusUpdate(byte[] payload) {
+        UUID userId = null;
+        User.UserStatus status = null;
+        ProtoReader reader = new ProtoReader(payload);
+        for (int field = reader.nextField(); field != 0; field = reader.nextField()) {
+            switch (field) {
+                case 1 -> userId = reader.readUuid();
+                case 2 -> status = reader.readEnum(User.UserStatus.values());
+                default -> reader.skip();
+            }
+        }
+        if (userId == null || status == null) {
+            throw new IllegalArgumentException("Status update requires a user ID and a known status");
+        }
+        return new StatusUpdate(userId, status);
+    }
+
+    private static ProtoWriter writeUser(User user) {
+        int contacts = user.getContacts() != null ? user.getContacts().size() : 0;
+        ProtoWriter writer = new ProtoWriter(192 + 18 * contacts)
+                .writeUuid(1, user.getId())
+                .writeString(2, user.getUsername())
+                .writeString(3, user.getEmail())
+                .writeString(4, user.getDisplayName())
+                .writeString(5, user.getProfilePictureUrl())
+                .writeEnum(6, user.getStatus())
+                .writeSInt64(7, toMillis(user.getLastSeen()))
+                .writeSInt64(8, toMillis(user.getCreatedAt()))
+                .writeSInt64(9, toMillis(user.getUpdatedAt()));
+        if (user.getContacts() != null) {
+            user.getContacts().forEach(id -> writer.writeUuid(10, id));
+        }
+        if (user.getBlockedUsers() != null) {
+            user.getBlockedUsers().forEach(id -> writer.writeUuid(11, id));
+        }
+        UserSettings settings = user.getSettings();
+        if (settings != null) {
+            writer.writeMessage(12, new ProtoWriter(32)
+                    .writeBool(1, settings.isEnableReadReceipts())
+                    .writeBool(2, settings.isEnableTypingIndicators())
+                    .writeBool(3, settings.isEnablePushNotifications())
+                    .writeBool(4, settings.isEnableEmailNotifications())
+                    .writeBool(5, settings.isEnableSoundNotifications())
+                    .writeEnum(6, settings.getNotificationLevel())
+                    .writeEnum(7, settings.getPrivacyLevel())
+                    .writeEnum(8, settings.getThemePreference())
+                    .writeString(9, settings.getLanguage()));
+        }
+        return writer;
+    }
+
+    private static User readUser(ProtoReader reader) {
+        User user = new User();
+        Set<UUID> contacts = new HashSet<>();
+        Set<UUID> blockedUsers = new HashSet<>();
+        for (int field = reader.nextField(); field != 0; field = reader.nextField()) {
+            switch (field) {
+                case 1 -> user.setId(reader.readUuid());
+                case 2 -> user.setUsername(reader.readString());
+                case 3 -> user.setEmail(reader.readString());
+                case 4 -> user.setDisplayName(reader.readString());
+                case 5 -> user.setProfilePictureUrl(reader.readString());
+                case 6 -> user.setStatus(reader.readEnum(User.UserStatus.values()));
+                case 7 -> user.setLastSeen(fromMillis(reader.readSInt64()));
+                case 8 -> user.setCreatedAt(fromMillis(reader.readSInt64()));
+                case 9 -> user.setUpdatedAt(fromMillis(reader.readSInt64()));
+                case 10 -> contacts.add(reader.readUuid());
+                case 11 -> blockedUsers.add(reader.readUuid());
+                case 12 -> user.setSettings(readSettings(reader.readMessage()));
+                default -> reader.skip();
+            }
+        }
+        user.setContacts(contacts);
+        user.setBlockedUsers(blockedUsers);
+        return user;
+    }
+
+    private static UserSettings readSettings(ProtoReader reader) {
+        UserSettings settings = new UserSettings();
+        for (int field = reader.nextField(); field != 0; field = reader.nextField()) {
+            switch (field) {
+                case 1 -> settings.setEnableReadReceipts(reader.readBool());
+                case 2 -> settings.setEnableTypingIndicators(reader.readBool());
+                case 3 -> settings.setEnablePushNotifications(reader.readBool());
+                case 4 -> settings.setEnableEmailNotifications(reader.readBool());
+                case 5 -> settings.setEnableSoundNotifications(reader.readBool());
+                case 6 -> settings.setNotificationLevel(reader.readEnum(UserSettings.NotificationLevel.values()));
+                case 7 -> settings.setPrivacyLevel(reader.readEnum(UserSettings.PrivacyLevel.values()));
+                case 8 -> settings.setThemePreference(reader.readEnum(UserSettings.ThemePreference.values()));
+                case 9 -> settings.setLanguage(reader.readString());
+                default -> reader.skip();
+            }
+        }
+        return settings;
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+    }
+
+    private static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,37 @@
+package com.chatapp.common.rpc;
+
+/**
+ * Endpoints of the internal binary user RPC.
+ * Requests and responses are {@link UserProtoCodec} messages sent as {@value #CONTENT_TYPE} over
+ * cleartext HTTP/2, so many concurrent calls share one connection. Errors are returned as plain
+ * HTTP statuses with the error code in the {@value #ERROR_CODE_HEADER} header.
+ *
+ * <p>The endpoints are served only on a separate internal port, {@value #DEFAULT_PORT} unless an
+ * instance advertises another one in its {@value #PORT_METADATA_KEY} metadata; that port must not
+ * be exposed outside the cluster.
+ */
+public final class UserRpc {
+
+    public static final String CONTENT_TYPE = "application/x-protobuf";
+    public static final String ERROR_CODE_HEADER = "X-Error-Code";
+    public static final int DEFAULT_PORT = 9091;
+    public static final String PORT_METADATA_KEY = "rpc-port";
+
+    /**
+     * Prefix of every internal endpoint path.
+     */
+    public static final String INTERNAL_PATH_PREFIX = "/internal/";
+
+    /**
+     * Look up users by ID: {@code UserIds} in, {@code UserList} out. Unknown IDs are left out.
+     */
+    public static final String GET_USERS_PATH = "/internal/rpc/users/get";
+
+    /**
+     * Update a user's presence status: {@code StatusUpdate} in, empty body out.
+     */
+    public static final String UPDATE_STATUS_PATH = "/internal/rpc/users/status";
+
+    private UserRpc() {
+    }
+}
@@ -1,20 +1,33 @@
 package com.chatapp.common.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import javax.crypto.SecretKey;
+import java.util.stream.Collectors;
 
 /**
  * Utility class for JWT token generation and validation.
@@ -32,6 +45,53 @@ public class JwtTokenProvider {
     @Value("${jwt.refresh-expiration:604800000}") // Default: 7 days
     private long refreshExpirationMs;
 
+    @Value("${jwt.verification-cache.enabled:false}")
+    private boolean verificationCacheEnabled;
+
+    @Value("${jwt.verification-cache.max-size:100000}")
+    private long verificationCacheMaxSize;
+
+    private Key signingKey;
+    private JwtParser jwtParser;
+    private Cache<String, VerifiedToken> verificationCache;
+
+    /**
+     * Build the signing key, parser and optional verification cache once the secret has been injected.
+     * The key and parser are immutable and thread-safe, so they are shared by all calls.
+     */
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+
+        if (verificationCacheEnabled) {
+            // Entries live until the token itself expires, so a cached token is never accepted past its expiry
+            verificationCache = Caffeine.newBuilder()
+                    .maximumSize(verificationCacheMaxSize)
+                    .expireAfter(new Expiry<String, VerifiedToken>() {
+                        @Override
+                        public long expireAfterCreate(String digest, VerifiedToken verified, long currentTime) {
+                            return timeToExpiry(verified).toNanos();
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(String digest, VerifiedToken verified,
+                                                      long currentTime, long currentDuration) {
+                            return timeToExpiry(verified).toNanos();
+                        }
+
+                        @Override
+                        public long expireAfterRead(String digest, VerifiedToken verified,
+                                                    long currentTime, long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .build();
+        }
+    }
+
     /**
      * Generate a JWT token for a user.
      *
@@ -52,7 +112,7 @@ public class JwtTokenProvider {
                 .addClaims(additionalClaims)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
@@ -71,10 +131,37 @@ public class JwtTokenProvider {
                 .claim("type", "refresh")
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * Verify a JWT token and extract its principal in a single parse.
+     * When the verification cache is enabled, tokens that were already verified are served
+     * from the cache without repeating the signature check.
+     *
+     * @param token the JWT token
+     * @return the verified token, or empty if the token is invalid or expired
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        if (verificationCache == null) {
+            return parseAndVerify(token);
+        }
+
+        String digest = digest(token);
+        VerifiedToken cached = verificationCache.getIfPresent(digest);
+        if (cached != null && !cached.isExpired()) {
+            return Optional.of(cached);
+        }
+
+        Optional<VerifiedToken> verified = parseAndVerify(token);
+        verified.ifPresent(v -> verificationCache.put(digest, v));
+        return verified;
+    }
+
     /**
      * Validate a JWT token.
      *
@@ -83,10 +170,7 @@ public class JwtTokenProvider {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            jwtParser.parseClaimsJws(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
@@ -101,11 +185,7 @@ public class JwtTokenProvider {
      * @return the user ID
      */
     public UUID getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
 
         return UUID.fromString(claims.getSubject());
     }
@@ -117,11 +197,7 @@ public class JwtTokenProvider {
      * @return the claims
      */
     public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -141,12 +217,69 @@ public class JwtTokenProvider {
     }
 
     /**
-     * Get the signing key for JWT token generation and validation.
+     * Parse a JWT token, verify its signature and expiry, and map the claims to a verified token.
      *
-     * @return the signing key
+     * @param token the JWT token
+     * @return the verified token, or empty if the token is invalid
      */
-    private Key getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private Optional<VerifiedToken> parseAndVerify(String token) {
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            return Optional.of(VerifiedToken.builder()
+                    .userId(UUID.fromString(claims.getSubject()))
+                    .username(claims.get("username", String.class))
+                    .roles(extractRoles(claims))
+                    .type(claims.get("type", String.class))
+                    .expiration(claims.getExpiration())
+                    .build());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Invalid JWT token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Extract the roles claim, which is deserialized as a JSON array.
+     *
+     * @param claims the token claims
+     * @return the roles, or an empty list if the claim is absent
+     */
+    private List<String> extractRoles(Claims claims) {
+        Object roles = claims.get("roles");
+        if (roles instanceof Collection<?> collection) {
+            return collection.stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.toUnmodifiableList());
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Compute how long a verified token may stay in the verification cache.
+     *
+     * @param verified the verified token
+     * @return the remaining lifetime of the token, or zero if it has no expiration
+     */
+    private Duration timeToExpiry(VerifiedToken verified) {
+        if (verified.getExpiration() == null) {
+            return Duration.ZERO;
+        }
+        return Duration.ofMillis(Math.max(0, verified.getExpiration().getTime() - System.currentTimeMillis()));
+    }
+
+    /**
+     * Compute the cache key for a token, so that raw tokens are never held in the cache.
+     *
+     * @param token the JWT token
+     * @return the Base64-encoded SHA-256 digest of the token
+     */
+    private String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
\ No newline at end of file
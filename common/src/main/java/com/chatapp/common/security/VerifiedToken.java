@@ -0,0 +1,40 @@
+package com.chatapp.common.security;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Principal extracted from a JWT token whose signature has already been verified.
+ * Instances are immutable and can be reused for as long as the token has not expired.
+ */
+@Value
+@Builder
+public class VerifiedToken {
+    UUID userId;
+    String username;
+    List<String> roles;
+    String type;
+    Date expiration;
+
+    /**
+     * Check if the token has expired.
+     *
+     * @return true if the token is expired, false otherwise
+     */
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+
+    /**
+     * Check if this is a refresh token.
+     *
+     * @return true if the token is a refresh token, false otherwise
+     */
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+}
@@ -1,9 +1,13 @@
 package com.chatapp.user;
 
+import com.chatapp.common.deadline.RequestDeadlineFilter;
+import com.chatapp.common.exception.GlobalExceptionHandler;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * User Service application entry point.
@@ -12,6 +16,8 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableCaching
+@EnableScheduling
+@Import({RequestDeadlineFilter.class, GlobalExceptionHandler.class})
 public class UserServiceApplication {
 
     public static void main(String[] args) {
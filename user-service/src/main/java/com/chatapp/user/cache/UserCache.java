@@ -0,0 +1,327 @@
+package com.chatapp.user.cache;
+
+import com.chatapp.common.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Two-tier cache for user profiles.
+ * A size-bounded in-process cache (L1) sits in front of Redis (L2). Users are stored once, keyed by ID;
+ * usernames and emails are aliases that resolve to the ID, so a single eviction clears every way of
+ * reaching a cached user. Other instances drop their L1 entries when they see the user's events
+ * (see {@link UserCacheInvalidationListener}).
+ */
+@Slf4j
+@Component
+public class UserCache {
+
+    private static final String ID_KEY_PREFIX = "users:id:";
+    private static final String USERNAME_KEY_PREFIX = "users:username:";
+    private static final String EMAIL_KEY_PREFIX = "users:email:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration redisTtl;
+    private final Cache<UUID, User> localUsers;
+    private final Cache<String, UUID> localAliases;
+
+    public UserCache(StringRedisTemplate redisTemplate,
+                     ObjectMapper objectMapper,
+                     @Value("${user-cache.local.max-size:100000}") long localMaxSize,
+                     @Value("${user-cache.local.ttl:30s}") Duration localTtl,
+                     @Value("${user-cache.redis.ttl:30m}") Duration redisTtl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisTtl = redisTtl;
+        // The local TTL bounds staleness if an invalidation event is missed
+        this.localUsers = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build();
+        this.localAliases = Caffeine.newBuilder()
+                .maximumSize(localMaxSize * 2)
+                .expireAfterWrite(localTtl)
+                .build();
+    }
+
+    /**
+     * Get a user by ID, checking the local cache first and then Redis.
+     *
+     * @param userId the user ID
+     * @return the cached user, or empty on a miss
+     */
+    public Optional<User> get(UUID userId) {
+        User user = localUsers.getIfPresent(userId);
+        if (user != null) {
+            return Optional.of(user);
+        }
+
+        String json = redisGet(ID_KEY_PREFIX + userId);
+        if (json == null) {
+            return Optional.empty();
+        }
+        try {
+            user = objectMapper.readValue(json, User.class);
+            putLocal(user);
+            return Optional.of(user);
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable cached user: {}", userId, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Get several users by ID.
+     * Local hits are served in-process; all remaining IDs are fetched from Redis in a single MGET.
+     *
+     * @param userIds the user IDs
+     * @return the cached users by ID; IDs that missed both tiers are absent
+     */
+    public Map<UUID, User> getAll(Collection<UUID> userIds) {
+        Map<UUID, User> found = new HashMap<>(localUsers.getAllPresent(userIds));
+
+        List<UUID> remoteIds = new ArrayList<>();
+        List<String> remoteKeys = new ArrayList<>();
+        for (UUID userId : userIds) {
+            if (!found.containsKey(userId)) {
+                remoteIds.add(userId);
+                remoteKeys.add(ID_KEY_PREFIX + userId);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return found;
+        }
+
+        List<String> values;
+        try {
+            values = redisTemplate.opsForValue().multiGet(remoteKeys);
+        } catch (DataAccessException e) {
+            log.warn("Redis cache multi-get failed for {} keys", remoteKeys.size(), e);
+            return found;
+        }
+        if (values == null) {
+            return found;
+        }
+
+        for (int i = 0; i < values.size(); i++) {
+            String json = values.get(i);
+            if (json == null) {
+                continue;
+            }
+            try {
+                User user = objectMapper.readValue(json, User.class);
+                putLocal(user);
+                found.put(remoteIds.get(i), user);
+            } catch (JsonProcessingException e) {
+                log.warn("Discarding unreadable cached user: {}", remoteIds.get(i), e);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Resolve a username to a user ID.
+     *
+     * @param username the username
+     * @return the user ID, or empty if the alias is not cached
+     */
+    public Optional<UUID> findIdByUsername(String username) {
+        return resolveAlias(USERNAME_KEY_PREFIX + username);
+    }
+
+    /**
+     * Resolve an email to a user ID.
+     *
+     * @param email the email
+     * @return the user ID, or empty if the alias is not cached
+     */
+    public Optional<UUID> findIdByEmail(String email) {
+        return resolveAlias(EMAIL_KEY_PREFIX + email);
+    }
+
+    /**
+     * Store a user in both tiers together with its username and email aliases.
+     *
+     * @param user the user
+     */
+    public void put(User user) {
+        putAll(List.of(user));
+    }
+
+    /**
+     * Store several users in both tiers, writing all Redis keys in one pipelined round trip.
+     *
+     * @param users the users
+     */
+    public void putAll(Collection<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> entries = new HashMap<>();
+        for (User user : users) {
+            putLocal(user);
+            String id = user.getId().toString();
+            try {
+                entries.put(ID_KEY_PREFIX + id, objectMapper.writeValueAsString(user));
+            } catch (JsonProcessingException e) {
+                log.warn("Failed to serialize user for cache: {}", user.getId(), e);
+                continue;
+            }
+            for (String aliasKey : aliasKeys(user)) {
+                entries.put(aliasKey, id);
+            }
+        }
+
+        long ttlSeconds = redisTtl.getSeconds();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                entries.forEach((key, value) -> stringConnection.setEx(key, ttlSeconds, value));
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Failed to write {} users to Redis cache", users.size(), e);
+        }
+    }
+
+    /**
+     * Evict a user and all of its aliases from both tiers.
+     * Inside a transaction the eviction is repeated after commit, so a concurrent read cannot
+     * re-populate the cache with the pre-commit state.
+     *
+     * @param userId the user ID
+     */
+    public void evict(UUID userId) {
+        evictNow(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evict several users and their aliases from both tiers with one Redis read and one delete.
+     *
+     * @param userIds the user IDs
+     */
+    public void evictAll(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, User> cached = getAll(userIds);
+        List<String> keys = new ArrayList<>(userIds.size() * 3);
+        for (UUID userId : userIds) {
+            evictLocal(userId);
+            keys.add(ID_KEY_PREFIX + userId);
+            User user = cached.get(userId);
+            if (user != null) {
+                keys.addAll(aliasKeys(user));
+            }
+        }
+        try {
+            redisTemplate.delete(keys);
+        } catch (DataAccessException e) {
+            log.warn("Failed to evict {} users from Redis cache", userIds.size(), e);
+        }
+    }
+
+    /**
+     * Evict a user from the local tier only.
+     * Used when another instance has changed the user and already cleared Redis.
+     *
+     * @param userId the user ID
+     */
+    public void evictLocal(UUID userId) {
+        User user = localUsers.getIfPresent(userId);
+        localUsers.invalidate(userId);
+        if (user != null) {
+            localAliases.invalidateAll(aliasKeys(user));
+        }
+    }
+
+    private void evictNow(UUID userId) {
+        // Aliases are found through the cached value; a stale alias left behind is caught by read verification
+        User cached = get(userId).orElse(null);
+        evictLocal(userId);
+
+        List<String> keys = new ArrayList<>();
+        keys.add(ID_KEY_PREFIX + userId);
+        if (cached != null) {
+            keys.addAll(aliasKeys(cached));
+        }
+        try {
+            redisTemplate.delete(keys);
+        } catch (DataAccessException e) {
+            log.warn("Failed to evict user from Redis cache: {}", userId, e);
+        }
+    }
+
+    private Optional<UUID> resolveAlias(String aliasKey) {
+        UUID userId = localAliases.getIfPresent(aliasKey);
+        if (userId != null) {
+            return Optional.of(userId);
+        }
+
+        String id = redisGet(aliasKey);
+        if (id == null) {
+            return Optional.empty();
+        }
+        userId = UUID.fromString(id);
+        localAliases.put(aliasKey, userId);
+        return Optional.of(userId);
+    }
+
+    private void putLocal(User user) {
+        localUsers.put(user.getId(), user);
+        for (String aliasKey : aliasKeys(user)) {
+            localAliases.put(aliasKey, user.getId());
+        }
+    }
+
+    private List<String> aliasKeys(User user) {
+        List<String> keys = new ArrayList<>(2);
+        if (user.getUsername() != null) {
+            keys.add(USERNAME_KEY_PREFIX + user.getUsername());
+        }
+        if (user.getEmail() != null) {
+            keys.add(EMAIL_KEY_PREFIX + user.getEmail());
+        }
+        return keys;
+    }
+
+    private String redisGet(String key) {
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (DataAccessException e) {
+            log.warn("Redis cache read failed for key: {}", key, e);
+            return null;
+        }
+    }
+}
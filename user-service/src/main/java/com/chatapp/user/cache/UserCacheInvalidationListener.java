@@ -0,0 +1,38 @@
+package com.chatapp.user.cache;
+
+import com.chatapp.common.event.UserEventCodec;
+import com.chatapp.user.service.UserEventPublisher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener that drops local user cache entries when a user changes on any instance.
+ * Every instance consumes with its own group ID so that each one sees every event.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserCacheInvalidationListener {
+
+    private final UserCache userCache;
+
+    /**
+     * Handle a user event or user status event.
+     * Only the user ID is read from the event header; the fields are not decoded.
+     *
+     * @param message the encoded event
+     */
+    @KafkaListener(
+            topics = {UserEventPublisher.USER_EVENTS_TOPIC, UserEventPublisher.USER_STATUS_TOPIC},
+            groupId = "user-cache-#{T(java.util.UUID).randomUUID()}",
+            properties = "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer")
+    public void onUserEvent(byte[] message) {
+        try {
+            userCache.evictLocal(UserEventCodec.readUserId(message));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring unreadable user event for cache invalidation", e);
+        }
+    }
+}
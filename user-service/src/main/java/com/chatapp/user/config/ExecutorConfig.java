@@ -0,0 +1,40 @@
+package com.chatapp.user.config;
+
+import com.chatapp.common.deadline.RequestDeadline;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Configuration for the executors used by the user service.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Define the executor that loads chunks of users from the database in parallel.
+     * When the pool and queue are full the caller loads the chunk itself, which throttles
+     * multi-gets instead of failing them. Tasks run with the deadline of the request that submitted them.
+     *
+     * @param poolSize the number of worker threads
+     * @param queueCapacity the number of chunks that may wait for a worker
+     * @return the user lookup executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor userLookupExecutor(
+            @Value("${user-service.multi-get.pool-size:8}") int poolSize,
+            @Value("${user-service.multi-get.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("user-lookup-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(RequestDeadline::propagate);
+        executor.initialize();
+        return executor;
+    }
+}
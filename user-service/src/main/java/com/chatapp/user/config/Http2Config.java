@@ -0,0 +1,38 @@
+package com.chatapp.user.config;
+
+import com.chatapp.common.rpc.UserRpc;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the internal RPC connector.
+ * The binary user RPC is served on its own port with cleartext HTTP/2, so internal callers can
+ * open connections with prior knowledge and multiplex their calls over them. The public connector
+ * is left as it was; {@link com.chatapp.user.rpc.RpcPortFilter} keeps each kind of endpoint on its
+ * own port.
+ */
+@Configuration
+public class Http2Config {
+
+    /**
+     * Add the HTTP/2 RPC connector.
+     *
+     * @param rpcPort the port of the internal RPC connector
+     * @return the web server factory customizer
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> rpcConnectorCustomizer(
+            @Value("${user-rpc.port:" + UserRpc.DEFAULT_PORT + "}") int rpcPort) {
+        return factory -> {
+            Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+            connector.setPort(rpcPort);
+            connector.addUpgradeProtocol(new Http2Protocol());
+            factory.addAdditionalTomcatConnectors(connector);
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.chatapp.user.config;
+
+import com.chatapp.common.rpc.UserRpc;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Security configuration for the user service.
+ * Internal RPC endpoints are called by other services without credentials or CSRF tokens; they are
+ * only served on the internal RPC port (see {@code RpcPortFilter}), which must not be exposed
+ * outside the cluster. Public profiles hold nothing caller-specific and are readable by anyone who
+ * reaches the service; the gateway only lets authenticated callers through. Everything else
+ * requires authentication.
+ */
+@Configuration
+@EnableWebSecurity
+public class SecurityConfig {
+
+    private static final String INTERNAL_RPC_PATHS = UserRpc.INTERNAL_PATH_PREFIX + "rpc/**";
+    private static final String PUBLIC_PROFILE_PATHS = "/api/v1/users/*/profile";
+
+    /**
+     * Configure security for the user service.
+     *
+     * @param http the HTTP security
+     * @return the security filter chain
+     * @throws Exception if the chain cannot be built
+     */
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        return http
+                .csrf(csrf -> csrf.ignoringRequestMatchers(INTERNAL_RPC_PATHS))
+                .authorizeHttpRequests(authorize -> authorize
+                        .requestMatchers(INTERNAL_RPC_PATHS).permitAll()
+                        .requestMatchers(HttpMethod.GET, PUBLIC_PROFILE_PATHS).permitAll()
+                        .anyRequest().authenticated())
+                .build();
+    }
+
+    /**
+     * Define the password encoder used to hash user passwords.
+     *
+     * @return the password encoder
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+}
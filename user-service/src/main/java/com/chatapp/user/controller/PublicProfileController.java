@@ -0,0 +1,38 @@
+package com.chatapp.user.controller;
+
+import com.chatapp.common.dto.ApiResponse;
+import com.chatapp.user.dto.PublicProfile;
+import com.chatapp.user.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+/**
+ * Controller for public user profiles.
+ * Responses do not depend on the caller, so the gateway coalesces concurrent reads of the same
+ * profile across callers.
+ */
+@RestController
+@RequestMapping("/api/v1/users")
+@RequiredArgsConstructor
+public class PublicProfileController {
+
+    public static final String PROFILE_PATH = "/{userId}/profile";
+
+    private final UserService userService;
+
+    /**
+     * Get a user's public profile.
+     *
+     * @param userId the user ID
+     * @return the public profile
+     */
+    @GetMapping(PROFILE_PATH)
+    public ApiResponse<PublicProfile> getPublicProfile(@PathVariable UUID userId) {
+        return ApiResponse.success(userService.getPublicProfile(userId));
+    }
+}
@@ -0,0 +1,29 @@
+package com.chatapp.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO for the public part of a user's profile.
+ * It holds only fields that every authenticated caller may see, so the same response can be served
+ * to all of them. Status and last seen are left out because privacy settings can hide them from
+ * some callers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicProfile {
+
+    private UUID id;
+
+    private String username;
+
+    private String displayName;
+
+    private String profilePictureUrl;
+}
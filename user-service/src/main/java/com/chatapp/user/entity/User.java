@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -60,12 +61,17 @@ public class User {
     private LocalDateTime updatedAt;
 
     @ElementCollection
-    @CollectionTable(name = "user_contacts", joinColumns = @JoinColumn(name = "user_id"))
+    @BatchSize(size = 100)
+    @CollectionTable(name = "user_contacts", joinColumns = @JoinColumn(name = "user_id"),
+            uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "contact_id"}),
+            indexes = @Index(name = "idx_user_contacts_contact_id_user_id", columnList = "contact_id, user_id"))
     @Column(name = "contact_id")
     private Set<UUID> contacts = new HashSet<>();
 
     @ElementCollection
-    @CollectionTable(name = "user_blocked", joinColumns = @JoinColumn(name = "user_id"))
+    @BatchSize(size = 100)
+    @CollectionTable(name = "user_blocked", joinColumns = @JoinColumn(name = "user_id"),
+            uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "blocked_user_id"}))
     @Column(name = "blocked_user_id")
     private Set<UUID> blockedUsers = new HashSet<>();
 
@@ -92,6 +98,8 @@ public class User {
 
     /**
      * Convert the entity to a DTO.
+     * Contacts and blocked users are copied, so this must run while the entity is still attached;
+     * the DTO can then be used after the transaction ends.
      *
      * @return the user DTO
      */
@@ -106,8 +114,8 @@ public class User {
                 .lastSeen(lastSeen)
                 .createdAt(createdAt)
                 .updatedAt(updatedAt)
-                .contacts(contacts)
-                .blockedUsers(blockedUsers)
+                .contacts(new HashSet<>(contacts))
+                .blockedUsers(new HashSet<>(blockedUsers))
                 .settings(settings != null ? settings.toDto() : null)
                 .build();
     }
@@ -0,0 +1,120 @@
+package com.chatapp.user.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Repository for the contact and block edges between users.
+ * Each operation touches a single row of {@code user_contacts} or {@code user_blocked} through the
+ * (user_id, contact_id) / (user_id, blocked_user_id) unique index, without loading the user entity
+ * or its collections.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ContactGraphRepository {
+
+    private static final String INSERT_CONTACT =
+            "INSERT INTO user_contacts (user_id, contact_id) SELECT ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM user_contacts WHERE user_id = ? AND contact_id = ?) " +
+            "ON CONFLICT DO NOTHING";
+    private static final String DELETE_CONTACT =
+            "DELETE FROM user_contacts WHERE user_id = ? AND contact_id = ?";
+    private static final String EXISTS_CONTACT =
+            "SELECT EXISTS (SELECT 1 FROM user_contacts WHERE user_id = ? AND contact_id = ?)";
+
+    private static final String INSERT_BLOCK =
+            "INSERT INTO user_blocked (user_id, blocked_user_id) SELECT ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM user_blocked WHERE user_id = ? AND blocked_user_id = ?) " +
+            "ON CONFLICT DO NOTHING";
+    private static final String DELETE_BLOCK =
+            "DELETE FROM user_blocked WHERE user_id = ? AND blocked_user_id = ?";
+    private static final String EXISTS_BLOCK =
+            "SELECT EXISTS (SELECT 1 FROM user_blocked WHERE user_id = ? AND blocked_user_id = ?)";
+    private static final String SELECT_BLOCKED_IDS =
+            "SELECT blocked_user_id FROM user_blocked WHERE user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Add a contact edge. Adding an existing contact is a no-op.
+     *
+     * @param userId the user ID
+     * @param contactId the contact ID
+     * @return true if the edge was inserted, false if it already existed
+     */
+    public boolean addContact(UUID userId, UUID contactId) {
+        return jdbcTemplate.update(INSERT_CONTACT, userId, contactId, userId, contactId) > 0;
+    }
+
+    /**
+     * Remove a contact edge.
+     *
+     * @param userId the user ID
+     * @param contactId the contact ID
+     * @return true if the edge existed and was deleted
+     */
+    public boolean removeContact(UUID userId, UUID contactId) {
+        return jdbcTemplate.update(DELETE_CONTACT, userId, contactId) > 0;
+    }
+
+    /**
+     * Check if a user has another user as a contact.
+     *
+     * @param userId the user ID
+     * @param contactId the contact ID
+     * @return true if the contact edge exists
+     */
+    public boolean isContact(UUID userId, UUID contactId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS_CONTACT, Boolean.class, userId, contactId));
+    }
+
+    /**
+     * Add a block edge. Blocking an already blocked user is a no-op.
+     *
+     * @param userId the user ID
+     * @param blockedUserId the blocked user ID
+     * @return true if the edge was inserted, false if it already existed
+     */
+    public boolean addBlock(UUID userId, UUID blockedUserId) {
+        return jdbcTemplate.update(INSERT_BLOCK, userId, blockedUserId, userId, blockedUserId) > 0;
+    }
+
+    /**
+     * Remove a block edge.
+     *
+     * @param userId the user ID
+     * @param blockedUserId the blocked user ID
+     * @return true if the edge existed and was deleted
+     */
+    public boolean removeBlock(UUID userId, UUID blockedUserId) {
+        return jdbcTemplate.update(DELETE_BLOCK, userId, blockedUserId) > 0;
+    }
+
+    /**
+     * Check if a user has blocked another user.
+     *
+     * @param userId the user ID
+     * @param blockedUserId the blocked user ID
+     * @return true if the block edge exists
+     */
+    public boolean isBlocked(UUID userId, UUID blockedUserId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS_BLOCK, Boolean.class, userId, blockedUserId));
+    }
+
+    /**
+     * Find the IDs of the users blocked by a user.
+     *
+     * @param userId the user ID
+     * @return the blocked user IDs
+     */
+    public Set<UUID> findBlockedUserIds(UUID userId) {
+        List<UUID> ids = jdbcTemplate.queryForList(SELECT_BLOCKED_IDS, UUID.class, userId);
+        return new HashSet<>(ids);
+    }
+}
@@ -0,0 +1,26 @@
+package com.chatapp.user.repository;
+
+import com.chatapp.user.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for OutboxEvent entity operations.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Find the oldest pending events.
+     * Only the single active relay reads the outbox, so no row locks are taken.
+     *
+     * @param limit the maximum number of events
+     * @return the events in insertion order
+     */
+    @Query(value = "SELECT * FROM user_outbox ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<OutboxEvent> findNextBatch(@Param("limit") int limit);
+}
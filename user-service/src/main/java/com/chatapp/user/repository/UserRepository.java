@@ -1,8 +1,10 @@
 package com.chatapp.user.repository;
 
 import com.chatapp.user.entity.User;
+import com.chatapp.user.search.UserSearchDocument;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -53,14 +55,29 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     /**
      * Find users by their IDs.
+     * Settings are fetched in the same query; contacts and blocked users are batch-fetched.
      *
      * @param ids the user IDs
      * @return the list of users
      */
+    @EntityGraph(attributePaths = "settings")
     List<User> findByIdIn(Set<UUID> ids);
 
+    /**
+     * Find the searchable fields of users in ID order, starting after the given ID.
+     * Used to page through the whole table when building the search index.
+     *
+     * @param afterId the last ID of the previous batch
+     * @param pageable the batch size
+     * @return the next batch of search documents
+     */
+    @Query("SELECT new com.chatapp.user.search.UserSearchDocument(u.id, u.username, u.displayName) " +
+            "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSearchDocument> findSearchDocumentsAfter(@Param("afterId") UUID afterId, Pageable pageable);
+
     /**
      * Search users by username or display name.
+     * This scans the table; it is only used while the in-memory search index is not ready.
      *
      * @param query the search query
      * @param pageable the pagination information
@@ -92,4 +109,47 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      */
     @Query("SELECT u FROM User u JOIN u.contacts c WHERE c = :userId")
     Page<User> findContactsByUserId(@Param("userId") UUID userId, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Find contacts of a user in ID order, starting after the given ID.
+     * Keyset pagination: no count query, and every page is an index range scan of the same cost.
+     *
+     * @param userId the user ID
+     * @param afterId the last ID of the previous page
+     * @param limit the maximum number of results
+     * @return the next contacts
+     */
+    @Query("SELECT u FROM User u JOIN u.contacts c WHERE c = :userId AND u.id > :afterId ORDER BY u.id")
+    List<User> findContactsByUserIdAfter(@Param("userId") UUID userId, @Param("afterId") UUID afterId, Pageable limit);
+
+    /**
+     * Search users by username or display name in username order, starting after the given username.
+     * This scans the table; it is only used while the in-memory search index is not ready.
+     *
+     * @param query the search query
+     * @param afterUsername the last username of the previous page
+     * @param limit the maximum number of results
+     * @return the next users
+     */
+    @Query("SELECT u FROM User u WHERE (u.username LIKE %:query% OR u.displayName LIKE %:query%) " +
+            "AND u.username > :afterUsername ORDER BY u.username")
+    List<User> searchUsersAfter(@Param("query") String query, @Param("afterUsername") String afterUsername, Pageable limit);
+
+    /**
+     * Search users by username or display name in username order, starting after the given username
+     * and excluding blocked users.
+     *
+     * @param query the search query
+     * @param afterUsername the last username of the previous page
+     * @param blockedUserIds the IDs of blocked users
+     * @param limit the maximum number of results
+     * @return the next users
+     */
+    @Query("SELECT u FROM User u WHERE (u.username LIKE %:query% OR u.displayName LIKE %:query%) " +
+            "AND u.username > :afterUsername AND u.id NOT IN :blockedUserIds ORDER BY u.username")
+    List<User> searchUsersExcludingBlockedAfter(
+            @Param("query") String query,
+            @Param("afterUsername") String afterUsername,
+            @Param("blockedUserIds") Set<UUID> blockedUserIds,
+            Pageable limit);
+}
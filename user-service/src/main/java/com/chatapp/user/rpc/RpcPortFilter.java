@@ -0,0 +1,45 @@
+package com.chatapp.user.rpc;
+
+import com.chatapp.common.rpc.UserRpc;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet filter that serves internal endpoints only on the internal RPC port, and nothing else
+ * there. Requests on the wrong port are answered with 404, as if the endpoint did not exist.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RpcPortFilter extends OncePerRequestFilter {
+
+    private final int rpcPort;
+
+    public RpcPortFilter(@Value("${user-rpc.port:" + UserRpc.DEFAULT_PORT + "}") int rpcPort) {
+        this.rpcPort = rpcPort;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean internalPath = request.getRequestURI().startsWith(UserRpc.INTERNAL_PATH_PREFIX);
+        boolean internalPort = request.getLocalPort() == rpcPort;
+        if (internalPath != internalPort) {
+            log.debug("Rejecting {} {} on port {}", request.getMethod(), request.getRequestURI(), request.getLocalPort());
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
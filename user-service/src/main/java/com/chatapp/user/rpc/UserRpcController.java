@@ -0,0 +1,87 @@
+package com.chatapp.user.rpc;
+
+import com.chatapp.common.exception.ChatAppException;
+import com.chatapp.common.rpc.UserProtoCodec;
+import com.chatapp.common.rpc.UserRpc;
+import com.chatapp.user.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Internal binary RPC endpoints for the hottest user operations.
+ * Bodies are {@link UserProtoCodec} messages instead of JSON {@code ApiResponse} envelopes, so
+ * callers inside the cluster skip JSON encoding and parsing on both sides of the hop. The endpoints
+ * are only reachable on the internal RPC port (see {@link RpcPortFilter}).
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class UserRpcController {
+
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private final UserService userService;
+
+    /**
+     * Look up users by ID.
+     *
+     * @param request the encoded user IDs
+     * @return the encoded users that exist, in request order
+     */
+    @PostMapping(path = UserRpc.GET_USERS_PATH, consumes = UserRpc.CONTENT_TYPE, produces = UserRpc.CONTENT_TYPE)
+    public byte[] getUsers(@RequestBody byte[] request) {
+        List<UUID> userIds = UserProtoCodec.decodeIds(request);
+        if (userIds.size() > MAX_BATCH_SIZE) {
+            throw new ChatAppException.BadRequestException("At most " + MAX_BATCH_SIZE + " users per call");
+        }
+        return UserProtoCodec.encodeUsers(userService.getUsersByIds(userIds));
+    }
+
+    /**
+     * Update a user's presence status.
+     *
+     * @param request the encoded status update
+     * @return an empty response
+     */
+    @PostMapping(path = UserRpc.UPDATE_STATUS_PATH, consumes = UserRpc.CONTENT_TYPE)
+    public ResponseEntity<Void> updateStatus(@RequestBody byte[] request) {
+        UserProtoCodec.StatusUpdate update = UserProtoCodec.decodeStatusUpdate(request);
+        userService.updateUserStatus(update.userId(), update.status());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Map application exceptions to a status and error code header; RPC errors have no body.
+     *
+     * @param ex the exception
+     * @return the error response
+     */
+    @ExceptionHandler(ChatAppException.class)
+    public ResponseEntity<Void> handleChatAppException(ChatAppException ex) {
+        return ResponseEntity.status(ex.getStatusCode())
+                .header(UserRpc.ERROR_CODE_HEADER, ex.getErrorCode())
+                .build();
+    }
+
+    /**
+     * Reject malformed messages.
+     *
+     * @param ex the decoding error
+     * @return the error response
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleMalformedMessage(IllegalArgumentException ex) {
+        log.debug("Rejecting malformed user RPC message: {}", ex.getMessage());
+        return ResponseEntity.badRequest()
+                .header(UserRpc.ERROR_CODE_HEADER, "BAD_REQUEST")
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.chatapp.user.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * The searchable fields of a user, as held by the {@link UserSearchIndex}.
+ */
+@Value
+@AllArgsConstructor
+public class UserSearchDocument {
+    UUID id;
+    String username;
+    String displayName;
+}
@@ -0,0 +1,416 @@
+package com.chatapp.user.search;
+
+import com.chatapp.user.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory trigram index over usernames and display names.
+ * Queries of three or more characters match substrings (the semantics of {@code LIKE %q%});
+ * shorter queries match word prefixes. Results are ranked: exact username, username prefix,
+ * display name word prefix, username substring, display name substring.
+ *
+ * <p>The index is built from a database snapshot at startup and kept current from user events
+ * (see {@link UserSearchIndexListener}). Until the first build completes {@link #isReady()} is false
+ * and callers should fall back to the database.
+ */
+@Slf4j
+@Component
+public class UserSearchIndex {
+
+    private static final char PAD = '\u0000';
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private static final int RANK_EXACT_USERNAME = 0;
+    private static final int RANK_USERNAME_PREFIX = 1;
+    private static final int RANK_DISPLAY_NAME_PREFIX = 2;
+    private static final int RANK_USERNAME_SUBSTRING = 3;
+    private static final int RANK_DISPLAY_NAME_SUBSTRING = 4;
+    private static final int NO_MATCH = -1;
+
+    private final UserRepository userRepository;
+    private final int rebuildBatchSize;
+    private final Object writeLock = new Object();
+
+    private volatile Index index = new Index();
+    private volatile boolean ready;
+
+    // Updates received while a rebuild is running, replayed onto the rebuilt index; guarded by writeLock
+    private List<Consumer<Index>> pendingDuringRebuild;
+
+    public UserSearchIndex(UserRepository userRepository,
+                           @Value("${user-search.rebuild-batch-size:5000}") int rebuildBatchSize) {
+        this.userRepository = userRepository;
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    /**
+     * Build the index from the database once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        CompletableFuture.runAsync(this::rebuild)
+                .exceptionally(e -> {
+                    log.error("Failed to build user search index", e);
+                    return null;
+                });
+    }
+
+    /**
+     * Check if the index has been built and can serve searches.
+     *
+     * @return true if the index is ready
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Add or replace a user in the index.
+     *
+     * @param document the user's searchable fields
+     */
+    public void upsert(UserSearchDocument document) {
+        synchronized (writeLock) {
+            index.upsert(document);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(rebuilt -> rebuilt.upsert(document));
+            }
+        }
+    }
+
+    /**
+     * Remove a user from the index.
+     *
+     * @param userId the user ID
+     */
+    public void remove(UUID userId) {
+        synchronized (writeLock) {
+            index.remove(userId);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(rebuilt -> rebuilt.remove(userId));
+            }
+        }
+    }
+
+    /**
+     * Rebuild the index from a snapshot of the users table and swap it in atomically.
+     * Searches keep using the previous index while the snapshot is loaded.
+     */
+    public void rebuild() {
+        synchronized (writeLock) {
+            if (pendingDuringRebuild != null) {
+                log.info("User search index rebuild already in progress");
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        }
+
+        try {
+            long start = System.currentTimeMillis();
+            Index rebuilt = new Index();
+            UUID afterId = FIRST_ID;
+            List<UserSearchDocument> batch;
+            do {
+                batch = userRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, rebuildBatchSize));
+                batch.forEach(rebuilt::upsert);
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == rebuildBatchSize);
+
+            synchronized (writeLock) {
+                pendingDuringRebuild.forEach(update -> update.accept(rebuilt));
+                index = rebuilt;
+                ready = true;
+            }
+            log.info("Built user search index with {} users in {} ms",
+                    rebuilt.entries.size(), System.currentTimeMillis() - start);
+        } finally {
+            synchronized (writeLock) {
+                pendingDuringRebuild = null;
+            }
+        }
+    }
+
+    /**
+     * Search users by username or display name.
+     *
+     * @param query the search query
+     * @param excludedIds IDs that must not appear in the results
+     * @param pageable the pagination information
+     * @return the page of matching user IDs in rank order
+     */
+    public Page<UUID> search(String query, Set<UUID> excludedIds, Pageable pageable) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        long limit = pageable.isPaged() ? offset + pageable.getPageSize() : Long.MAX_VALUE;
+
+        PriorityQueue<Match> top = new PriorityQueue<>(Comparator.reverseOrder());
+        long total = collect(normalized, excludedIds, null, limit, top);
+
+        List<Match> matches = new ArrayList<>(top);
+        Collections.sort(matches);
+        List<UUID> ids = matches.stream()
+                .skip(offset)
+                .map(Match::id)
+                .toList();
+        return new PageImpl<>(ids, pageable, total);
+    }
+
+    /**
+     * Search users by username or display name, continuing after a match of a previous page.
+     * Only the best {@code limit} matches ranked after {@code after} are retained, so a deep page
+     * costs the same as the first one.
+     *
+     * @param query the search query
+     * @param excludedIds IDs that must not appear in the results
+     * @param after the last match of the previous page, or null for the first page
+     * @param limit the maximum number of matches
+     * @return the matches in rank order
+     */
+    public List<Match> searchAfter(String query, Set<UUID> excludedIds, Match after, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        PriorityQueue<Match> top = new PriorityQueue<>(Comparator.reverseOrder());
+        collect(normalized, excludedIds, after, limit, top);
+
+        List<Match> matches = new ArrayList<>(top);
+        Collections.sort(matches);
+        return matches;
+    }
+
+    /**
+     * Rank the candidates of a query, keeping the best {@code limit} matches that sort after
+     * {@code after} (the worst of them at the head of the queue), and count all such matches.
+     */
+    private long collect(String normalized, Set<UUID> excludedIds, Match after, long limit, PriorityQueue<Match> top) {
+        Index snapshot = index;
+        long total = 0;
+        for (UUID id : snapshot.candidates(queryGrams(normalized))) {
+            if (excludedIds.contains(id)) {
+                continue;
+            }
+            Entry entry = snapshot.entries.get(id);
+            if (entry == null) {
+                continue;
+            }
+            int rank = rank(entry, normalized);
+            if (rank == NO_MATCH) {
+                continue;
+            }
+
+            Match match = new Match(rank, entry.username(), id);
+            if (after != null && match.compareTo(after) <= 0) {
+                continue;
+            }
+            total++;
+            if (top.size() < limit) {
+                top.add(match);
+            } else if (match.compareTo(top.peek()) < 0) {
+                top.poll();
+                top.add(match);
+            }
+        }
+        return total;
+    }
+
+    private static int rank(Entry entry, String query) {
+        if (entry.username().equals(query)) {
+            return RANK_EXACT_USERNAME;
+        }
+        if (entry.username().startsWith(query)) {
+            return RANK_USERNAME_PREFIX;
+        }
+        if (hasWordStartingWith(entry.displayName(), query)) {
+            return RANK_DISPLAY_NAME_PREFIX;
+        }
+        if (query.length() < 3) {
+            return NO_MATCH;
+        }
+        if (entry.username().contains(query)) {
+            return RANK_USERNAME_SUBSTRING;
+        }
+        if (entry.displayName().contains(query)) {
+            return RANK_DISPLAY_NAME_SUBSTRING;
+        }
+        return NO_MATCH;
+    }
+
+    private static boolean hasWordStartingWith(String text, String prefix) {
+        int position = text.indexOf(prefix);
+        while (position >= 0) {
+            if (position == 0 || Character.isWhitespace(text.charAt(position - 1))) {
+                return true;
+            }
+            position = text.indexOf(prefix, position + 1);
+        }
+        return false;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Grams stored for a field: every trigram of the whole text, plus the padded trigrams of each
+     * word so that one- and two-character queries can match word prefixes.
+     */
+    private static void addIndexGrams(Set<String> grams, String text) {
+        addTrigrams(grams, text);
+        for (String word : text.split("\\s+")) {
+            if (!word.isEmpty()) {
+                addTrigrams(grams, "" + PAD + PAD + word);
+            }
+        }
+    }
+
+    private static Set<String> queryGrams(String query) {
+        Set<String> grams = new HashSet<>();
+        if (query.length() == 1) {
+            grams.add("" + PAD + PAD + query);
+        } else if (query.length() == 2) {
+            grams.add(PAD + query);
+        } else {
+            addTrigrams(grams, query);
+        }
+        return grams;
+    }
+
+    private static void addTrigrams(Set<String> grams, String text) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 3));
+        }
+    }
+
+    /**
+     * A user as stored in the index, with its fields already normalized.
+     */
+    private record Entry(String username, String displayName) {
+
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            addIndexGrams(grams, username);
+            addIndexGrams(grams, displayName);
+            return grams;
+        }
+    }
+
+    /**
+     * A ranked search hit; orders best first. Also serves as the keyset for {@link #searchAfter}.
+     *
+     * @param rank the match quality, lower is better
+     * @param username the normalized username
+     * @param id the user ID
+     */
+    public record Match(int rank, String username, UUID id) implements Comparable<Match> {
+
+        @Override
+        public int compareTo(Match other) {
+            int result = Integer.compare(rank, other.rank);
+            if (result == 0) {
+                result = Integer.compare(username.length(), other.username.length());
+            }
+            if (result == 0) {
+                result = username.compareTo(other.username);
+            }
+            if (result == 0) {
+                result = id.compareTo(other.id);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Entries and posting lists. Reads are lock-free; writes are serialized by the enclosing index.
+     */
+    private static final class Index {
+        private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+        private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>();
+
+        void upsert(UserSearchDocument document) {
+            Entry entry = new Entry(normalize(document.getUsername()), normalize(document.getDisplayName()));
+            Entry previous = entries.put(document.getId(), entry);
+
+            Set<String> grams = entry.grams();
+            if (previous != null) {
+                for (String gram : previous.grams()) {
+                    if (!grams.contains(gram)) {
+                        unpost(gram, document.getId());
+                    }
+                }
+            }
+            for (String gram : grams) {
+                postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(document.getId());
+            }
+        }
+
+        void remove(UUID userId) {
+            Entry previous = entries.remove(userId);
+            if (previous != null) {
+                for (String gram : previous.grams()) {
+                    unpost(gram, userId);
+                }
+            }
+        }
+
+        /**
+         * Intersect the posting lists of all grams, starting from the smallest.
+         */
+        Set<UUID> candidates(Set<String> grams) {
+            List<Set<UUID>> lists = new ArrayList<>(grams.size());
+            for (String gram : grams) {
+                Set<UUID> ids = postings.get(gram);
+                if (ids == null) {
+                    return Collections.emptySet();
+                }
+                lists.add(ids);
+            }
+            if (lists.size() == 1) {
+                return lists.get(0);
+            }
+
+            lists.sort(Comparator.comparingInt(Set::size));
+            Set<UUID> result = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result.retainAll(lists.get(i));
+            }
+            return result;
+        }
+
+        private void unpost(String gram, UUID userId) {
+            postings.computeIfPresent(gram, (key, ids) -> {
+                ids.remove(userId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
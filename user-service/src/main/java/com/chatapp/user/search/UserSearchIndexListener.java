@@ -0,0 +1,56 @@
+package com.chatapp.user.search;
+
+import com.chatapp.common.event.UserChangeEvent;
+import com.chatapp.common.event.UserEventCodec;
+import com.chatapp.user.service.UserEventPublisher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener that applies user registrations, updates and deletions to the local search index.
+ * Every instance consumes with its own group ID so that each index sees every event.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchIndexListener {
+
+    private final UserSearchIndex userSearchIndex;
+
+    /**
+     * Handle a user event.
+     *
+     * @param message the encoded event
+     */
+    @KafkaListener(
+            topics = UserEventPublisher.USER_EVENTS_TOPIC,
+            groupId = "user-search-#{T(java.util.UUID).randomUUID()}",
+            properties = "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer")
+    public void onUserEvent(byte[] message) {
+        UserChangeEvent event;
+        try {
+            event = UserEventCodec.decode(message);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring unreadable user event for search index", e);
+            return;
+        }
+
+        switch (event.getType()) {
+            case REGISTERED -> userSearchIndex.upsert(new UserSearchDocument(
+                    event.getUserId(), event.getUsername(), event.getDisplayName()));
+            // Usernames never change, so an update only matters if it carries a new display name
+            case UPDATED -> {
+                if (event.getDisplayName() != null) {
+                    userSearchIndex.upsert(new UserSearchDocument(
+                            event.getUserId(), event.getUsername(), event.getDisplayName()));
+                }
+            }
+            case DELETED -> userSearchIndex.remove(event.getUserId());
+            default -> {
+                // Other events do not change searchable fields
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.chatapp.user.service;
+
+import com.chatapp.common.deadline.RequestDeadline;
+import com.chatapp.common.exception.ChatAppException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Service that runs password hashing on a dedicated, bounded executor.
+ * Hashing is deliberately slow, and callers block on the result, so the executor bounds how many
+ * request threads hashing can hold: at most {@code concurrency} hashes run at once, at most
+ * {@code queue-capacity} wait, and anything beyond that is rejected immediately with a 503.
+ * The queue must stay well below the servlet thread count, or the servlet pool runs out before
+ * anything is rejected. Queue wait, hash duration and rejections are exported as metrics.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private static final String OPERATION_ENCODE = "encode";
+    private static final String OPERATION_MATCHES = "matches";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final MeterRegistry meterRegistry;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${password-hashing.concurrency:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int concurrency,
+                                  @Value("${password-hashing.queue-capacity:32}") int queueCapacity,
+                                  @Value("${password-hashing.timeout:5s}") Duration timeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(
+                concurrency, concurrency,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueWaitTimer = Timer.builder("password.hashing.queue.wait")
+                .description("Time password hashing tasks spend waiting for a worker")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Password hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hash a raw password asynchronously.
+     *
+     * @param rawPassword the raw password
+     * @return a future completing with the encoded password, or failing with a 503 if the hashing
+     *         capacity is exhausted
+     */
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return submit(OPERATION_ENCODE, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Check a raw password against an encoded one asynchronously.
+     *
+     * @param rawPassword the raw password
+     * @param encodedPassword the stored encoded password
+     * @return a future completing with true if the password matches, or failing with a 503 if the
+     *         hashing capacity is exhausted
+     */
+    public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(OPERATION_MATCHES, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Wait for a hashing result, bounded by the configured timeout and the request's deadline.
+     *
+     * @param future the hashing future
+     * @param <T> the type of the result
+     * @return the result
+     */
+    public <T> T await(CompletableFuture<T> future) {
+        RequestDeadline deadline = RequestDeadline.current().orElse(null);
+        boolean deadlineFirst = deadline != null && deadline.remaining().compareTo(timeout) < 0;
+        Duration wait = deadlineFirst ? deadline.remaining() : timeout;
+        try {
+            return future.get(Math.max(0, wait.toMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            if (deadlineFirst) {
+                throw new ChatAppException.DeadlineExceededException("Request deadline exceeded during password hashing");
+            }
+            throw new ChatAppException.ServiceUnavailableException("Password hashing timed out. Please try again later.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChatAppException.ServiceUnavailableException("Password hashing was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ChatAppException.InternalServerErrorException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Stop accepting hashing tasks when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(String operation, Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        Timer hashTimer = Timer.builder("password.hashing.duration")
+                .description("Time spent computing password hashes")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        RequestDeadline deadline = RequestDeadline.current().orElse(null);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                // Do not burn a hashing slot on a request the caller has abandoned while it was queued
+                if (deadline != null) {
+                    deadline.check();
+                }
+                return hashTimer.record(task);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Rejected password {} task, hashing queue is full", operation);
+            return CompletableFuture.failedFuture(new ChatAppException.ServiceUnavailableException(
+                    "Too many concurrent password operations. Please try again later."));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.chatapp.user.service;
+
+import com.chatapp.common.deadline.RequestDeadline;
+import com.chatapp.common.model.User;
+import com.chatapp.user.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads users from the database in bounded chunks.
+ * Each chunk is a single {@code IN} query of at most {@code chunkSize} IDs; when there is more than
+ * one chunk they are executed in parallel on the user lookup executor.
+ */
+@Slf4j
+@Component
+public class UserBatchLoader {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Executor userLookupExecutor;
+    private final int chunkSize;
+
+    public UserBatchLoader(UserRepository userRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Qualifier("userLookupExecutor") Executor userLookupExecutor,
+                           @Value("${user-service.multi-get.chunk-size:100}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.userLookupExecutor = userLookupExecutor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Load users by ID.
+     *
+     * @param userIds the user IDs
+     * @return the users that exist, in no particular order
+     */
+    public List<User> loadByIds(List<UUID> userIds) {
+        if (userIds.size() <= chunkSize) {
+            return loadChunk(userIds);
+        }
+
+        List<CompletableFuture<List<User>>> futures = new ArrayList<>();
+        for (int from = 0; from < userIds.size(); from += chunkSize) {
+            List<UUID> chunk = userIds.subList(from, Math.min(from + chunkSize, userIds.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> loadChunk(chunk), userLookupExecutor));
+        }
+
+        List<User> users = new ArrayList<>(userIds.size());
+        try {
+            for (CompletableFuture<List<User>> future : futures) {
+                users.addAll(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        log.debug("Loaded {} of {} users in {} chunks", users.size(), userIds.size(), futures.size());
+        return users;
+    }
+
+    /**
+     * Load one chunk in its own read-only transaction. The DTOs are mapped inside it, which copies
+     * the lazy collections before the session closes. Chunks are skipped once the request's deadline has passed.
+     */
+    private List<User> loadChunk(List<UUID> chunk) {
+        RequestDeadline.checkCurrent();
+        return readOnlyTransaction.execute(status -> userRepository.findByIdIn(new HashSet<>(chunk))
+                .stream()
+                .map(com.chatapp.user.entity.User::toDto)
+                .toList());
+    }
+}
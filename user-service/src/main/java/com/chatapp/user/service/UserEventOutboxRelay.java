@@ -0,0 +1,183 @@
+package com.chatapp.user.service;
+
+import com.chatapp.user.entity.OutboxEvent;
+import com.chatapp.user.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Relay that drains the user event outbox to Kafka in batches.
+ * Only one instance relays at a time: each run first takes a PostgreSQL session advisory lock, and
+ * instances that cannot get it skip the run. The lock is held on an idle connection, not in a
+ * transaction, and is released when the run ends or the connection drops. Events are sent through a
+ * dedicated idempotent producer with its own linger and compression settings and deleted once
+ * acknowledged, each deletion in its own short transaction.
+ *
+ * <p>Events of one user share a message key and are sent in outbox order: a batch is sent in
+ * rounds, and each round sends at most one event per key, so an event is only sent once the
+ * previous event with its key has been acknowledged. After a failure the key is left out of the
+ * remaining rounds, and the next run re-sends its events in their original order. Delivery is
+ * at-least-once; consumers must tolerate duplicates.
+ */
+@Slf4j
+@Component
+public class UserEventOutboxRelay {
+
+    // Advisory lock key shared by all instances ("useroutb")
+    private static final long RELAY_LOCK_KEY = 0x7573_6572_6f75_7462L;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration sendTimeout;
+
+    public UserEventOutboxRelay(OutboxEventRepository outboxEventRepository,
+                                JdbcTemplate jdbcTemplate,
+                                KafkaProperties kafkaProperties,
+                                @Value("${user-events.outbox.batch-size:500}") int batchSize,
+                                @Value("${user-events.outbox.max-batches-per-run:20}") int maxBatchesPerRun,
+                                @Value("${user-events.outbox.linger-ms:20}") int lingerMs,
+                                @Value("${user-events.outbox.compression-type:lz4}") String compressionType,
+                                @Value("${user-events.outbox.send-timeout:10s}") Duration sendTimeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.sendTimeout = sendTimeout;
+
+        Map<String, Object> producerProperties = new HashMap<>(kafkaProperties.buildProducerProperties());
+        producerProperties.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        producerProperties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        producerProperties.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerProperties.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        producerProperties.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        this.producerFactory = new DefaultKafkaProducerFactory<>(
+                producerProperties, new StringSerializer(), new ByteArraySerializer());
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+    }
+
+    /**
+     * Drain the outbox if no other instance is relaying. Runs batches back to back while they come
+     * back full, up to a limit per run.
+     */
+    @Scheduled(fixedDelayString = "${user-events.outbox.poll-interval:100}")
+    public void relay() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(?)")) {
+                return null;
+            }
+            try {
+                for (int i = 0; i < maxBatchesPerRun; i++) {
+                    if (relayBatch() < batchSize) {
+                        break;
+                    }
+                }
+            } finally {
+                advisoryLock(connection, "SELECT pg_advisory_unlock(?)");
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Close the relay producer when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        producerFactory.destroy();
+    }
+
+    private boolean advisoryLock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, RELAY_LOCK_KEY);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Send one batch and delete the events Kafka acknowledged.
+     *
+     * @return the number of events relayed, or 0 if any send failed
+     */
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Queue<OutboxEvent>> byKey = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            byKey.computeIfAbsent(event.getMessageKey(), key -> new ArrayDeque<>()).add(event);
+        }
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        while (!byKey.isEmpty() && !Thread.currentThread().isInterrupted()) {
+            List<OutboxEvent> round = new ArrayList<>(byKey.size());
+            List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(byKey.size());
+            for (Queue<OutboxEvent> events : byKey.values()) {
+                OutboxEvent event = events.peek();
+                round.add(event);
+                futures.add(kafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload()));
+            }
+
+            for (int i = 0; i < round.size(); i++) {
+                OutboxEvent event = round.get(i);
+                try {
+                    futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    sentIds.add(event.getId());
+                    byKey.get(event.getMessageKey()).remove();
+                } catch (ExecutionException | TimeoutException e) {
+                    // Later events with this key stay in the outbox until this one is acknowledged
+                    byKey.get(event.getMessageKey()).clear();
+                    log.warn("Failed to relay outbox event {} to topic {}", event.getId(), event.getTopic(), e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    byKey.clear();
+                    break;
+                }
+            }
+            byKey.values().removeIf(Queue::isEmpty);
+        }
+
+        if (!sentIds.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(sentIds);
+        }
+        log.debug("Relayed {} of {} outbox events", sentIds.size(), batch.size());
+        return sentIds.size() == batch.size() ? sentIds.size() : 0;
+    }
+}
@@ -1,26 +1,32 @@
 package com.chatapp.user.service;
 
+import com.chatapp.common.event.UserChangeEvent;
+import com.chatapp.common.event.UserEventCodec;
 import com.chatapp.common.model.User;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.chatapp.user.entity.OutboxEvent;
+import com.chatapp.user.repository.OutboxEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.UUID;
+
 /**
  * Service for publishing user-related events to Kafka.
+ * Events are written to the outbox table in the caller's transaction, so they are committed or
+ * rolled back together with the change they describe; {@link UserEventOutboxRelay} sends them.
+ * Payloads are {@link UserChangeEvent} deltas encoded with {@link UserEventCodec}.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserEventPublisher {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final OutboxEventRepository outboxEventRepository;
 
-    private static final String USER_EVENTS_TOPIC = "user-events";
-    private static final String USER_STATUS_TOPIC = "user-status";
+    public static final String USER_EVENTS_TOPIC = "user-events";
+    public static final String USER_STATUS_TOPIC = "user-status";
 
     /**
      * Publish user registered event.
@@ -28,44 +34,25 @@ public class UserEventPublisher {
      * @param user the registered user
      */
     public void publishUserRegistered(User user) {
-        try {
-            UserEvent event = UserEvent.builder()
-                    .eventType("USER_REGISTERED")
-                    .userId(user.getId())
-                    .user(user)
-                    .timestamp(System.currentTimeMillis())
-                    .build();
-
-            String eventJson = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(USER_EVENTS_TOPIC, user.getId().toString(), eventJson);
-            
-            log.info("Published USER_REGISTERED event for user: {}", user.getId());
-        } catch (JsonProcessingException e) {
-            log.error("Failed to publish USER_REGISTERED event for user: {}", user.getId(), e);
-        }
+        enqueue(USER_EVENTS_TOPIC, UserChangeEvent.snapshot(UserChangeEvent.Type.REGISTERED, user));
+        log.info("Published USER_REGISTERED event for user: {}", user.getId());
     }
 
     /**
      * Publish user updated event.
      *
-     * @param user the updated user
+     * @param userId the user ID
+     * @param username the username, which identifies the user to consumers
+     * @param changes the changed fields; fields left unset are unchanged
      */
-    public void publishUserUpdated(User user) {
-        try {
-            UserEvent event = UserEvent.builder()
-                    .eventType("USER_UPDATED")
-                    .userId(user.getId())
-                    .user(user)
-                    .timestamp(System.currentTimeMillis())
-                    .build();
-
-            String eventJson = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(USER_EVENTS_TOPIC, user.getId().toString(), eventJson);
-            
-            log.info("Published USER_UPDATED event for user: {}", user.getId());
-        } catch (JsonProcessingException e) {
-            log.error("Failed to publish USER_UPDATED event for user: {}", user.getId(), e);
-        }
+    public void publishUserUpdated(UUID userId, String username, UserChangeEvent.UserChangeEventBuilder changes) {
+        enqueue(USER_EVENTS_TOPIC, changes
+                .type(UserChangeEvent.Type.UPDATED)
+                .userId(userId)
+                .username(username)
+                .timestamp(System.currentTimeMillis())
+                .build());
+        log.info("Published USER_UPDATED event for user: {}", userId);
     }
 
     /**
@@ -74,21 +61,25 @@ public class UserEventPublisher {
      * @param user the user with updated status
      */
     public void publishUserStatusUpdated(User user) {
-        try {
-            UserStatusEvent event = UserStatusEvent.builder()
-                    .userId(user.getId())
-                    .status(user.getStatus())
-                    .lastSeen(user.getLastSeen())
-                    .timestamp(System.currentTimeMillis())
-                    .build();
+        publishUserStatusUpdated(user.getId(), user.getStatus(), user.getLastSeen());
+    }
 
-            String eventJson = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(USER_STATUS_TOPIC, user.getId().toString(), eventJson);
-            
-            log.info("Published USER_STATUS_UPDATED event for user: {} with status: {}", user.getId(), user.getStatus());
-        } catch (JsonProcessingException e) {
-            log.error("Failed to publish USER_STATUS_UPDATED event for user: {}", user.getId(), e);
-        }
+    /**
+     * Publish user status updated event.
+     *
+     * @param userId the user ID
+     * @param status the new status
+     * @param lastSeen the time the user was last seen
+     */
+    public void publishUserStatusUpdated(UUID userId, User.UserStatus status, LocalDateTime lastSeen) {
+        enqueue(USER_STATUS_TOPIC, UserChangeEvent.builder()
+                .type(UserChangeEvent.Type.STATUS_CHANGED)
+                .userId(userId)
+                .status(status)
+                .lastSeen(lastSeen)
+                .timestamp(System.currentTimeMillis())
+                .build());
+        log.info("Published USER_STATUS_UPDATED event for user: {} with status: {}", userId, status);
     }
 
     /**
@@ -97,48 +88,43 @@ public class UserEventPublisher {
      * @param user the deleted user
      */
     public void publishUserDeleted(User user) {
-        try {
-            UserEvent event = UserEvent.builder()
-                    .eventType("USER_DELETED")
-                    .userId(user.getId())
-                    .user(user)
-                    .timestamp(System.currentTimeMillis())
-                    .build();
-
-            String eventJson = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(USER_EVENTS_TOPIC, user.getId().toString(), eventJson);
-            
-            log.info("Published USER_DELETED event for user: {}", user.getId());
-        } catch (JsonProcessingException e) {
-            log.error("Failed to publish USER_DELETED event for user: {}", user.getId(), e);
-        }
+        enqueue(USER_EVENTS_TOPIC, UserChangeEvent.builder()
+                .type(UserChangeEvent.Type.DELETED)
+                .userId(user.getId())
+                .username(user.getUsername())
+                .timestamp(System.currentTimeMillis())
+                .build());
+        log.info("Published USER_DELETED event for user: {}", user.getId());
     }
 
     /**
-     * User event model.
+     * Publish user invalidated event.
+     * Sent for changes that have no dedicated event (settings, contacts, blocks), so that
+     * other instances drop cached copies of the user.
+     *
+     * @param userId the ID of the changed user
      */
-    @lombok.Data
-    @lombok.Builder
-    @lombok.NoArgsConstructor
-    @lombok.AllArgsConstructor
-    public static class UserEvent {
-        private String eventType;
-        private java.util.UUID userId;
-        private User user;
-        private long timestamp;
+    public void publishUserInvalidated(UUID userId) {
+        enqueue(USER_EVENTS_TOPIC, UserChangeEvent.builder()
+                .type(UserChangeEvent.Type.INVALIDATED)
+                .userId(userId)
+                .timestamp(System.currentTimeMillis())
+                .build());
+        log.debug("Published USER_INVALIDATED event for user: {}", userId);
     }
 
     /**
-     * User status event model.
+     * Encode an event and add it to the outbox, keyed by user ID so that the relay keeps
+     * the events of one user in order.
+     *
+     * @param topic the target topic
+     * @param event the event
      */
-    @lombok.Data
-    @lombok.Builder
-    @lombok.NoArgsConstructor
-    @lombok.AllArgsConstructor
-    public static class UserStatusEvent {
-        private java.util.UUID userId;
-        private User.UserStatus status;
-        private java.time.LocalDateTime lastSeen;
-        private long timestamp;
+    private void enqueue(String topic, UserChangeEvent event) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(event.getUserId().toString())
+                .payload(UserEventCodec.encode(event))
+                .build());
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,33 @@
 package com.chatapp.user.service;
 
+import com.chatapp.common.event.UserChangeEvent;
 import com.chatapp.common.exception.ChatAppException;
 import com.chatapp.common.model.User;
-import com.chatapp.common.response.PageResponse;
+import com.chatapp.common.dto.CursorPage;
+import com.chatapp.common.dto.PageCursor;
+import com.chatapp.common.dto.PageResponse;
+import com.chatapp.user.cache.UserCache;
 import com.chatapp.user.dto.*;
 import com.chatapp.user.entity.UserSettings;
+import com.chatapp.user.repository.ContactGraphRepository;
 import com.chatapp.user.repository.UserRepository;
+import com.chatapp.user.search.UserSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -30,17 +40,29 @@ import java.util.stream.Collectors;
 @Slf4j
 public class UserService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+    private static final String INDEX_CURSOR = "index";
+    private static final String DATABASE_CURSOR = "db";
+
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final ContactGraphRepository contactGraphRepository;
+    private final PasswordHashingService passwordHashingService;
     private final UserEventPublisher userEventPublisher;
+    private final UserCache userCache;
+    private final UserBatchLoader userBatchLoader;
+    private final UserSearchIndex userSearchIndex;
+    private final UserStatusWriteBehindBuffer userStatusWriteBehindBuffer;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Register a new user.
+     * The password is hashed before the transaction starts, so a waiting or running hash never holds
+     * a database connection.
      *
      * @param request the registration request
      * @return the created user
      */
-    @Transactional
     public User registerUser(UserRegistrationRequest request) {
         log.info("Registering new user with username: {}", request.getUsername());
 
@@ -52,33 +74,39 @@ public class UserService {
             throw new ChatAppException.ConflictException("Email already exists");
         }
 
-        // Create default user settings
-        UserSettings defaultSettings = UserSettings.builder()
-                .enableReadReceipts(true)
-                .enableTypingIndicators(true)
-                .enablePushNotifications(true)
-                .enableEmailNotifications(true)
-                .enableSoundNotifications(true)
-                .build();
-
-        // Create user entity
-        com.chatapp.user.entity.User user = com.chatapp.user.entity.User.builder()
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .displayName(request.getDisplayName())
-                .status(com.chatapp.common.model.User.UserStatus.ONLINE)
-                .settings(defaultSettings)
-                .build();
-
-        user.getRoles().add("USER");
-        user = userRepository.save(user);
-
-        // Publish user registration event
-        userEventPublisher.publishUserRegistered(user.toDto());
-
-        log.info("User registered successfully with ID: {}", user.getId());
-        return user.toDto();
+        // Hash only once the checks have passed, so duplicate registrations cost no hashing slot
+        String encodedPassword = passwordHashingService.await(passwordHashingService.encode(request.getPassword()));
+
+        User registered = transactionTemplate.execute(status -> {
+            // Create default user settings
+            UserSettings defaultSettings = UserSettings.builder()
+                    .enableReadReceipts(true)
+                    .enableTypingIndicators(true)
+                    .enablePushNotifications(true)
+                    .enableEmailNotifications(true)
+                    .enableSoundNotifications(true)
+                    .build();
+
+            // Create user entity
+            com.chatapp.user.entity.User user = com.chatapp.user.entity.User.builder()
+                    .username(request.getUsername())
+                    .email(request.getEmail())
+                    .password(encodedPassword)
+                    .displayName(request.getDisplayName())
+                    .status(com.chatapp.common.model.User.UserStatus.ONLINE)
+                    .settings(defaultSettings)
+                    .build();
+
+            user.getRoles().add("USER");
+            user = userRepository.save(user);
+
+            // Publish user registration event
+            userEventPublisher.publishUserRegistered(user.toDto());
+            return user.toDto();
+        });
+
+        log.info("User registered successfully with ID: {}", registered.getId());
+        return registered;
     }
 
     /**
@@ -87,11 +115,27 @@ public class UserService {
      * @param userId the user ID
      * @return the user
      */
-    @Cacheable(value = "users", key = "#userId")
     public User getUserById(UUID userId) {
-        return userRepository.findById(userId)
-                .map(com.chatapp.user.entity.User::toDto)
-                .orElseThrow(() -> new ChatAppException.ResourceNotFoundException("User not found"));
+        return userCache.get(userId)
+                .orElseGet(() -> userRepository.findById(userId)
+                        .map(this::cacheUser)
+                        .orElseThrow(() -> new ChatAppException.ResourceNotFoundException("User not found")));
+    }
+
+    /**
+     * Get the public profile of a user.
+     *
+     * @param userId the user ID
+     * @return the public profile
+     */
+    public PublicProfile getPublicProfile(UUID userId) {
+        User user = getUserById(userId);
+        return PublicProfile.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .displayName(user.getDisplayName())
+                .profilePictureUrl(user.getProfilePictureUrl())
+                .build();
     }
 
     /**
@@ -100,10 +144,17 @@ public class UserService {
      * @param username the username
      * @return the user
      */
-    @Cacheable(value = "users", key = "#username")
     public User getUserByUsername(String username) {
+        User cached = userCache.findIdByUsername(username)
+                .flatMap(userCache::get)
+                .filter(user -> username.equals(user.getUsername()))
+                .orElse(null);
+        if (cached != null) {
+            return cached;
+        }
+
         return userRepository.findByUsername(username)
-                .map(com.chatapp.user.entity.User::toDto)
+                .map(this::cacheUser)
                 .orElseThrow(() -> new ChatAppException.ResourceNotFoundException("User not found"));
     }
 
@@ -114,56 +165,107 @@ public class UserService {
      * @return the user
      */
     public User getUserByEmail(String email) {
+        // Emails can change, so an alias only counts if the cached user still has that email
+        User cached = userCache.findIdByEmail(email)
+                .flatMap(userCache::get)
+                .filter(user -> email.equals(user.getEmail()))
+                .orElse(null);
+        if (cached != null) {
+            return cached;
+        }
+
         return userRepository.findByEmail(email)
-                .map(com.chatapp.user.entity.User::toDto)
+                .map(this::cacheUser)
                 .orElseThrow(() -> new ChatAppException.ResourceNotFoundException("User not found"));
     }
 
     /**
      * Update user profile.
+     * A password change is verified and hashed before the transaction starts, so a waiting or
+     * running hash never holds a database connection.
      *
      * @param userId the user ID
      * @param request the update request
      * @return the updated user
      */
-    @Transactional
-    @CacheEvict(value = "users", key = "#userId")
     public User updateUser(UUID userId, UserUpdateRequest request) {
         log.info("Updating user profile for ID: {}", userId);
 
+        String verifiedPassword = null;
+        String encodedPassword = null;
+        if (request.getNewPassword() != null) {
+            verifiedPassword = userRepository.findById(userId)
+                    .orElseThrow(() -> new ChatAppException.ResourceNotFoundException("User not found"))
+                    .getPassword();
+            if (request.getCurrentPassword() == null ||
+                !passwordHashingService.await(passwordHashingService.matches(request.getCurrentPassword(), verifiedPassword))) {
+                throw new ChatAppException.BadRequestException("Current password is incorrect");
+            }
+            encodedPassword = passwordHashingService.await(passwordHashingService.encode(request.getNewPassword()));
+        }
+
+        String expectedPassword = verifiedPassword;
+        String newPassword = encodedPassword;
+        User updated = transactionTemplate.execute(status -> applyUpdate(userId, request, expectedPassword, newPassword));
+
+        log.info("User profile updated successfully for ID: {}", userId);
+        return updated;
+    }
+
+    /**
+     * Apply a profile update inside a transaction.
+     *
+     * @param userId the user ID
+     * @param request the update request
+     * @param expectedPassword the password hash the current password was checked against, or null
+     * @param newPassword the new password hash, or null to keep the password
+     * @return the updated user
+     */
+    private User applyUpdate(UUID userId, UserUpdateRequest request, String expectedPassword, String newPassword) {
         com.chatapp.user.entity.User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ChatAppException.ResourceNotFoundException("User not found"));
 
-        // Update fields if provided
-        if (request.getDisplayName() != null) {
+        // Update fields if provided, recording what changed for the event
+        UserChangeEvent.UserChangeEventBuilder changes = UserChangeEvent.builder();
+        boolean changed = false;
+        if (request.getDisplayName() != null && !request.getDisplayName().equals(user.getDisplayName())) {
             user.setDisplayName(request.getDisplayName());
+            changes.displayName(request.getDisplayName());
+            changed = true;
         }
         if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
             if (userRepository.existsByEmail(request.getEmail())) {
                 throw new ChatAppException.ConflictException("Email already exists");
             }
             user.setEmail(request.getEmail());
+            changes.email(request.getEmail());
+            changed = true;
         }
-        if (request.getProfilePictureUrl() != null) {
+        if (request.getProfilePictureUrl() != null && !request.getProfilePictureUrl().equals(user.getProfilePictureUrl())) {
             user.setProfilePictureUrl(request.getProfilePictureUrl());
+            changes.profilePictureUrl(request.getProfilePictureUrl());
+            changed = true;
         }
-        if (request.getStatus() != null) {
+        if (request.getStatus() != null && request.getStatus() != user.getStatus()) {
             user.setStatus(request.getStatus());
+            changes.status(request.getStatus());
+            changed = true;
         }
-        if (request.getNewPassword() != null) {
-            if (request.getCurrentPassword() == null || 
-                !passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
-                throw new ChatAppException.BadRequestException("Current password is incorrect");
+        if (newPassword != null) {
+            // The current password was checked against this hash; refuse if it changed in the meantime
+            if (!user.getPassword().equals(expectedPassword)) {
+                throw new ChatAppException.ConflictException("Password was changed concurrently");
             }
-            user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+            user.setPassword(newPassword);
         }
 
         user = userRepository.save(user);
+        userCache.evict(userId);
 
-        // Publish user updated event
-        userEventPublisher.publishUserUpdated(user.toDto());
-
-        log.info("User profile updated successfully for ID: {}", userId);
+        // Publish user updated event, unless only the password changed
+        if (changed) {
+            userEventPublisher.publishUserUpdated(userId, user.getUsername(), changes);
+        }
         return user.toDto();
     }
 
@@ -175,7 +277,6 @@ public class UserService {
      * @return the updated user
      */
     @Transactional
-    @CacheEvict(value = "users", key = "#userId")
     public User updateUserSettings(UUID userId, UserSettingsUpdateRequest request) {
         log.info("Updating user settings for ID: {}", userId);
 
@@ -218,6 +319,8 @@ public class UserService {
         }
 
         user = userRepository.save(user);
+        userCache.evict(userId);
+        userEventPublisher.publishUserInvalidated(userId);
 
         log.info("User settings updated successfully for ID: {}", userId);
         return user.toDto();
@@ -225,6 +328,7 @@ public class UserService {
 
     /**
      * Search users.
+     * Served from the in-memory search index; falls back to a database scan until the index is built.
      *
      * @param query the search query
      * @param currentUserId the current user ID
@@ -232,14 +336,22 @@ public class UserService {
      * @return the page of users
      */
     public PageResponse<User> searchUsers(String query, UUID currentUserId, Pageable pageable) {
-        com.chatapp.user.entity.User currentUser = userRepository.findById(currentUserId)
-                .orElseThrow(() -> new ChatAppException.ResourceNotFoundException("User not found"));
+        if (!userRepository.existsById(currentUserId)) {
+            throw new ChatAppException.ResourceNotFoundException("User not found");
+        }
+        Set<UUID> blockedUserIds = contactGraphRepository.findBlockedUserIds(currentUserId);
+
+        if (userSearchIndex.isReady()) {
+            Page<UUID> idPage = userSearchIndex.search(query, blockedUserIds, pageable);
+            List<User> users = getUsersByIds(idPage.getContent());
+            return PageResponse.from(new PageImpl<>(users, pageable, idPage.getTotalElements()));
+        }
 
         Page<com.chatapp.user.entity.User> userPage;
-        if (currentUser.getBlockedUsers().isEmpty()) {
+        if (blockedUserIds.isEmpty()) {
             userPage = userRepository.searchUsers(query, pageable);
         } else {
-            userPage = userRepository.searchUsersExcludingBlocked(query, currentUser.getBlockedUsers(), pageable);
+            userPage = userRepository.searchUsersExcludingBlocked(query, blockedUserIds, pageable);
         }
 
         return PageResponse.from(userPage.map(com.chatapp.user.entity.User::toDto));
@@ -257,6 +369,73 @@ public class UserService {
         return PageResponse.from(contactsPage.map(com.chatapp.user.entity.User::toDto));
     }
 
+    /**
+     * Search users one page at a time, continuing from a cursor.
+     * Served from the in-memory search index in rank order; until the index is built, and for
+     * cursors created before it was, the database is scanned in username order instead. The two
+     * orders do not mix: an index cursor that reaches an instance whose index is not ready is
+     * rejected, and the search has to start again.
+     *
+     * @param query the search query
+     * @param currentUserId the current user ID
+     * @param cursor the continuation token of the previous page, or null for the first page
+     * @param size the page size
+     * @return the page of users
+     */
+    public CursorPage<User> searchUsers(String query, UUID currentUserId, String cursor, int size) {
+        requirePageSize(size);
+        if (!userRepository.existsById(currentUserId)) {
+            throw new ChatAppException.ResourceNotFoundException("User not found");
+        }
+        Set<UUID> blockedUserIds = contactGraphRepository.findBlockedUserIds(currentUserId);
+        String[] after = cursor != null ? PageCursor.decode(cursor, 4) : null;
+        boolean indexReady = userSearchIndex.isReady();
+        if (after != null && !DATABASE_CURSOR.equals(after[0]) && !(INDEX_CURSOR.equals(after[0]) && indexReady)) {
+            throw new ChatAppException.BadRequestException("Search cursor is no longer valid; start the search again");
+        }
+
+        if (indexReady && (after == null || INDEX_CURSOR.equals(after[0]))) {
+            UserSearchIndex.Match afterMatch = after != null ? parseSearchCursor(after) : null;
+            CursorPage<UserSearchIndex.Match> matches = CursorPage.of(
+                    userSearchIndex.searchAfter(query, blockedUserIds, afterMatch, size + 1), size,
+                    match -> PageCursor.encode(INDEX_CURSOR, String.valueOf(match.rank()), match.username(),
+                            match.id().toString()));
+            List<User> users = getUsersByIds(matches.getContent().stream().map(UserSearchIndex.Match::id).toList());
+            return CursorPage.<User>builder()
+                    .content(users)
+                    .size(size)
+                    .nextCursor(matches.getNextCursor())
+                    .hasNext(matches.isHasNext())
+                    .build();
+        }
+
+        String afterUsername = after != null ? after[2] : "";
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<com.chatapp.user.entity.User> users = blockedUserIds.isEmpty()
+                ? userRepository.searchUsersAfter(query, afterUsername, limit)
+                : userRepository.searchUsersExcludingBlockedAfter(query, afterUsername, blockedUserIds, limit);
+        return CursorPage.of(users, size,
+                        user -> PageCursor.encode(DATABASE_CURSOR, "0", user.getUsername(), user.getId().toString()))
+                .map(com.chatapp.user.entity.User::toDto);
+    }
+
+    /**
+     * Get user contacts one page at a time, continuing from a cursor.
+     *
+     * @param userId the user ID
+     * @param cursor the continuation token of the previous page, or null for the first page
+     * @param size the page size
+     * @return the page of contacts
+     */
+    public CursorPage<User> getUserContacts(UUID userId, String cursor, int size) {
+        requirePageSize(size);
+        UUID afterId = cursor != null ? parseUuid(PageCursor.decode(cursor, 1)[0]) : FIRST_ID;
+        List<com.chatapp.user.entity.User> contacts =
+                userRepository.findContactsByUserIdAfter(userId, afterId, PageRequest.of(0, size + 1));
+        return CursorPage.of(contacts, size, contact -> PageCursor.encode(contact.getId().toString()))
+                .map(com.chatapp.user.entity.User::toDto);
+    }
+
     /**
      * Add contact.
      *
@@ -264,21 +443,22 @@ public class UserService {
      * @param contactId the contact ID
      */
     @Transactional
-    @CacheEvict(value = "users", key = "#userId")
     public void addContact(UUID userId, UUID contactId) {
         if (userId.equals(contactId)) {
             throw new ChatAppException.BadRequestException("Cannot add yourself as contact");
         }
 
-        com.chatapp.user.entity.User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ChatAppException.ResourceNotFoundException("User not found"));
-        
+        if (!userRepository.existsById(userId)) {
+            throw new ChatAppException.ResourceNotFoundException("User not found");
+        }
         if (!userRepository.existsById(contactId)) {
             throw new ChatAppException.ResourceNotFoundException("Contact user not found");
         }
 
-        user.getContacts().add(contactId);
-        userRepository.save(user);
+        if (contactGraphRepository.addContact(userId, contactId)) {
+            userCache.evict(userId);
+            userEventPublisher.publishUserInvalidated(userId);
+        }
 
         log.info("Contact {} added for user {}", contactId, userId);
     }
@@ -290,13 +470,13 @@ public class UserService {
      * @param contactId the contact ID
      */
     @Transactional
-    @CacheEvict(value = "users", key = "#userId")
     public void removeContact(UUID userId, UUID contactId) {
-        com.chatapp.user.entity.User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ChatAppException.ResourceNotFoundException("User not found"));
-
-        user.getContacts().remove(contactId);
-        userRepository.save(user);
+        if (contactGraphRepository.removeContact(userId, contactId)) {
+            userCache.evict(userId);
+            userEventPublisher.publishUserInvalidated(userId);
+        } else if (!userRepository.existsById(userId)) {
+            throw new ChatAppException.ResourceNotFoundException("User not found");
+        }
 
         log.info("Contact {} removed for user {}", contactId, userId);
     }
@@ -308,22 +488,24 @@ public class UserService {
      * @param blockedUserId the blocked user ID
      */
     @Transactional
-    @CacheEvict(value = "users", key = "#userId")
     public void blockUser(UUID userId, UUID blockedUserId) {
         if (userId.equals(blockedUserId)) {
             throw new ChatAppException.BadRequestException("Cannot block yourself");
         }
 
-        com.chatapp.user.entity.User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ChatAppException.ResourceNotFoundException("User not found"));
-        
+        if (!userRepository.existsById(userId)) {
+            throw new ChatAppException.ResourceNotFoundException("User not found");
+        }
         if (!userRepository.existsById(blockedUserId)) {
             throw new ChatAppException.ResourceNotFoundException("User to block not found");
         }
 
-        user.getBlockedUsers().add(blockedUserId);
-        user.getContacts().remove(blockedUserId); // Remove from contacts if exists
-        userRepository.save(user);
+        boolean blocked = contactGraphRepository.addBlock(userId, blockedUserId);
+        boolean contactRemoved = contactGraphRepository.removeContact(userId, blockedUserId); // Remove from contacts if exists
+        if (blocked || contactRemoved) {
+            userCache.evict(userId);
+            userEventPublisher.publishUserInvalidated(userId);
+        }
 
         log.info("User {} blocked by user {}", blockedUserId, userId);
     }
@@ -335,49 +517,59 @@ public class UserService {
      * @param blockedUserId the blocked user ID
      */
     @Transactional
-    @CacheEvict(value = "users", key = "#userId")
     public void unblockUser(UUID userId, UUID blockedUserId) {
-        com.chatapp.user.entity.User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ChatAppException.ResourceNotFoundException("User not found"));
-
-        user.getBlockedUsers().remove(blockedUserId);
-        userRepository.save(user);
+        if (contactGraphRepository.removeBlock(userId, blockedUserId)) {
+            userCache.evict(userId);
+            userEventPublisher.publishUserInvalidated(userId);
+        } else if (!userRepository.existsById(userId)) {
+            throw new ChatAppException.ResourceNotFoundException("User not found");
+        }
 
         log.info("User {} unblocked by user {}", blockedUserId, userId);
     }
 
     /**
      * Update user status.
+     * The change is buffered and written in the next write-behind flush, which also publishes the
+     * status event if the status actually changed over the window.
      *
      * @param userId the user ID
      * @param status the new status
      */
-    @Transactional
-    @CacheEvict(value = "users", key = "#userId")
     public void updateUserStatus(UUID userId, com.chatapp.common.model.User.UserStatus status) {
-        com.chatapp.user.entity.User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ChatAppException.ResourceNotFoundException("User not found"));
-
-        user.setStatus(status);
-        user.setLastSeen(LocalDateTime.now());
-        userRepository.save(user);
+        if (userCache.get(userId).isEmpty() && !userRepository.existsById(userId)) {
+            throw new ChatAppException.ResourceNotFoundException("User not found");
+        }
 
-        // Publish status update event
-        userEventPublisher.publishUserStatusUpdated(user.toDto());
+        userStatusWriteBehindBuffer.record(userId, status, LocalDateTime.now());
 
-        log.info("User status updated to {} for ID: {}", status, userId);
+        log.debug("User status update to {} buffered for ID: {}", status, userId);
     }
 
     /**
      * Get users by IDs.
+     * Cached users are resolved in one cache round trip; only the misses are loaded from the
+     * database, in bounded parallel chunks, and written back to the cache.
      *
      * @param userIds the user IDs
-     * @return the list of users
+     * @return the list of users, in the iteration order of the given IDs; unknown IDs are skipped
      */
-    public List<User> getUsersByIds(Set<UUID> userIds) {
-        return userRepository.findByIdIn(userIds)
-                .stream()
-                .map(com.chatapp.user.entity.User::toDto)
+    public List<User> getUsersByIds(Collection<UUID> userIds) {
+        List<UUID> orderedIds = userIds.stream().distinct().collect(Collectors.toList());
+        Map<UUID, User> usersById = new HashMap<>(userCache.getAll(orderedIds));
+
+        List<UUID> missingIds = orderedIds.stream()
+                .filter(id -> !usersById.containsKey(id))
+                .collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            List<User> loaded = userBatchLoader.loadByIds(missingIds);
+            userCache.putAll(loaded);
+            loaded.forEach(user -> usersById.put(user.getId(), user));
+        }
+
+        return orderedIds.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
@@ -387,7 +579,6 @@ public class UserService {
      * @param userId the user ID
      */
     @Transactional
-    @CacheEvict(value = "users", key = "#userId")
     public void deleteUser(UUID userId) {
         com.chatapp.user.entity.User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ChatAppException.ResourceNotFoundException("User not found"));
@@ -396,6 +587,41 @@ public class UserService {
         userEventPublisher.publishUserDeleted(user.toDto());
 
         userRepository.delete(user);
+        userCache.evict(userId);
         log.info("User account deleted for ID: {}", userId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Convert a user entity to a DTO and store it in the user cache.
+     *
+     * @param user the user entity
+     * @return the user DTO
+     */
+    private User cacheUser(com.chatapp.user.entity.User user) {
+        User dto = user.toDto();
+        userCache.put(dto);
+        return dto;
+    }
+
+    private static void requirePageSize(int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new ChatAppException.BadRequestException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+    }
+
+    private static UserSearchIndex.Match parseSearchCursor(String[] after) {
+        try {
+            return new UserSearchIndex.Match(Integer.parseInt(after[1]), after[2], UUID.fromString(after[3]));
+        } catch (IllegalArgumentException e) {
+            throw new ChatAppException.BadRequestException("Invalid page cursor");
+        }
+    }
+
+    private static UUID parseUuid(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new ChatAppException.BadRequestException("Invalid page cursor");
+        }
+    }
+}
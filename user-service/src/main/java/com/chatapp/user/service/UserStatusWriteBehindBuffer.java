@@ -0,0 +1,216 @@
+package com.chatapp.user.service;
+
+import com.chatapp.common.model.User;
+import com.chatapp.common.model.User.UserStatus;
+import com.chatapp.user.cache.UserCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for user status and last-seen updates.
+ * Status changes are coalesced per user in memory and flushed periodically: the latest status and
+ * last-seen of every changed user are written with one statement per {@code batch-size} users, and
+ * a status event is published only when the written status differs from the one the row held. The
+ * statement locks the rows and returns their previous status, so events are right even when another
+ * instance or an earlier flush changed the status. Rapid ONLINE/AWAY flapping therefore costs one
+ * row update per window and no events.
+ *
+ * <p>A row is only updated if its last-seen is not newer than the change, so a late flush from
+ * another instance cannot overwrite a newer status. Cached users are refreshed with the flushed
+ * status unless a newer change is already pending, in which case they are evicted.
+ *
+ * <p>Reads of a user's status may lag by up to one flush interval.
+ */
+@Slf4j
+@Component
+public class UserStatusWriteBehindBuffer {
+
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE users u SET status = v.status, last_seen = v.last_seen, updated_at = ? "
+                    + "FROM unnest(?::uuid[], ?::varchar[], ?::timestamp[]) AS v(id, status, last_seen) "
+                    + "JOIN (SELECT id, status FROM users WHERE id = ANY(?::uuid[]) FOR UPDATE) AS previous "
+                    + "ON previous.id = v.id "
+                    + "WHERE u.id = v.id AND (u.last_seen IS NULL OR u.last_seen <= v.last_seen) "
+                    + "RETURNING u.id, previous.status";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserEventPublisher userEventPublisher;
+    private final UserCache userCache;
+    private final int batchSize;
+
+    private final Map<UUID, PendingStatus> pending = new ConcurrentHashMap<>();
+    private final AtomicLong recordedChanges = new AtomicLong();
+
+    public UserStatusWriteBehindBuffer(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       UserEventPublisher userEventPublisher,
+                                       UserCache userCache,
+                                       @Value("${user-status.write-behind.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userEventPublisher = userEventPublisher;
+        this.userCache = userCache;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Record a status change. Later changes for the same user within the window replace earlier ones.
+     *
+     * @param userId the user ID
+     * @param status the new status
+     * @param lastSeen the time of the change
+     */
+    public void record(UUID userId, UserStatus status, LocalDateTime lastSeen) {
+        recordedChanges.incrementAndGet();
+        pending.merge(userId, new PendingStatus(status, lastSeen), PendingStatus::latest);
+    }
+
+    /**
+     * Write all pending changes to the database and publish the net status transitions.
+     */
+    @Scheduled(fixedDelayString = "${user-status.write-behind.flush-interval:2000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, PendingStatus> drained = new HashMap<>();
+        for (UUID userId : pending.keySet()) {
+            PendingStatus status = pending.remove(userId);
+            if (status != null) {
+                drained.put(userId, status);
+            }
+        }
+        long changes = recordedChanges.getAndSet(0);
+
+        List<Map.Entry<UUID, PendingStatus>> entries = new ArrayList<>(drained.entrySet());
+        Map<UUID, PendingStatus> written;
+        try {
+            written = transactionTemplate.execute(tx -> writeBatch(entries));
+            log.debug("Flushed {} status changes as {} row updates", changes, written.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} user status updates, retrying in next window", entries.size(), e);
+            // Put the drained changes back without overwriting anything newer
+            drained.forEach((userId, status) -> pending.merge(userId, status, PendingStatus::latest));
+            return;
+        }
+
+        refreshCache(written);
+    }
+
+    /**
+     * Flush pending changes before the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Write the changes and publish the transitions of the rows that were actually updated.
+     *
+     * @return the changes that were written, by user ID
+     */
+    private Map<UUID, PendingStatus> writeBatch(List<Map.Entry<UUID, PendingStatus>> entries) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<UUID, PendingStatus> written = new HashMap<>();
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Map.Entry<UUID, PendingStatus>> chunk = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            Map<UUID, PendingStatus> changes = new HashMap<>();
+            UUID[] ids = new UUID[chunk.size()];
+            String[] statuses = new String[chunk.size()];
+            Timestamp[] lastSeen = new Timestamp[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                Map.Entry<UUID, PendingStatus> entry = chunk.get(i);
+                changes.put(entry.getKey(), entry.getValue());
+                ids[i] = entry.getKey();
+                statuses[i] = entry.getValue().status().name();
+                lastSeen[i] = Timestamp.valueOf(entry.getValue().lastSeen());
+            }
+
+            // A missing row or a newer last-seen leaves the row untouched and returns nothing
+            jdbcTemplate.query(connection -> {
+                Array idArray = connection.createArrayOf("uuid", ids);
+                PreparedStatement statement = connection.prepareStatement(UPDATE_STATUS_SQL);
+                statement.setTimestamp(1, now);
+                statement.setArray(2, idArray);
+                statement.setArray(3, connection.createArrayOf("varchar", statuses));
+                statement.setArray(4, connection.createArrayOf("timestamp", lastSeen));
+                statement.setArray(5, idArray);
+                return statement;
+            }, (ResultSet row) -> {
+                UUID userId = row.getObject(1, UUID.class);
+                String previousStatus = row.getString(2);
+                PendingStatus status = changes.get(userId);
+                written.put(userId, status);
+                if (!status.status().name().equals(previousStatus)) {
+                    userEventPublisher.publishUserStatusUpdated(userId, status.status(), status.lastSeen());
+                }
+            });
+        }
+        return written;
+    }
+
+    private void refreshCache(Map<UUID, PendingStatus> written) {
+        if (written.isEmpty()) {
+            return;
+        }
+        List<User> refreshed = new ArrayList<>();
+        userCache.getAll(written.keySet()).forEach((userId, user) -> {
+            if (pending.containsKey(userId)) {
+                // A newer change is waiting; the flushed status is already out of date
+                userCache.evict(userId);
+                return;
+            }
+            PendingStatus status = written.get(userId);
+            refreshed.add(User.builder()
+                    .id(user.getId())
+                    .username(user.getUsername())
+                    .email(user.getEmail())
+                    .displayName(user.getDisplayName())
+                    .profilePictureUrl(user.getProfilePictureUrl())
+                    .status(status.status())
+                    .lastSeen(status.lastSeen())
+                    .createdAt(user.getCreatedAt())
+                    .updatedAt(user.getUpdatedAt())
+                    .contacts(user.getContacts())
+                    .blockedUsers(user.getBlockedUsers())
+                    .settings(user.getSettings())
+                    .build());
+        });
+        userCache.putAll(refreshed);
+    }
+
+    /**
+     * The coalesced state of one user's status changes within a window.
+     *
+     * @param status the latest status
+     * @param lastSeen the time of the latest change
+     */
+    private record PendingStatus(UserStatus status, LocalDateTime lastSeen) {
+
+        private static PendingStatus latest(PendingStatus first, PendingStatus second) {
+            return second.lastSeen().isBefore(first.lastSeen()) ? first : second;
+        }
+    }
+}